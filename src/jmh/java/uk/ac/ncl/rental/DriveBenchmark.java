@@ -0,0 +1,80 @@
+package uk.ac.ncl.rental;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DriveBenchmark class.  JMH benchmarks of driving a car on a batch of journeys one at a time, and all at once with drive(int[]).
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DriveBenchmark {
+
+	@Param({"1024"})
+	public int journeys;
+
+	private Car smallCar;
+
+	private Car largeCar;
+
+	private int[] kms;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		smallCar = new SmallCar(RentalCompanyBenchmark.nextPlate());
+		largeCar = new LargeCar(RentalCompanyBenchmark.nextPlate());
+		smallCar.setRental(true);
+		largeCar.setRental(true);
+		kms = new Random(23).ints(journeys, 0, 200).toArray();
+	}
+
+	@Benchmark
+	public int driveSmallCarEach() {
+		return driveEach(smallCar);
+	}
+
+	@Benchmark
+	public int driveSmallCarAll() {
+		return driveAll(smallCar);
+	}
+
+	@Benchmark
+	public int driveLargeCarEach() {
+		return driveEach(largeCar);
+	}
+
+	@Benchmark
+	public int driveLargeCarAll() {
+		return driveAll(largeCar);
+	}
+
+	/**
+	 * Fills the tank so that it never runs dry, then drives each journey in turn.
+	 */
+	private int driveEach(Car car) {
+		car.fillTank(Integer.MAX_VALUE);
+		((AbstractCar) car).consumeFuel(-Integer.MAX_VALUE / 2);
+		int litres = 0;
+		for (int km : kms) {
+			litres += car.drive(km);
+		}
+		return litres;
+	}
+
+	/**
+	 * Fills the tank so that it never runs dry, then drives every journey at once.
+	 */
+	private int driveAll(Car car) {
+		car.fillTank(Integer.MAX_VALUE);
+		((AbstractCar) car).consumeFuel(-Integer.MAX_VALUE / 2);
+		return car.drive(kms);
+	}
+}
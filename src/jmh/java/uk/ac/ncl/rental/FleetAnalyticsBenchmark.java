@@ -0,0 +1,82 @@
+package uk.ac.ncl.rental;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FleetAnalyticsBenchmark class.  JMH benchmarks of the fleet-wide statistics of FleetAnalytics over a copy of 10 million cars,
+ * compared with the same statistic computed over Car objects.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class FleetAnalyticsBenchmark {
+
+	@Param({"10000000"})
+	public int cars;
+
+	private FleetAnalytics analytics;
+
+	private Car[] objects;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		// The copy is built directly, half small cars then half large cars, as registering 10 million Registration Numbers would be slow
+		Random random = new Random(24);
+		int[] fuel = new int[cars];
+		int small = cars / 2;
+		for (int i=0; i<cars; i++) {
+			fuel[i] = random.nextInt(i < small ? SmallCar.CAPACITY + 1 : LargeCar.CAPACITY + 1);
+		}
+		CarType[] types = CarType.values();
+		int[] start = new int[types.length + 1];
+		start[1] = small;
+		for (int t=2; t<start.length; t++) {
+			start[t] = cars;
+		}
+		analytics = new FleetAnalytics(types, fuel, start);
+
+		// A million car objects sharing a Registration Number, to compare with scanning objects
+		RegistrationNumber rn = RegistrationNumber.valueOf(RentalCompanyBenchmark.nextPlate());
+		objects = new Car[1_000_000];
+		for (int i=0; i<objects.length; i++) {
+			AbstractCar car = i % 2 == 0 ? new SmallCar(rn) : new LargeCar(rn);
+			car.consumeFuel(-fuel[i]);
+			objects[i] = car;
+		}
+	}
+
+	@Benchmark
+	public long totalRefuelLitres() {
+		return analytics.totalRefuelLitres();
+	}
+
+	@Benchmark
+	public int countBelow() {
+		return analytics.countBelow(25);
+	}
+
+	@Benchmark
+	public int[] distribution() {
+		return analytics.distribution(10);
+	}
+
+	/**
+	 * Total refuel litres over a tenth as many Car objects, for comparison.
+	 */
+	@Benchmark
+	public long totalRefuelLitresObjects() {
+		long total = 0;
+		for (Car car : objects) {
+			total += car.getCapacity() - car.getFuel();
+		}
+		return total;
+	}
+}
@@ -0,0 +1,61 @@
+package uk.ac.ncl.rental;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FleetReportBenchmark class.  JMH benchmarks of taking a FleetReport of a RentalCompany and of running its queries,
+ * which use every core of the common ForkJoinPool.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FleetReportBenchmark {
+
+	@Param({"1000000"})
+	public int fleetSize;
+
+	private RentalCompany rentCo;
+
+	private FleetReport report;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		rentCo = new RentalCompany();
+		for (int i=0; i<fleetSize; i++) {
+			String plate = RentalCompanyBenchmark.nextPlate();
+			Car car = i % 2 == 0 ? new SmallCar(plate) : new LargeCar(plate);
+			car.fillTank(i % 49);
+			rentCo.addCar(car);
+		}
+		report = rentCo.report();
+	}
+
+	@Benchmark
+	public FleetReport report() {
+		return rentCo.report();
+	}
+
+	@Benchmark
+	public int count() {
+		return report.count(CarType.SMALL_CAR, false);
+	}
+
+	@Benchmark
+	public List<Car> carsBelow() {
+		return report.carsBelow(5);
+	}
+
+	@Benchmark
+	public SortedMap<String, Integer> countByPrefix() {
+		return report.countByPrefix(2);
+	}
+}
@@ -0,0 +1,60 @@
+package uk.ac.ncl.rental;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FlyweightFleetBenchmark class.  JMH benchmarks of driving and refuelling a car held as an object, in a ColumnarFleet and in an OffHeapFleet.
+ * Run with the GC profiler to confirm that views leave no garbage behind:
+ * mvn -Pjmh package -DskipTests &amp;&amp; java -jar target/benchmarks.jar FlyweightFleetBenchmark -prof gc
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlyweightFleetBenchmark {
+
+	private Car object;
+
+	private Car columnar;
+
+	private Car offHeap;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		object = new LargeCar(RentalCompanyBenchmark.nextPlate());
+		columnar = new ColumnarFleet(1).add(RentalCompany.LARGE_CAR, RentalCompanyBenchmark.nextPlate());
+		offHeap = new OffHeapFleet(1).add(RentalCompany.LARGE_CAR, RentalCompanyBenchmark.nextPlate());
+		for (Car car : new Car[] {object, columnar, offHeap}) {
+			car.setRental(true);
+		}
+	}
+
+	@Benchmark
+	public int driveObject() {
+		return drive(object);
+	}
+
+	@Benchmark
+	public int driveColumnar() {
+		return drive(columnar);
+	}
+
+	@Benchmark
+	public int driveOffHeap() {
+		return drive(offHeap);
+	}
+
+	/**
+	 * Drives a car and fills its tank again.
+	 */
+	private static int drive(Car car) {
+		int litres = car.drive(73);
+		return litres + car.fillTank(litres);
+	}
+}
@@ -0,0 +1,229 @@
+package uk.ac.ncl.rental;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RentalCompanyBenchmark class.  JMH benchmarks for the RentalCompany hot paths, over a range of fleet sizes and rental occupancy levels.
+ * Each operation is measured on a single thread and on as many threads as there are processors.
+ * Run with: mvn -Pjmh package -DskipTests &amp;&amp; java -jar target/benchmarks.jar RentalCompanyBenchmark
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RentalCompanyBenchmark {
+
+	/**
+	 * Counter used to give every car created in this JVM a unique Registration Number.
+	 */
+	private static final AtomicInteger NEXT_PLATE = new AtomicInteger();
+
+	/**
+	 * Counter used to give every customer created in this JVM a unique Name.
+	 */
+	private static final AtomicInteger NEXT_CUSTOMER = new AtomicInteger();
+
+	/**
+	 * Company class.  A RentalCompany shared by all benchmark threads, with half small and half large cars,
+	 * of which the given percentage are already rented.
+	 */
+	@State(Scope.Benchmark)
+	public static class Company {
+
+		@Param({"1000", "10000", "100000", "1000000"})
+		int fleetSize;
+
+		@Param({"0", "50", "90"})
+		int occupancy;
+
+		RentalCompany rentCo;
+
+		Person renter;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			rentCo = new RentalCompany();
+			for (int i=0; i<fleetSize; i++) {
+				String plate = nextPlate();
+				rentCo.addCar(i % 2 == 0 ? new SmallCar(plate) : new LargeCar(plate));
+			}
+			int rented = (int) ((long) fleetSize * occupancy / 100);
+			for (int i=0; i<rented; i++) {
+				Customer c = new Customer();
+				c.setUp();
+				rentCo.issueCar(c.person, c.licence, i % 2 == 0 ? RentalCompany.SMALL_CAR : RentalCompany.LARGE_CAR);
+				renter = c.person;
+			}
+			if (renter == null) {
+				renter = new Customer().newPerson();
+			}
+		}
+	}
+
+	/**
+	 * Customer class.  An eligible customer with no rental, one per benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class Customer {
+
+		Person person;
+
+		DrivingLicence licence;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			person = newPerson();
+			licence = new DrivingLicence(person.getName(), toDate(LocalDate.now().minusYears(10)), true);
+		}
+
+		Person newPerson() {
+			return new Person(new Name("Renter", "R" + lowercase(NEXT_CUSTOMER.getAndIncrement())), toDate(LocalDate.now().minusYears(40)));
+		}
+	}
+
+	/**
+	 * Batch class.  A batch of requests from eligible customers with no rental, alternating small and large cars, one batch per benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class Batch {
+
+		static final int SIZE = 1000;
+
+		List<RentalRequest> requests;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			requests = new ArrayList<>(SIZE);
+			for (int i=0; i<SIZE; i++) {
+				Customer c = new Customer();
+				c.setUp();
+				requests.add(new RentalRequest(c.person, c.licence, i % 2 == 0 ? RentalCompany.SMALL_CAR : RentalCompany.LARGE_CAR));
+			}
+		}
+	}
+
+	@Benchmark
+	public int availableCars(Company company) {
+		return company.rentCo.availableCars(RentalCompany.SMALL_CAR);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public int availableCarsConcurrent(Company company) {
+		return company.rentCo.availableCars(RentalCompany.SMALL_CAR);
+	}
+
+	@Benchmark
+	public Set<Car> getRentedCars(Company company) {
+		return company.rentCo.getRentedCars();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Set<Car> getRentedCarsConcurrent(Company company) {
+		return company.rentCo.getRentedCars();
+	}
+
+	@Benchmark
+	public Car getCar(Company company) {
+		return company.rentCo.getCar(company.renter);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Car getCarConcurrent(Company company) {
+		return company.rentCo.getCar(company.renter);
+	}
+
+	/**
+	 * Issues a car and terminates the rental again, so the fleet is left as it was found.
+	 */
+	@Benchmark
+	public int issueCarAndTerminateRental(Company company, Customer customer) {
+		company.rentCo.issueCar(customer.person, customer.licence, RentalCompany.SMALL_CAR);
+		return company.rentCo.terminateRental(customer.person);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public int issueCarAndTerminateRentalConcurrent(Company company, Customer customer) {
+		company.rentCo.issueCar(customer.person, customer.licence, RentalCompany.SMALL_CAR);
+		return company.rentCo.terminateRental(customer.person);
+	}
+
+	/**
+	 * Issues cars for a batch of requests and terminates the rentals again, so the fleet is left as it was found.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(Batch.SIZE)
+	public int issueCarsAndTerminateRentals(Company company, Batch batch) {
+		company.rentCo.issueCars(batch.requests);
+		int litres = 0;
+		for (RentalRequest request : batch.requests) {
+			litres += company.rentCo.terminateRental(request.getPerson());
+		}
+		return litres;
+	}
+
+	/**
+	 * Terminates a rental that does not exist, which measures the lookup alone.
+	 */
+	@Benchmark
+	public int terminateRentalNoRental(Company company, Customer customer) {
+		return company.rentCo.terminateRental(customer.person);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public int terminateRentalNoRentalConcurrent(Company company, Customer customer) {
+		return company.rentCo.terminateRental(customer.person);
+	}
+
+	/**
+	 * Returns the next unique Registration Number, counting through every valid Registration Number from AA00 AAA.
+	 */
+	static String nextPlate() {
+		int n = NEXT_PLATE.getAndIncrement();
+		char[] chars = new char[8];
+		for (int i=7; i>=5; i--) {
+			chars[i] = (char) ('A' + n % 26);
+			n /= 26;
+		}
+		chars[4] = ' ';
+		for (int i=3; i>=2; i--) {
+			chars[i] = (char) ('0' + n % 10);
+			n /= 10;
+		}
+		chars[1] = (char) ('A' + n % 26);
+		chars[0] = (char) ('A' + n / 26 % 26);
+		return new String(chars);
+	}
+
+	/**
+	 * Returns a number written in lowercase letters, as names may not contain digits.
+	 */
+	static String lowercase(int n) {
+		StringBuilder sb = new StringBuilder();
+		do {
+			sb.append((char) ('a' + n % 26));
+			n /= 26;
+		} while (n > 0);
+		return sb.toString();
+	}
+
+	static Date toDate(LocalDate date) {
+		return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+	}
+}
@@ -0,0 +1,67 @@
+package uk.ac.ncl.rental;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RentalCsvBenchmark class.  JMH benchmarks of importing a customer file with RentalCsv, sequentially and in parallel, reported per row.
+ * Customer files are used because importing a fleet file registers its Registration Numbers, so it cannot be repeated in one JVM.
+ * Run with: mvn -Pjmh package -DskipTests &amp;&amp; java -jar target/benchmarks.jar RentalCsvBenchmark
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RentalCsvBenchmark {
+
+	/**
+	 * Number of rows in the customer file.
+	 */
+	private static final int ROWS = 1000000;
+
+	private Path path;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		path = Files.createTempFile("persons", ".csv");
+		List<Person> persons = new ArrayList<>(ROWS);
+		LocalDate birth = LocalDate.of(1950, 1, 1);
+		for (int i=0; i<ROWS; i++) {
+			persons.add(Person.of(new Name("Customer", "C" + RentalCompanyBenchmark.lowercase(i)), birth.plusDays(i % 20000)));
+		}
+		RentalCsv.exportPersons(persons, path);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public int importPersons() throws IOException {
+		LongAdder hashes = new LongAdder();
+		RentalCsv.importPersons(path, p -> hashes.add(p.hashCode()), false);
+		return hashes.intValue();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public int importPersonsParallel() throws IOException {
+		LongAdder hashes = new LongAdder();
+		RentalCsv.importPersons(path, p -> hashes.add(p.hashCode()), true);
+		return hashes.intValue();
+	}
+}
@@ -0,0 +1,73 @@
+package uk.ac.ncl.rental;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RentalJournalBenchmark class.  JMH benchmark of replaying a RentalJournal, reported per event replayed.
+ * Run with: mvn -Pjmh package -DskipTests &amp;&amp; java -jar target/benchmarks.jar RentalJournalBenchmark
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RentalJournalBenchmark {
+
+	/**
+	 * Number of cars in the journalled fleet, each of which is issued and returned twice, then issued again.
+	 */
+	private static final int CARS = 100000;
+
+	/**
+	 * Number of events in the journal: each car is added, issued three times and returned twice.
+	 */
+	private static final int EVENTS = CARS * 6;
+
+	private Path path;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		path = Files.createTempFile("rentals", ".journal");
+		Files.delete(path);
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			RentalCompany rentCo = journal.recover();
+			Person[] persons = new Person[CARS];
+			DrivingLicence[] licences = new DrivingLicence[CARS];
+			for (int i=0; i<CARS; i++) {
+				rentCo.addCar(new SmallCar(RentalCompanyBenchmark.nextPlate()));
+				persons[i] = Person.of(new Name("Journal", "J" + RentalCompanyBenchmark.lowercase(i)), LocalDate.now().minusYears(40));
+				licences[i] = DrivingLicence.of(persons[i].getName(), LocalDate.now().minusYears(10), true);
+			}
+			for (int round=0; round<3; round++) {
+				for (int i=0; i<CARS; i++) {
+					rentCo.issueCar(persons[i], licences[i], RentalCompany.SMALL_CAR);
+				}
+				if (round < 2) {
+					for (int i=0; i<CARS; i++) {
+						rentCo.terminateRental(persons[i]);
+					}
+				}
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(EVENTS)
+	public RentalCompany replay() throws IOException {
+		return RentalJournal.replay(path);
+	}
+}
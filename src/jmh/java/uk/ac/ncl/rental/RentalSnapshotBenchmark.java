@@ -0,0 +1,57 @@
+package uk.ac.ncl.rental;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RentalSnapshotBenchmark class.  JMH benchmark of loading a RentalCompany from a RentalSnapshot of a million cars, half of them rented.
+ * Run with: mvn -Pjmh package -DskipTests &amp;&amp; java -jar target/benchmarks.jar RentalSnapshotBenchmark
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class RentalSnapshotBenchmark {
+
+	/**
+	 * Number of cars in the snapshot.
+	 */
+	private static final int CARS = 1000000;
+
+	private Path path;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		path = Files.createTempFile("rentals", ".snapshot");
+		RentalCompany rentCo = new RentalCompany();
+		for (int i=0; i<CARS; i++) {
+			String plate = RentalCompanyBenchmark.nextPlate();
+			rentCo.addCar(i % 2 == 0 ? new SmallCar(plate) : new LargeCar(plate));
+		}
+		for (int i=0; i<CARS/2; i++) {
+			Person person = Person.of(new Name("Snapshot", "S" + RentalCompanyBenchmark.lowercase(i)), LocalDate.now().minusYears(40));
+			DrivingLicence licence = DrivingLicence.of(person.getName(), LocalDate.now().minusYears(10), true);
+			rentCo.issueCar(person, licence, i % 2 == 0 ? RentalCompany.SMALL_CAR : RentalCompany.LARGE_CAR);
+		}
+		RentalSnapshot.write(rentCo, path);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	@Benchmark
+	public RentalCompany load() throws IOException {
+		return RentalSnapshot.load(path);
+	}
+}
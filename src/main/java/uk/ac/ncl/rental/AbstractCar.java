@@ -1,5 +1,8 @@
 package uk.ac.ncl.rental;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * AbstractCar class.  This class provides a partial implementation of the Car interface i.e. those elements common to both SmallCar and LargeCar. 
  * @author Stephen Shephard
@@ -24,8 +27,21 @@ public abstract class AbstractCar implements Car {
 	
 	/**
 	 * True if the is car currently rented, false otherwise.
+	 * Volatile, and updated by compare-and-set in claimRental, so that a car can be claimed by exactly one thread without locking.
+	 */
+	private volatile boolean activeRental = false;
+	
+	/**
+	 * VarHandle used to compare-and-set the activeRental field.
 	 */
-	private boolean activeRental = false;
+	private static final VarHandle ACTIVE_RENTAL;
+	static {
+		try {
+			ACTIVE_RENTAL = MethodHandles.lookup().findVarHandle(AbstractCar.class, "activeRental", boolean.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
 	
 	/**
 	 * Constructs an AbstractCar with the given registration number and capacity.
@@ -50,6 +66,12 @@ public abstract class AbstractCar implements Car {
 		return regNumber;
 	}
 	
+	/**
+	 * Method to get the type of the car.  Every subclass of AbstractCar is of a type that can be rented.
+	 * @return the type of car as a CarType.
+	 */
+	public abstract CarType getType();
+	
 	/**
 	 * Method to get the capacity of the car's fuel tank.
 	 * @return the capacity in whole Litres as an integer.
@@ -73,6 +95,15 @@ public abstract class AbstractCar implements Car {
 	public void setRental(boolean activeRental) {
 		this.activeRental = activeRental;
 	}
+	
+	/**
+	 * Method to atomically claim a car for rental, changing its rental status from not rented to rented.
+	 * If several threads try to claim the same car at once, exactly one of them succeeds.
+	 * @return true if the car was claimed, false if it was already rented.
+	 */
+	public boolean claimRental() {
+		return ACTIVE_RENTAL.compareAndSet(this, false, true);
+	}
 
 	/**
 	 * Method to get the amount of fuel currently in the fuel tank.
@@ -91,6 +122,63 @@ public abstract class AbstractCar implements Car {
 		fuel = fuel - fuelConsumed;
 	}
 
+	/**
+	 * Method to "drive" the car for a sequence of journeys, each of a given number of whole Kilometres.
+	 * The result is exactly that of calling drive for each journey in turn, but the distances and rental status are checked once,
+	 * and the fuel for all the journeys is computed by the consumption model of the car's type and consumed at once.
+	 * @param kms given numbers of whole Kilometres of each journey.
+	 * @return the total number of whole Litres of fuel consumed during the journeys as an integer.
+	 * @throws IllegalArgumentException if kms is null or any distance is invalid (negative), in which case no journey is driven.
+	 * @throws IllegalStateException if the car cannot be driven.
+	 */
+	@Override public int drive(int[] kms) {
+		// Check parameters
+		checkDistances(kms);
+		if (!this.isRented()) {
+			// Calls toString of the subclass
+			throw new IllegalStateException("Car " + this + " cannot be driven as it is not currently rented");
+		}
+		int fuelConsumed = fuelConsumed(getType().getConsumption(), kms, fuel);
+		fuel = fuel - fuelConsumed;
+		return fuelConsumed;
+	}
+
+	/**
+	 * Checks the distances of a sequence of journeys, also used by Car and the views of a FlyweightFleet.
+	 * @param kms given numbers of whole Kilometres of each journey.
+	 * @throws IllegalArgumentException if kms is null or any distance is negative.
+	 */
+	static void checkDistances(int[] kms) {
+		if (kms == null) {
+			throw new IllegalArgumentException("kms parameter cannot be null");
+		}
+		// Combine the sign bits of every distance, so that the check costs one test however many journeys there are
+		int signs = 0;
+		for (int km : kms) {
+			signs |= km;
+		}
+		if (signs < 0) {
+			throw new IllegalArgumentException("Cannot drive a negative distance");
+		}
+	}
+
+	/**
+	 * Returns the fuel consumed by a car driven on a sequence of journeys, as when calling drive for each journey in turn,
+	 * also used by the views of a FlyweightFleet.
+	 * @param consumption the consumption model of the type of car.
+	 * @param kms non-negative numbers of whole Kilometres of each journey.
+	 * @param fuel the fuel in the tank before the first journey.
+	 * @return the total number of whole Litres of fuel consumed as an integer.
+	 */
+	static int fuelConsumed(ConsumptionModel consumption, int[] kms, int fuel) {
+		int remaining = fuel;
+		// Once there is no fuel in the tank no further journey consumes any, as for drive
+		for (int i=0; i<kms.length && remaining > 0; i++) {
+			remaining -= consumption.fuelConsumed(kms[i]);
+		}
+		return fuel - remaining;
+	}
+
 	/**
 	 * Method that indicates whether the car's fuel tank is full or not.
 	 * @return true if the tank is full, false otherwise as a boolean.
@@ -0,0 +1,96 @@
+package uk.ac.ncl.rental;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * AsciiSequence class.  A CharSequence view of a range of an array of ASCII bytes, used by RentalCsv to parse fields in place
+ * without decoding each line to a String.  The view can be moved to a new range, so one instance serves a whole file.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+final class AsciiSequence implements CharSequence {
+
+	/**
+	 * The bytes viewed.
+	 */
+	private byte[] bytes;
+
+	/**
+	 * Index of the first byte of the range.
+	 */
+	private int from;
+
+	/**
+	 * Index after the last byte of the range.
+	 */
+	private int to;
+
+	/**
+	 * Constructs an empty AsciiSequence.
+	 */
+	AsciiSequence() {
+		this(new byte[0], 0, 0);
+	}
+
+	/**
+	 * Constructs an AsciiSequence viewing the given range of bytes.
+	 * @param bytes the bytes.
+	 * @param from index of the first byte of the range.
+	 * @param to index after the last byte of the range.
+	 */
+	AsciiSequence(byte[] bytes, int from, int to) {
+		set(bytes, from, to);
+	}
+
+	/**
+	 * Moves this AsciiSequence to view the given range of bytes.
+	 * @param bytes the bytes.
+	 * @param from index of the first byte of the range.
+	 * @param to index after the last byte of the range.
+	 * @return this AsciiSequence.
+	 */
+	AsciiSequence set(byte[] bytes, int from, int to) {
+		this.bytes = bytes;
+		this.from = from;
+		this.to = to;
+		return this;
+	}
+
+	/**
+	 * Returns the index of the first occurrence of a character in this sequence at or after the given index.
+	 * @param c the character, which must be ASCII.
+	 * @param index the index to search from.
+	 * @return the index of the character, or -1 if it does not occur.
+	 */
+	int indexOf(char c, int index) {
+		for (int i=from+index; i<to; i++) {
+			if (bytes[i] == c) {
+				return i - from;
+			}
+		}
+		return -1;
+	}
+
+	@Override public int length() {
+		return to - from;
+	}
+
+	@Override public char charAt(int index) {
+		if (index < 0 || index >= to - from) {
+			throw new IndexOutOfBoundsException("index " + index + " out of range");
+		}
+		// Bytes are treated as ISO-8859-1, which maps ASCII unchanged
+		return (char) (bytes[from + index] & 0xFF);
+	}
+
+	@Override public AsciiSequence subSequence(int start, int end) {
+		if (start < 0 || end > to - from || start > end) {
+			throw new IndexOutOfBoundsException("range " + start + "-" + end + " out of range");
+		}
+		return new AsciiSequence(bytes, from + start, from + end);
+	}
+
+	@Override public String toString() {
+		return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+	}
+}
@@ -13,6 +13,15 @@ public interface Car {
 	 */
 	RegistrationNumber getRegistrationNumber();
 	
+	/**
+	 * Method to get the type of the car.
+	 * The default returns null, so implementations that do not override it are never rented by a RentalCompany.
+	 * @return the type of car as a CarType, or null if the car is of a type that cannot be rented.
+	 */
+	default CarType getType() {
+		return null;
+	}
+	
 	/**
 	 * Method to get the amount of fuel currently in the fuel tank.
 	 * @return the amount of fuel in whole Litres as an integer.
@@ -37,6 +46,27 @@ public interface Car {
 	 */
 	void setRental(boolean activeRental);
 	
+	/**
+	 * Method to get whether the car is currently issued for rental, without changing its rental status.
+	 * The default cannot read the rental status, so it returns false; a RentalCompany then treats the car as not rented when it is added.
+	 * @return true if the car is currently being rented, false otherwise.
+	 */
+	default boolean isRented() {
+		return false;
+	}
+	
+	/**
+	 * Method to atomically claim a car for rental, changing its rental status from not rented to rented.
+	 * If several threads try to claim the same car at once, exactly one of them succeeds.
+	 * The default cannot read the rental status, so it sets it and always succeeds; this is safe only as long as the car is claimed
+	 * from one place at a time, as it is while held in a single RentalCompany, which takes each free car from its pool exactly once.
+	 * @return true if the car was claimed, false if it was already rented.
+	 */
+	default boolean claimRental() {
+		setRental(true);
+		return true;
+	}
+	
 	/**
 	 * Method to add a given number of whole Litres to the fuel tank (up to the tank's capacity).
 	 * @param litres given number of whole Litres to add to tank.
@@ -52,5 +82,30 @@ public interface Car {
 	 * @throws IllegalStateException if the car cannot be driven.
 	 */
 	int drive(int km);
+	
+	/**
+	 * Method to "drive" the car for a sequence of journeys, each of a given number of whole Kilometres.
+	 * The result is exactly that of calling drive for each journey in turn, except that every distance and the rental status are checked
+	 * before any journey is driven, even if there are no journeys; implementations may consume the fuel for all the journeys in one pass.
+	 * The default cannot read the rental status, so it leaves drive to check it: the first journey is driven alone, or a journey of no
+	 * distance if there are none.
+	 * @param kms given numbers of whole Kilometres of each journey.
+	 * @return the total number of whole Litres of fuel consumed during the journeys as an integer.
+	 * @throws IllegalArgumentException if kms is null or any distance is invalid (negative), in which case no journey is driven.
+	 * @throws IllegalStateException if the car cannot be driven.
+	 */
+	default int drive(int[] kms) {
+		// Check parameters
+		AbstractCar.checkDistances(kms);
+		if (kms.length == 0) {
+			// Drive no distance, so that a car that is not rented is rejected as AbstractCar rejects it
+			return drive(0);
+		}
+		int total = 0;
+		for (int km : kms) {
+			total += drive(km);
+		}
+		return total;
+	}
 
 }
@@ -0,0 +1,295 @@
+package uk.ac.ncl.rental;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CarType class.  The types of car that may be rented, each with its name as used by the String methods of RentalCompany,
+ * the capacity of its fuel tank, its consumption model and the eligibility thresholds for renting it.
+ * SMALL_CAR and LARGE_CAR are always registered; further types, such as vans, are added with register and their cars created as TypedCar.
+ * Each type has an ordinal, in the order the types were registered, by which RentalCompany indexes its per-type state,
+ * so a type of car is dispatched without comparing Strings or testing classes however many types are registered.
+ * Types are never unregistered, and there is only one CarType object for each type, so they may be compared by identity.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+public final class CarType {
+
+	/**
+	 * Maximum number of types of car, so that the ordinal of a type fits in a byte.
+	 */
+	public static final int MAX_TYPES = 128;
+
+	/**
+	 * Maximum length of the name of a type of car, so that the length of a name fits in an unsigned byte when journalled or snapshotted.
+	 */
+	public static final int MAX_NAME_LENGTH = 255;
+
+	/**
+	 * The registered types of car, indexed by ordinal.  Replaced, never modified, when a type is registered, so it may be read without locking.
+	 */
+	private static volatile CarType[] types = new CarType[0];
+
+	/**
+	 * A map, implemented as a HashMap, from the name of each registered type of car to the type.
+	 * Replaced, never modified, when a type is registered, so it may be read without locking.
+	 */
+	private static volatile Map<String, CarType> byName = new HashMap<>();
+
+	/**
+	 * A SmallCar: 49 litre tank, 20km/litre; renter at least 20 years old with a full licence held for at least 1 year.
+	 */
+	public static final CarType SMALL_CAR = register(RentalCompany.SMALL_CAR, SmallCar.CAPACITY, SmallCar.CONSUMPTION, 20, 1);
+
+	/**
+	 * A LargeCar: 60 litre tank, 10km/litre for the first 50km then 15km/litre; renter at least 25 years old with a full licence held for at least 5 years.
+	 */
+	public static final CarType LARGE_CAR = register(RentalCompany.LARGE_CAR, LargeCar.CAPACITY, LargeCar.CONSUMPTION, 25, 5);
+
+	/**
+	 * Name of the type of car e.g. "SmallCar".
+	 */
+	private final String name;
+
+	/**
+	 * Ordinal of the type of car, its position in the order the types were registered.
+	 */
+	private final int ordinal;
+
+	/**
+	 * Capacity of the fuel tank in whole litres.
+	 */
+	private final int capacity;
+
+	/**
+	 * Fuel consumed by this type of car driving a given distance.
+	 */
+	private final ConsumptionModel consumption;
+
+	/**
+	 * Minimum age in years of a person renting this type of car.
+	 */
+	private final int minimumAge;
+
+	/**
+	 * Minimum number of years a person renting this type of car must have held their licence.
+	 */
+	private final int minimumLicenceYears;
+
+	/**
+	 * Constructs a CarType.  Parameters have already been checked by register.
+	 * @param name the name of the type of car.
+	 * @param ordinal the ordinal of the type of car.
+	 * @param capacity the capacity of the fuel tank in whole litres.
+	 * @param consumption the consumption model.
+	 * @param minimumAge the minimum age in years of a renter.
+	 * @param minimumLicenceYears the minimum number of years a renter must have held their licence.
+	 */
+	private CarType(String name, int ordinal, int capacity, ConsumptionModel consumption, int minimumAge, int minimumLicenceYears) {
+		this.name = name;
+		this.ordinal = ordinal;
+		this.capacity = capacity;
+		this.consumption = consumption;
+		this.minimumAge = minimumAge;
+		this.minimumLicenceYears = minimumLicenceYears;
+	}
+
+	/**
+	 * Registers a new type of car.
+	 * @param name the name of the type of car, one to MAX_NAME_LENGTH letters and digits e.g. "Van".
+	 * @param capacity the capacity of the fuel tank in whole litres, between 1 and 32767.
+	 * @param consumption the fuel consumed driving a given distance.
+	 * @param minimumAge the minimum age in years of a person renting this type of car.
+	 * @param minimumLicenceYears the minimum number of years a person renting this type of car must have held their licence.
+	 * @return the new CarType.
+	 * @throws IllegalArgumentException if any null or invalid parameter is supplied.
+	 * @throws IllegalStateException if a type with the same name is already registered, or MAX_TYPES types are already registered.
+	 */
+	public static synchronized CarType register(String name, int capacity, ConsumptionModel consumption, int minimumAge, int minimumLicenceYears) {
+		// Check parameters
+		if (name == null) {
+			throw new IllegalArgumentException("name parameter cannot be null");
+		}
+		if (name.isEmpty() || name.length() > MAX_NAME_LENGTH || !name.chars().allMatch(c -> c < 128 && Character.isLetterOrDigit(c))) {
+			throw new IllegalArgumentException("name parameter must be between 1 and " + MAX_NAME_LENGTH + " letters and digits");
+		}
+		if (capacity < 1 || capacity > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("capacity parameter must be between 1 and " + Short.MAX_VALUE);
+		}
+		if (consumption == null) {
+			throw new IllegalArgumentException("consumption parameter cannot be null");
+		}
+		if (minimumAge < 0) {
+			throw new IllegalArgumentException("minimumAge parameter cannot be negative");
+		}
+		if (minimumLicenceYears < 0) {
+			throw new IllegalArgumentException("minimumLicenceYears parameter cannot be negative");
+		}
+
+		CarType[] registered = types;
+		if (byName.containsKey(name)) {
+			throw new IllegalStateException("Type of car " + name + " is already registered");
+		}
+		if (registered.length == MAX_TYPES) {
+			throw new IllegalStateException("Cannot register more than " + MAX_TYPES + " types of car");
+		}
+		CarType type = new CarType(name, registered.length, capacity, consumption, minimumAge, minimumLicenceYears);
+		CarType[] updated = new CarType[registered.length + 1];
+		System.arraycopy(registered, 0, updated, 0, registered.length);
+		updated[registered.length] = type;
+		Map<String, CarType> updatedByName = new HashMap<>(byName);
+		updatedByName.put(name, type);
+		// Publish the map first, so that a type found by ordinal can always be found by name
+		byName = updatedByName;
+		types = updated;
+		return type;
+	}
+
+	/**
+	 * Returns the CarType with the given name.
+	 * @param typeOfCar String containing the name of a registered type of car e.g. "SmallCar" or "LargeCar".
+	 * @return the CarType.
+	 * @throws IllegalArgumentException if a null or invalid typeOfCar parameter is supplied.
+	 */
+	public static CarType of(String typeOfCar) {
+		// Check parameter
+		if (typeOfCar == null) {
+			throw new IllegalArgumentException("typeOfCar parameter cannot be null");
+		}
+		CarType type = byName.get(typeOfCar);
+		if (type == null) {
+			throw new IllegalArgumentException("typeOfCar parameter must be a registered type of car e.g. SmallCar or LargeCar");
+		}
+		return type;
+	}
+
+	/**
+	 * Returns the type of car whose name is the given range of characters, or null if there is none, as when parsing a name in place.
+	 * @param cs the characters.
+	 * @param from index of the first character of the name.
+	 * @param to index after the last character of the name.
+	 * @return the CarType, or null if there is none.
+	 */
+	static CarType find(CharSequence cs, int from, int to) {
+		// There are few types of car, and comparing the characters in place avoids creating a String to look up
+		for (CarType type : types) {
+			if (regionMatches(cs, from, to, type.name)) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns whether a range of characters is equal to the given String.
+	 * @param cs the characters.
+	 * @param from index of the first character of the range.
+	 * @param to index after the last character of the range.
+	 * @param s the String.
+	 * @return true if the range is equal to the String, false otherwise.
+	 */
+	private static boolean regionMatches(CharSequence cs, int from, int to, String s) {
+		if (to - from != s.length()) {
+			return false;
+		}
+		for (int i=0; i<s.length(); i++) {
+			if (cs.charAt(from + i) != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the registered types of car, in order of their ordinals.
+	 * @return a new array of the types of car.
+	 */
+	public static CarType[] values() {
+		return types.clone();
+	}
+
+	/**
+	 * Returns the number of registered types of car, which is one more than the highest ordinal.
+	 * @return the number of types as an integer.
+	 */
+	static int count() {
+		return types.length;
+	}
+
+	/**
+	 * Returns the CarType with the given ordinal.
+	 * @param ordinal the ordinal of the type of car.
+	 * @return the CarType.
+	 * @throws ArrayIndexOutOfBoundsException if there is no CarType with the given ordinal.
+	 */
+	static CarType ofOrdinal(int ordinal) {
+		return types[ordinal];
+	}
+
+	/**
+	 * Creates a car of this type with an empty tank, as a SmallCar, a LargeCar, or a TypedCar for any other type.
+	 * @param rn the registration number of the car, already registered.
+	 * @return the new car.
+	 */
+	AbstractCar newCar(RegistrationNumber rn) {
+		if (this == SMALL_CAR) return new SmallCar(rn);
+		if (this == LARGE_CAR) return new LargeCar(rn);
+		return new TypedCar(this, rn);
+	}
+
+	/**
+	 * Returns the name of the type of car.
+	 * @return the name as a String e.g. "SmallCar" or "LargeCar".
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the ordinal of the type of car, its position in the order the types were registered.
+	 * @return the ordinal as an integer.
+	 */
+	public int ordinal() {
+		return ordinal;
+	}
+
+	/**
+	 * Returns the capacity of the fuel tank of this type of car.
+	 * @return the capacity in whole litres as an integer.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the consumption model of this type of car.
+	 * @return the consumption model.
+	 */
+	public ConsumptionModel getConsumption() {
+		return consumption;
+	}
+
+	/**
+	 * Returns the minimum age of a person renting this type of car.
+	 * @return the minimum age in years as an integer.
+	 */
+	public int getMinimumAge() {
+		return minimumAge;
+	}
+
+	/**
+	 * Returns the minimum number of years a person renting this type of car must have held their licence.
+	 * @return the minimum number of years as an integer.
+	 */
+	public int getMinimumLicenceYears() {
+		return minimumLicenceYears;
+	}
+
+	/**
+	 * Return a string representation of this CarType.
+	 * @return the name of the type of car e.g. "SmallCar" or "LargeCar".
+	 */
+	@Override public String toString() {
+		return name;
+	}
+}
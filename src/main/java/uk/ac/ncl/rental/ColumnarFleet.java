@@ -0,0 +1,115 @@
+package uk.ac.ncl.rental;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * ColumnarFleet class.  A compact store for very large fleets of cars, held as parallel primitive arrays
+ * rather than as one object per car: the packed Registration Number, type and fuel of each car, and a bit set of the cars that are rented.
+ * A car is about 9 bytes of arrays, against several times that for a SmallCar or LargeCar object, and fleet-wide scans read contiguous memory.
+ * Each car is accessed through a flyweight Car view, as described by FlyweightFleet.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+public final class ColumnarFleet extends FlyweightFleet {
+
+	/**
+	 * VarHandle used to read and atomically update the words of the rented bit set.
+	 */
+	private static final VarHandle RENTED = MethodHandles.arrayElementVarHandle(long[].class);
+
+	/**
+	 * Packed Registration Number of each car, indexed by car.
+	 */
+	private final int[] packed;
+
+	/**
+	 * Ordinal of the CarType of each car, indexed by car.
+	 */
+	private final byte[] types;
+
+	/**
+	 * Fuel in whole litres in the tank of each car, indexed by car.
+	 */
+	private final int[] fuel;
+
+	/**
+	 * Bit set of the cars currently rented, 64 cars to each word.
+	 */
+	private final long[] rented;
+
+	/**
+	 * Constructs an empty ColumnarFleet with room for the given number of cars.
+	 * @param maxCars the maximum number of cars in the fleet.
+	 * @throws IllegalArgumentException if maxCars is negative.
+	 */
+	public ColumnarFleet(int maxCars) {
+		super(checkMaxCars(maxCars));
+		packed = new int[maxCars];
+		types = new byte[maxCars];
+		fuel = new int[maxCars];
+		rented = new long[(maxCars + 63) >>> 6];
+	}
+
+	/**
+	 * Checks the maximum number of cars of a ColumnarFleet.
+	 * @param maxCars the maximum number of cars in the fleet.
+	 * @return maxCars.
+	 * @throws IllegalArgumentException if maxCars is negative.
+	 */
+	private static int checkMaxCars(int maxCars) {
+		if (maxCars < 0) {
+			throw new IllegalArgumentException("maxCars parameter cannot be negative");
+		}
+		return maxCars;
+	}
+
+	/**
+	 * Returns the number of cars currently rented, counting the bits of the rented bit set a word at a time.
+	 * @return the number of rented cars as an integer.
+	 */
+	@Override public int rentedCars() {
+		int count = 0;
+		for (int i=0; i<rented.length; i++) {
+			count += Long.bitCount((long) RENTED.getVolatile(rented, i));
+		}
+		return count;
+	}
+
+	@Override void store(int index, int packed, byte type) {
+		this.packed[index] = packed;
+		types[index] = type;
+	}
+
+	@Override int packed(int index) {
+		return packed[index];
+	}
+
+	@Override byte type(int index) {
+		return types[index];
+	}
+
+	@Override int fuel(int index) {
+		return fuel[index];
+	}
+
+	@Override void setFuel(int index, int litres) {
+		fuel[index] = litres;
+	}
+
+	@Override boolean isRented(int index) {
+		return ((long) RENTED.getVolatile(rented, index >>> 6) & (1L << index)) != 0;
+	}
+
+	@Override void setRented(int index, boolean rented) {
+		if (rented) {
+			RENTED.getAndBitwiseOr(this.rented, index >>> 6, 1L << index);
+		} else {
+			RENTED.getAndBitwiseAnd(this.rented, index >>> 6, ~(1L << index));
+		}
+	}
+
+	@Override boolean claimRented(int index) {
+		return ((long) RENTED.getAndBitwiseOr(rented, index >>> 6, 1L << index) & (1L << index)) == 0;
+	}
+}
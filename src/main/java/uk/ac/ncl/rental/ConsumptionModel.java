@@ -0,0 +1,54 @@
+package uk.ac.ncl.rental;
+
+/**
+ * ConsumptionModel interface.  The fuel consumed by a type of car driving a given distance, as declared when the CarType is registered.
+ * The models created by uniform and tiered compute the fuel without branches or divisions, and are used by SmallCar and LargeCar.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ConsumptionModel {
+
+	/**
+	 * Method to get the fuel consumed driving a given distance.
+	 * Fuel consumption is measured in whole litres, and must never decrease as the distance increases.
+	 * @param km a non-negative number of whole Kilometres.
+	 * @return the number of whole Litres of fuel consumed as an integer.
+	 */
+	int fuelConsumed(int km);
+
+	/**
+	 * Returns a model in which fuel is consumed at a uniform rate, measured in whole litres always rounded up.
+	 * @param kmPerLitre the whole Kilometres driven on each litre.
+	 * @return the ConsumptionModel.
+	 * @throws IllegalArgumentException if kmPerLitre is less than 1.
+	 */
+	static ConsumptionModel uniform(int kmPerLitre) {
+		return tiered(0, 1, kmPerLitre);
+	}
+
+	/**
+	 * Returns a model in which fuel is consumed at one rate for the first part of a journey and another rate thereafter,
+	 * the fuel for each part measured in whole litres always rounded up.
+	 * e.g. tiered(50, 10, 15) is 10km/litre for the first 50km, 15km/litre thereafter.
+	 * @param firstKm the length of the first part of a journey in whole Kilometres.
+	 * @param firstKmPerLitre the whole Kilometres driven on each litre in the first part of a journey.
+	 * @param kmPerLitre the whole Kilometres driven on each litre thereafter.
+	 * @return the ConsumptionModel.
+	 * @throws IllegalArgumentException if firstKm is negative or either rate is less than 1.
+	 */
+	static ConsumptionModel tiered(int firstKm, int firstKmPerLitre, int kmPerLitre) {
+		// Check parameters
+		if (firstKm < 0) {
+			throw new IllegalArgumentException("firstKm parameter cannot be negative");
+		}
+		if (firstKmPerLitre < 1) {
+			throw new IllegalArgumentException("firstKmPerLitre parameter must be at least 1");
+		}
+		if (kmPerLitre < 1) {
+			throw new IllegalArgumentException("kmPerLitre parameter must be at least 1");
+		}
+		return new TieredConsumption(firstKm, firstKmPerLitre, kmPerLitre);
+	}
+
+}
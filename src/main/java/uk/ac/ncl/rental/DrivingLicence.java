@@ -1,26 +1,39 @@
 package uk.ac.ncl.rental;
 
 import java.util.Date;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
 /**
- * DrivingLicence class.  A DrivingLicence consists of a LicenceNumber, a Date of issue
+ * DrivingLicence class.  A DrivingLicence consists of a LicenceNumber, a date of issue
  * and an indication of whether the licence is a full driving licence or not.
+ * The date of issue is held as primitive values rather than a mutable Date, so no defensive copies are needed.
  * @author Stephen Shephard
  * @version 1.0
  */
 public final class DrivingLicence {
 	
+	/**
+	 * Format of the date of issue in the string representation of a DrivingLicence.  DateTimeFormatter is immutable and thread-safe so one instance is shared.
+	 */
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+	
 	/**
 	 * LicenseNumber component of a DrivingLicence.
 	 */
 	private final LicenceNumber licenceNum;
 	
 	/**
-	 * Date of issue of a DrivingLicence.
+	 * Date of issue of a DrivingLicence as an epoch day (the number of days since 1 January 1970) in the system default time zone.
+	 */
+	private final int issuedEpochDay;
+	
+	/**
+	 * Instant of issue of a DrivingLicence as given to the Constructor, in milliseconds since the epoch, returned by getIssued.
 	 */
-	private final Date issued;
+	private final long issuedMillis;
 	
 	/**
 	 * Full licence boolean flag - true if the DrivingLicence is a full driving licence, false otherwise.
@@ -32,7 +45,7 @@ public final class DrivingLicence {
 	 * @param name Name of licence holder.
 	 * @param issued Date of birth of licence.
 	 * @param full true if the DrivingLicence is a full driving licence, false otherwise.
-	 * @throws IllegalArgumentException if the Name or Date parameters are null or the Date of issue is in the future.
+	 * @throws IllegalArgumentException if the Name or Date parameters are null or the Date of issue is in the future or too far in the past.
 	 */
 	public DrivingLicence(Name name, Date issued, boolean full) {
 		
@@ -46,20 +59,80 @@ public final class DrivingLicence {
 		}
 		
 		// Check issued date, cannot be in the future
-		Date today = new Date();
-		if (issued.after(today)) {
+		if (issued.getTime() > System.currentTimeMillis()) {
 			throw new IllegalArgumentException("Issued date cannot be in the future");
 		}
 
-		this.issued = issued;
+		// Copy the value out of the Date as Date is mutable
+		this.issuedMillis = issued.getTime();
+		LocalDate issuedDate = Instant.ofEpochMilli(issuedMillis).atZone(ZoneId.systemDefault()).toLocalDate();
+		this.issuedEpochDay = issuedEpochDay(issuedDate);
+		this.full = full;
+		
+		licenceNum = new LicenceNumber(name, issuedDate.getYear());
+	}
+
+	/**
+	 * Constructs a DrivingLicence from values already checked.
+	 * Note this Constructor is private as it is used by the static factory method of.
+	 * @param name Name of licence holder.
+	 * @param issued date of issue of licence.
+	 * @param issuedEpochDay date of issue of licence as an epoch day.
+	 * @param issuedMillis instant of issue of licence in milliseconds since the epoch.
+	 * @param full true if the DrivingLicence is a full driving licence, false otherwise.
+	 */
+	private DrivingLicence(Name name, LocalDate issued, int issuedEpochDay, long issuedMillis, boolean full) {
+		this.issuedEpochDay = issuedEpochDay;
+		this.issuedMillis = issuedMillis;
 		this.full = full;
 		
-		// Extract year from issued date object
-		Calendar cIssued = Calendar.getInstance();
-		cIssued.setTime(issued);
-		int year = cIssued.get(Calendar.YEAR);
+		licenceNum = new LicenceNumber(name, issued.getYear());
+	}
+
+	/**
+	 * Returns a DrivingLicence from the given Name, date of issue and whether full flag, issued at the start of that day
+	 * in the system default time zone.
+	 * @param name Name of licence holder.
+	 * @param issued date of issue of licence.
+	 * @param full true if the DrivingLicence is a full driving licence, false otherwise.
+	 * @return the DrivingLicence.
+	 * @throws IllegalArgumentException if the Name or date parameters are null or the date of issue is in the future or too far in the past.
+	 */
+	public static DrivingLicence of(Name name, LocalDate issued, boolean full) {
+		
+		// Check for valid input parameters
+		if (name == null) {
+			throw new IllegalArgumentException("Name cannot be null");
+		}
+		
+		if (issued == null) {
+			throw new IllegalArgumentException("Issued date cannot be null");
+		}
 		
-		licenceNum = new LicenceNumber(name, year);
+		// Check issued date, cannot be in the future
+		if (issued.isAfter(LocalDate.now())) {
+			throw new IllegalArgumentException("Issued date cannot be in the future");
+		}
+
+		// Check the epoch day first, as the instant of the start of a date too far in the past does not fit in a long either
+		int issuedEpochDay = issuedEpochDay(issued);
+
+		// LocalDate is immutable so defensive copying not needed
+		return new DrivingLicence(name, issued, issuedEpochDay, issued.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli(), full);
+	}
+
+	/**
+	 * Returns the epoch day of a date of issue that is not in the future.
+	 * @param issued date of issue of licence.
+	 * @return the date of issue as an epoch day integer.
+	 * @throws IllegalArgumentException if the date of issue is too many days before the epoch for an int.
+	 */
+	private static int issuedEpochDay(LocalDate issued) {
+		long epochDay = issued.toEpochDay();
+		if (epochDay < Integer.MIN_VALUE) {
+			throw new IllegalArgumentException("Issued date is too far in the past");
+		}
+		return (int) epochDay;
 	}
 
 	/**
@@ -81,11 +154,27 @@ public final class DrivingLicence {
 	
 	/**
 	 * Return the date of issue of the licence.
-	 * @return date of issue as a Date object.
+	 * @return date of issue as a new Date object.
 	 */
 	public Date getIssued() {
-		// Use defensive copying to ensure Issued Date object is immutable (as Date is not)
-		return (Date) issued.clone();
+		// Return a new Date object each time to preserve immutability
+		return new Date(issuedMillis);
+	}
+	
+	/**
+	 * Return the date of issue of the licence.
+	 * @return date of issue in the system default time zone as a LocalDate.
+	 */
+	public LocalDate getIssuedLocalDate() {
+		return LocalDate.ofEpochDay(issuedEpochDay);
+	}
+	
+	/**
+	 * Return the date of issue of the licence as an epoch day i.e. the number of days since 1 January 1970, without allocation.
+	 * @return date of issue in the system default time zone as an epoch day integer.
+	 */
+	public int issuedEpochDay() {
+		return issuedEpochDay;
 	}
 	
 	/**
@@ -94,8 +183,7 @@ public final class DrivingLicence {
 	 * and the full status (true or false) separated by comma i.e. [initials]-[year]-[serialnum],[dd/MM/yyyy],[true|false]
 	 */
 	@Override public String toString() {
-		SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-		return licenceNum + "," + dateFormat.format(issued) + "," + full;
+		return licenceNum + "," + DATE_FORMAT.format(getIssuedLocalDate()) + "," + full;
 	}
 
 }
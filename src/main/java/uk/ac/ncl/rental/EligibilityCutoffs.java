@@ -0,0 +1,113 @@
+package uk.ac.ncl.rental;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * EligibilityCutoffs class.  The dates, as epoch days, that are a given number of whole years before today, used by RentalCompany to check
+ * a renter's age and how long they have held their licence without any date arithmetic or allocation on each rental.
+ * The cutoffs for the current day are computed once and cached until midnight in the system default time zone, or until the clock
+ * is set back before the start of that day or the system default time zone is changed.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+final class EligibilityCutoffs {
+
+	/**
+	 * Number of years before today for which cutoffs are precomputed.
+	 */
+	private static final int PRECOMPUTED_YEARS = 128;
+
+	/**
+	 * The cutoffs for the current day, replaced when the day changes.
+	 */
+	private static volatile EligibilityCutoffs current = new EligibilityCutoffs(ZoneId.systemDefault(), System.currentTimeMillis());
+
+	/**
+	 * The time zone in which days are reckoned.
+	 */
+	private final ZoneId zone;
+
+	/**
+	 * The day these cutoffs were computed for.
+	 */
+	private final LocalDate today;
+
+	/**
+	 * The time, in milliseconds since the epoch, at which the day these cutoffs were computed for starts.
+	 */
+	private final long starts;
+
+	/**
+	 * The time, in milliseconds since the epoch, at which these cutoffs expire i.e. the start of the next day.
+	 */
+	private final long expires;
+
+	/**
+	 * Epoch day of the date n years before today, indexed by n.
+	 */
+	private final int[] yearsAgo = new int[PRECOMPUTED_YEARS];
+
+	/**
+	 * Constructs the EligibilityCutoffs for the day containing the given time.
+	 * @param zone the time zone in which days are reckoned.
+	 * @param now the time, in milliseconds since the epoch.
+	 */
+	EligibilityCutoffs(ZoneId zone, long now) {
+		this.zone = zone;
+		today = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+		starts = today.atStartOfDay(zone).toInstant().toEpochMilli();
+		expires = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+		for (int n=0; n<PRECOMPUTED_YEARS; n++) {
+			// Note: minusYears moves 29 February to 28 February in a non-leap year, as Calendar.add does
+			yearsAgo[n] = (int) today.minusYears(n).toEpochDay();
+		}
+	}
+
+	/**
+	 * Returns the cutoffs for today, computing them only if the day or the system default time zone has changed since they were last used.
+	 * @return the current EligibilityCutoffs.
+	 */
+	static EligibilityCutoffs current() {
+		return current(ZoneId.systemDefault(), System.currentTimeMillis());
+	}
+
+	/**
+	 * Returns the cutoffs for the day containing the given time, computing them only if the cached cutoffs are for another day or time zone.
+	 * The cached cutoffs are replaced if the time is before the start of their day, as it is when the clock is set back,
+	 * as well as if it is after the end of their day.
+	 * @param zone the time zone in which days are reckoned.
+	 * @param now the time, in milliseconds since the epoch.
+	 * @return the EligibilityCutoffs for the day containing the given time.
+	 */
+	static EligibilityCutoffs current(ZoneId zone, long now) {
+		EligibilityCutoffs cutoffs = current;
+		if (now < cutoffs.starts || now >= cutoffs.expires || !zone.equals(cutoffs.zone)) {
+			// Racing threads may each compute the new day's cutoffs, but they are identical so it does not matter which is kept
+			cutoffs = new EligibilityCutoffs(zone, now);
+			current = cutoffs;
+		}
+		return cutoffs;
+	}
+
+	/**
+	 * Returns the date that is the given number of whole years before today.
+	 * @param years the number of years.
+	 * @return the date as an epoch day.
+	 */
+	int yearsAgo(int years) {
+		if (years < PRECOMPUTED_YEARS) {
+			return yearsAgo[years];
+		}
+		return (int) today.minusYears(years).toEpochDay();
+	}
+
+	/**
+	 * Returns the time at which these cutoffs expire.
+	 * @return the start of the next day, in milliseconds since the epoch.
+	 */
+	long expires() {
+		return expires;
+	}
+}
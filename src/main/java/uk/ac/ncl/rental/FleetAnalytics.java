@@ -0,0 +1,261 @@
+package uk.ac.ncl.rental;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * FleetAnalytics class.  Fleet-wide fuel statistics - litres required to refuel, cars below a given fraction of a tank,
+ * the distribution of fuel levels, and totals for each type of car - over a columnar copy of the fuel of every car.
+ * The fuel is copied once into an int array grouped by type of car, so that the capacity of every car in a group is that of its type
+ * and each statistic is a simple loop over a contiguous range of ints, free of branches, which the JIT compiler can unroll and vectorize.
+ * A FleetAnalytics is immutable, and may be used from many threads at once; it does not change when the fleet it was copied from changes.
+ * Cars with no CarType, which can never be rented, are not included.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+public final class FleetAnalytics {
+
+	/**
+	 * The types of car registered when the copy was taken, indexed by ordinal.
+	 */
+	private final CarType[] types;
+
+	/**
+	 * Fuel in whole litres in the tank of each car, grouped by the ordinal of the type of car.
+	 */
+	private final int[] fuel;
+
+	/**
+	 * Index in fuel of the first car of each type, indexed by ordinal, followed by the number of cars.
+	 */
+	private final int[] start;
+
+	/**
+	 * Constructs a FleetAnalytics from fuel already grouped by type of car.
+	 * @param types the types of car, indexed by ordinal.
+	 * @param fuel the fuel of each car, grouped by the ordinal of the type of car.
+	 * @param start the index in fuel of the first car of each type, followed by the number of cars.
+	 */
+	FleetAnalytics(CarType[] types, int[] fuel, int[] start) {
+		// Arrays are created by the caller and not shared, so defensive copying not needed
+		this.types = types;
+		this.fuel = fuel;
+		this.start = start;
+	}
+
+	/**
+	 * Copies the fuel of every car of a RentalCompany.
+	 * If changes to the company are journalled the copy is consistent; otherwise changes made while it is taken may or may not be seen.
+	 * @param rentCo the RentalCompany.
+	 * @return the FleetAnalytics of the company's fleet.
+	 * @throws IllegalArgumentException if rentCo is null.
+	 */
+	public static FleetAnalytics of(RentalCompany rentCo) {
+		// Check parameter
+		if (rentCo == null) {
+			throw new IllegalArgumentException("rentCo parameter cannot be null");
+		}
+		List<Car> cars = new ArrayList<>();
+		rentCo.forEachCar((car, renter) -> cars.add(car));
+		return of(cars);
+	}
+
+	/**
+	 * Copies the fuel of every car in a collection, such as the views of the cars of a ColumnarFleet or OffHeapFleet.
+	 * @param cars the cars.
+	 * @return the FleetAnalytics of the cars.
+	 * @throws IllegalArgumentException if cars is null or contains null.
+	 */
+	public static FleetAnalytics of(Collection<? extends Car> cars) {
+		// Check parameter
+		if (cars == null) {
+			throw new IllegalArgumentException("cars parameter cannot be null");
+		}
+		// Take each car's type and fuel once, so that the copy is consistent with itself even if the cars change
+		int size = 0;
+		byte[] carTypes = new byte[cars.size()];
+		int[] carFuel = new int[cars.size()];
+		for (Car car : cars) {
+			if (car == null) {
+				throw new IllegalArgumentException("cars parameter cannot contain null");
+			}
+			CarType type = car.getType();
+			if (type != null && size < carFuel.length) {
+				carTypes[size] = (byte) type.ordinal();
+				carFuel[size++] = car.getFuel();
+			}
+		}
+		// Types are taken after the cars, so that they include the type of every car
+		CarType[] types = CarType.values();
+		int[] start = new int[types.length + 1];
+		for (int i=0; i<size; i++) {
+			start[carTypes[i] + 1]++;
+		}
+		// Group the fuel by type with a counting sort, keeping the cars of each type in order
+		for (int t=0; t<types.length; t++) {
+			start[t + 1] += start[t];
+		}
+		int[] next = start.clone();
+		int[] fuel = new int[size];
+		for (int i=0; i<size; i++) {
+			fuel[next[carTypes[i]]++] = carFuel[i];
+		}
+		return new FleetAnalytics(types, fuel, start);
+	}
+
+	/**
+	 * Returns the number of cars.
+	 * @return the number of cars as an integer.
+	 */
+	public int size() {
+		return fuel.length;
+	}
+
+	/**
+	 * Returns the number of cars of the given type.
+	 * @param type the type of car.
+	 * @return the number of cars as an integer.
+	 * @throws IllegalArgumentException if a null type parameter is supplied.
+	 */
+	public int size(CarType type) {
+		int t = ordinal(type);
+		return t < 0 ? 0 : start[t + 1] - start[t];
+	}
+
+	/**
+	 * Returns the total fuel required to fill the tank of every car.
+	 * @return the total amount of fuel in litres as a long.
+	 */
+	public long totalRefuelLitres() {
+		long total = 0;
+		for (int t=0; t<types.length; t++) {
+			total += refuelLitres(t);
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the total fuel required to fill the tank of every car of the given type.
+	 * @param type the type of car.
+	 * @return the total amount of fuel in litres as a long.
+	 * @throws IllegalArgumentException if a null type parameter is supplied.
+	 */
+	public long totalRefuelLitres(CarType type) {
+		int t = ordinal(type);
+		return t < 0 ? 0 : refuelLitres(t);
+	}
+
+	/**
+	 * Returns the number of cars with less than the given percentage of a full tank of fuel.
+	 * @param percent the percentage of a full tank, from 0 to 100.
+	 * @return the number of cars as an integer.
+	 * @throws IllegalArgumentException if percent is not between 0 and 100.
+	 */
+	public int countBelow(int percent) {
+		// Check parameter
+		checkPercent(percent);
+		int count = 0;
+		for (int t=0; t<types.length; t++) {
+			count += countBelow(t, percent);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of cars of the given type with less than the given percentage of a full tank of fuel.
+	 * @param type the type of car.
+	 * @param percent the percentage of a full tank, from 0 to 100.
+	 * @return the number of cars as an integer.
+	 * @throws IllegalArgumentException if a null type parameter is supplied, or percent is not between 0 and 100.
+	 */
+	public int countBelow(CarType type, int percent) {
+		// Check parameters
+		int t = ordinal(type);
+		checkPercent(percent);
+		return t < 0 ? 0 : countBelow(t, percent);
+	}
+
+	/**
+	 * Returns the distribution of the fuel in the tanks of the cars, as the number of cars in each of a number of equal bands
+	 * of the fraction of a full tank.  Band i holds the cars with at least i/bands and less than (i+1)/bands of a full tank,
+	 * except that empty tanks are in the first band and full tanks in the last.
+	 * e.g. with 4 bands, the number of cars with less than a quarter of a tank, less than half, less than three quarters, and the rest.
+	 * @param bands the number of bands.
+	 * @return the number of cars in each band as an array of integers.
+	 * @throws IllegalArgumentException if bands is less than 1.
+	 */
+	public int[] distribution(int bands) {
+		// Check parameter
+		if (bands < 1) {
+			throw new IllegalArgumentException("bands parameter must be at least 1");
+		}
+		int[] counts = new int[bands];
+		for (int t=0; t<types.length; t++) {
+			// Every car of a type has the same capacity, so the band of each level of fuel is looked up rather than divided for
+			int capacity = types[t].getCapacity();
+			int[] bandOf = new int[capacity + 1];
+			for (int litres=0; litres<=capacity; litres++) {
+				bandOf[litres] = (int) Math.min((long) litres * bands / capacity, bands - 1);
+			}
+			for (int i=start[t]; i<start[t + 1]; i++) {
+				counts[bandOf[Math.min(Math.max(fuel[i], 0), capacity)]]++;
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Returns the total fuel required to fill the tank of every car of a type.
+	 * @param t the ordinal of the type of car.
+	 * @return the total amount of fuel in litres as a long.
+	 */
+	private long refuelLitres(int t) {
+		long total = 0;
+		for (int i=start[t]; i<start[t + 1]; i++) {
+			total += fuel[i];
+		}
+		return (long) types[t].getCapacity() * (start[t + 1] - start[t]) - total;
+	}
+
+	/**
+	 * Returns the number of cars of a type with less than the given percentage of a full tank of fuel.
+	 * @param t the ordinal of the type of car.
+	 * @param percent the percentage of a full tank, from 0 to 100.
+	 * @return the number of cars as an integer.
+	 */
+	private int countBelow(int t, int percent) {
+		// Less than percent of the capacity is less than the threshold, as fuel is in whole litres
+		int threshold = (types[t].getCapacity() * percent + 99) / 100;
+		int count = 0;
+		for (int i=start[t]; i<start[t + 1]; i++) {
+			// Fuel below -1 is treated as -1 so that the difference cannot overflow, and its sign bit is set exactly when the car is below
+			count += (Math.max(fuel[i], -1) - threshold) >>> 31;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the ordinal of a type of car in this copy.
+	 * @param type the type of car.
+	 * @return the ordinal, or -1 if the type was registered after the copy was taken and so has no cars.
+	 * @throws IllegalArgumentException if type is null.
+	 */
+	private int ordinal(CarType type) {
+		if (type == null) {
+			throw new IllegalArgumentException("type parameter cannot be null");
+		}
+		return type.ordinal() < types.length ? type.ordinal() : -1;
+	}
+
+	/**
+	 * Checks a percentage of a full tank.
+	 * @param percent the percentage.
+	 * @throws IllegalArgumentException if percent is not between 0 and 100.
+	 */
+	private static void checkPercent(int percent) {
+		if (percent < 0 || percent > 100) {
+			throw new IllegalArgumentException("percent parameter must be between 0 and 100");
+		}
+	}
+}
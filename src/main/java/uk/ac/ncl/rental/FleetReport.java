@@ -0,0 +1,302 @@
+package uk.ac.ncl.rental;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * FleetReport class.  A copy of the fleet and rentals of a RentalCompany, as returned by RentalCompany.report,
+ * over which reporting queries - counts by type of car and rental status, cars below a fuel threshold, and cars per prefix of
+ * their Registration Number - are run in parallel on the common ForkJoinPool.
+ * The type, rental status, fuel and packed Registration Number of each car are copied together, when the car is visited while the
+ * report is taken, into parallel arrays, so each query splits the arrays into ranges scanned on every core, and never touches
+ * the RentalCompany or blocks its rentals.
+ * The copy is weakly consistent: the values of each car agree with each other as they were when it was visited, but if the company's
+ * changes are not journalled, cars visited at different times may reflect different sets of rentals, and if they are, fuel used by
+ * driving a rented car while the report is taken may or may not be seen.
+ * A FleetReport is immutable, and may be used from many threads at once; it does not change when the RentalCompany changes afterwards.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+public final class FleetReport {
+
+	/**
+	 * Smallest range of cars scanned by one task, below which splitting costs more than it saves.
+	 */
+	private static final int MIN_SPLIT = 8192;
+
+	/**
+	 * The cars in the fleet.
+	 */
+	private final Car[] cars;
+
+	/**
+	 * Ordinal of the CarType of each car, or -1 for a car with no type, indexed as cars.
+	 */
+	private final byte[] types;
+
+	/**
+	 * Rental status of each car, indexed as cars.
+	 */
+	private final BitSet rented;
+
+	/**
+	 * Fuel in whole litres in the tank of each car, indexed as cars.
+	 */
+	private final int[] fuel;
+
+	/**
+	 * Packed Registration Number of each car, indexed as cars.
+	 */
+	private final int[] packed;
+
+	/**
+	 * Number of cars scanned by one task.
+	 */
+	private final int split;
+
+	/**
+	 * Constructs a FleetReport by copying the state of each car of a RentalCompany as it is visited.
+	 * @param rentCo the RentalCompany.
+	 */
+	FleetReport(RentalCompany rentCo) {
+		Copy copy = new Copy();
+		rentCo.forEachCar(copy::add);
+		cars = Arrays.copyOf(copy.cars, copy.size);
+		types = Arrays.copyOf(copy.types, copy.size);
+		rented = copy.rented;
+		fuel = Arrays.copyOf(copy.fuel, copy.size);
+		packed = Arrays.copyOf(copy.packed, copy.size);
+		split = Math.max(MIN_SPLIT, cars.length / (ForkJoinPool.getCommonPoolParallelism() * 4));
+	}
+
+	/**
+	 * Returns the number of cars in the fleet.
+	 * @return the number of cars as an integer.
+	 */
+	public int size() {
+		return cars.length;
+	}
+
+	/**
+	 * Returns the number of cars of the given type, either rented or available.
+	 * @param type the type of car.
+	 * @param rented true to count the cars that are rented, false to count the cars that are not.
+	 * @return the number of cars as an integer.
+	 * @throws IllegalArgumentException if a null type parameter is supplied.
+	 */
+	public int count(CarType type, boolean rented) {
+		// Check parameter
+		if (type == null) {
+			throw new IllegalArgumentException("type parameter cannot be null");
+		}
+		byte ordinal = (byte) type.ordinal();
+		return scan((from, to) -> {
+			int count = 0;
+			for (int i=from; i<to; i++) {
+				if (types[i] == ordinal && this.rented.get(i) == rented) {
+					count++;
+				}
+			}
+			return count;
+		}, Integer::sum);
+	}
+
+	/**
+	 * Returns the cars with less than the given amount of fuel in their tank, in the order they were found in the fleet.
+	 * @param litres the threshold in whole Litres.
+	 * @return a new List of the cars.
+	 */
+	public List<Car> carsBelow(int litres) {
+		return scan((from, to) -> {
+			List<Car> below = new ArrayList<>();
+			for (int i=from; i<to; i++) {
+				if (fuel[i] < litres) {
+					below.add(cars[i]);
+				}
+			}
+			return below;
+		}, (left, right) -> {
+			left.addAll(right);
+			return left;
+		});
+	}
+
+	/**
+	 * Returns the number of cars for each prefix of the given length of the first part of their Registration Number,
+	 * e.g. with length 2 the number of cars whose Registration Numbers start "AB", "AC" and so on.
+	 * @param length the number of characters of the prefix, from 1 to 4.
+	 * @return a new SortedMap from each prefix with any cars to the number of cars.
+	 * @throws IllegalArgumentException if length is not between 1 and 4.
+	 */
+	public SortedMap<String, Integer> countByPrefix(int length) {
+		// Check parameter
+		if (length < 1 || length > 4) {
+			throw new IllegalArgumentException("length parameter must be between 1 and 4");
+		}
+		// Each prefix is numbered, so the cars are counted in an array rather than a map
+		int prefixes = RegistrationNumber.prefixes(length);
+		int[] counts = scan((from, to) -> {
+			int[] histogram = new int[prefixes];
+			for (int i=from; i<to; i++) {
+				histogram[RegistrationNumber.prefixOf(packed[i], length)]++;
+			}
+			return histogram;
+		}, (left, right) -> {
+			for (int p=0; p<prefixes; p++) {
+				left[p] += right[p];
+			}
+			return left;
+		});
+		SortedMap<String, Integer> byPrefix = new TreeMap<>();
+		for (int p=0; p<prefixes; p++) {
+			if (counts[p] > 0) {
+				byPrefix.put(RegistrationNumber.prefix(p, length), counts[p]);
+			}
+		}
+		return byPrefix;
+	}
+
+	/**
+	 * Scans every car in parallel, splitting the cars into ranges each scanned by one task and combining the results.
+	 * @param range the scan of one range of cars.
+	 * @param combine combines the results of two adjacent ranges, the earlier first.
+	 * @return the combined result of every range.
+	 */
+	private <R> R scan(Range<R> range, BinaryOperator<R> combine) {
+		if (cars.length <= split) {
+			// Too few cars to be worth splitting
+			return range.scan(0, cars.length);
+		}
+		return ForkJoinPool.commonPool().invoke(new Scan<>(range, combine, 0, cars.length, split));
+	}
+
+	/**
+	 * Copy class.  The state of the cars visited so far while a FleetReport is taken, in arrays grown as cars are added.
+	 */
+	private static final class Copy {
+
+		/**
+		 * The cars copied, in the order they were visited.
+		 */
+		private Car[] cars = new Car[16];
+
+		/**
+		 * Ordinal of the CarType of each car copied, or -1 for a car with no type, indexed as cars.
+		 */
+		private byte[] types = new byte[16];
+
+		/**
+		 * Rental status of each car copied, indexed as cars.
+		 */
+		private final BitSet rented = new BitSet();
+
+		/**
+		 * Fuel in whole litres in the tank of each car copied, indexed as cars.
+		 */
+		private int[] fuel = new int[16];
+
+		/**
+		 * Packed Registration Number of each car copied, indexed as cars.
+		 */
+		private int[] packed = new int[16];
+
+		/**
+		 * Number of cars copied.
+		 */
+		private int size;
+
+		/**
+		 * Copies the state of a car, reading each value once so that they agree with each other.
+		 * @param car the Car.
+		 * @param renter the person renting the car, or null if it is not rented.
+		 */
+		void add(Car car, Person renter) {
+			if (size == cars.length) {
+				int length = size * 2;
+				cars = Arrays.copyOf(cars, length);
+				types = Arrays.copyOf(types, length);
+				fuel = Arrays.copyOf(fuel, length);
+				packed = Arrays.copyOf(packed, length);
+			}
+			CarType type = car.getType();
+			cars[size] = car;
+			types[size] = type == null ? -1 : (byte) type.ordinal();
+			rented.set(size, renter != null);
+			fuel[size] = car.getFuel();
+			packed[size] = car.getRegistrationNumber().getPackedValue();
+			size++;
+		}
+	}
+
+	/**
+	 * Range interface.  The scan of one range of cars.
+	 */
+	@FunctionalInterface
+	private interface Range<R> {
+
+		/**
+		 * Scans a range of cars.
+		 * @param from index of the first car.
+		 * @param to index after the last car.
+		 * @return the result of the range.
+		 */
+		R scan(int from, int to);
+	}
+
+	/**
+	 * Scan class.  A fork-join task that scans a range of cars, splitting it in half until it is small enough to scan directly.
+	 */
+	private static final class Scan<R> extends RecursiveTask<R> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The scan of one range of cars.
+		 */
+		private final transient Range<R> range;
+
+		/**
+		 * Combines the results of two adjacent ranges.
+		 */
+		private final transient BinaryOperator<R> combine;
+
+		/**
+		 * Index of the first car, index after the last car, and largest range scanned directly.
+		 */
+		private final int from, to, split;
+
+		/**
+		 * Constructs a Scan of a range of cars.
+		 * @param range the scan of one range of cars.
+		 * @param combine combines the results of two adjacent ranges.
+		 * @param from index of the first car.
+		 * @param to index after the last car.
+		 * @param split largest range scanned directly.
+		 */
+		Scan(Range<R> range, BinaryOperator<R> combine, int from, int to, int split) {
+			this.range = range;
+			this.combine = combine;
+			this.from = from;
+			this.to = to;
+			this.split = split;
+		}
+
+		@Override protected R compute() {
+			if (to - from <= split) {
+				return range.scan(from, to);
+			}
+			int middle = (from + to) >>> 1;
+			Scan<R> left = new Scan<>(range, combine, from, middle, split);
+			left.fork();
+			R right = new Scan<>(range, combine, middle, to, split).compute();
+			return combine.apply(left.join(), right);
+		}
+	}
+}
@@ -0,0 +1,297 @@
+package uk.ac.ncl.rental;
+
+/**
+ * FlyweightFleet class.  The partial implementation common to fleets of cars of any registered CarType that store the state of each car in compact
+ * columns or records rather than in one object per car, i.e. ColumnarFleet and OffHeapFleet.
+ * Each car is accessed through a flyweight Car view holding only the fleet and the car's index, which behaves exactly like a SmallCar, LargeCar or TypedCar
+ * and may be added to a RentalCompany.  Views of the same car are equal, so views need not be kept.  Views do not allocate as they are used.
+ * The tank capacity is not stored, as it is fixed by the type of car.  The fleet has a fixed maximum size, so its storage is never reallocated.
+ * Cars may be added from many threads at once, and each car may be used from many threads exactly as a SmallCar, LargeCar or TypedCar may.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+abstract class FlyweightFleet {
+
+	/**
+	 * Maximum number of cars in the fleet.
+	 */
+	private final int maxCars;
+
+	/**
+	 * Number of cars in the fleet.  Volatile, and written only after a new car is stored, so that a car is seen complete by every thread that sees it at all.
+	 */
+	private volatile int size;
+
+	/**
+	 * Constructs an empty FlyweightFleet with room for the given number of cars.
+	 * Note this Constructor is package-private as it must be visible by subclasses of FlyweightFleet, which check maxCars.
+	 * @param maxCars the maximum number of cars in the fleet.
+	 */
+	FlyweightFleet(int maxCars) {
+		this.maxCars = maxCars;
+	}
+
+	/**
+	 * Adds a car, with an empty tank and not rented, to the fleet.
+	 * @param typeOfCar the type of car as a String containing the name of a registered type of car e.g. "SmallCar" or "LargeCar".
+	 * @param rnString the registration number of the car as a String.
+	 * @return a view of the new car.
+	 * @throws IllegalArgumentException if either parameter is null or invalid.
+	 * @throws IllegalStateException if the fleet is full or the registration number is already in use.
+	 */
+	public Car add(String typeOfCar, String rnString) {
+		return addOfType(CarType.of(typeOfCar), rnString);
+	}
+
+	/**
+	 * Adds a car, with an empty tank and not rented, to the fleet.
+	 * @param type the type of car.
+	 * @param rnString the registration number of the car as a String.
+	 * @return a view of the new car.
+	 * @throws IllegalArgumentException if either parameter is null or invalid.
+	 * @throws IllegalStateException if the fleet is full or the registration number is already in use.
+	 */
+	public Car addOfType(CarType type, String rnString) {
+		// Check parameters
+		if (type == null) {
+			throw new IllegalArgumentException("type parameter cannot be null");
+		}
+		synchronized (this) {
+			int index = size;
+			if (index == maxCars) {
+				throw new IllegalStateException("Fleet is full");
+			}
+			// Register the registration number only once the car is certain to be added
+			// Note: RegistrationNumber.valueOf throws an exception if a duplicate registration number is given
+			store(index, RegistrationNumber.valueOf(rnString).getPackedValue(), (byte) type.ordinal());
+			size = index + 1;
+			return new View(this, index);
+		}
+	}
+
+	/**
+	 * Returns the number of cars in the fleet.
+	 * @return the number of cars as an integer.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns a view of the car at the given index, in the order the cars were added.
+	 * @param index the index of the car.
+	 * @return a view of the car.
+	 * @throws IllegalArgumentException if there is no car at the given index.
+	 */
+	public Car get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IllegalArgumentException("No car at index " + index);
+		}
+		return new View(this, index);
+	}
+
+	/**
+	 * Returns the number of cars currently rented.
+	 * @return the number of rented cars as an integer.
+	 */
+	public int rentedCars() {
+		int n = size;
+		int count = 0;
+		for (int i=0; i<n; i++) {
+			if (isRented(i)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the total fuel required to fill the tanks of every car in the fleet.
+	 * Tanks being filled or emptied at the same time may or may not be counted as changed.
+	 * @return the total fuel required in whole litres as a long.
+	 */
+	public long fuelRequired() {
+		int n = size;
+		long total = 0;
+		for (int i=0; i<n; i++) {
+			total += CarType.ofOrdinal(type(i)).getCapacity() - fuel(i);
+		}
+		return total;
+	}
+
+	/**
+	 * Stores a new car, with an empty tank and not rented.
+	 * @param index the index of the car, which is not yet visible to any other thread.
+	 * @param packed the packed Registration Number of the car.
+	 * @param type the ordinal of the type of car.
+	 */
+	abstract void store(int index, int packed, byte type);
+
+	/**
+	 * Returns the packed Registration Number of a car.
+	 * @param index the index of the car.
+	 * @return the packed Registration Number as an integer.
+	 */
+	abstract int packed(int index);
+
+	/**
+	 * Returns the type of a car.
+	 * @param index the index of the car.
+	 * @return the ordinal of the type of car.
+	 */
+	abstract byte type(int index);
+
+	/**
+	 * Returns the fuel in the tank of a car.
+	 * @param index the index of the car.
+	 * @return the fuel in whole litres as an integer.
+	 */
+	abstract int fuel(int index);
+
+	/**
+	 * Sets the fuel in the tank of a car.
+	 * @param index the index of the car.
+	 * @param litres the fuel in whole litres.
+	 */
+	abstract void setFuel(int index, int litres);
+
+	/**
+	 * Returns whether a car is currently rented.
+	 * @param index the index of the car.
+	 * @return true if the car is rented, false otherwise.
+	 */
+	abstract boolean isRented(int index);
+
+	/**
+	 * Sets the rental status of a car.
+	 * @param index the index of the car.
+	 * @param rented true if the car has been issued for rental, false otherwise.
+	 */
+	abstract void setRented(int index, boolean rented);
+
+	/**
+	 * Atomically changes the rental status of a car from not rented to rented.
+	 * @param index the index of the car.
+	 * @return true if the car was claimed, false if it was already rented.
+	 */
+	abstract boolean claimRented(int index);
+
+	/**
+	 * View class.  A flyweight Car that reads and writes the state of one car in a FlyweightFleet.
+	 */
+	private static final class View implements Car {
+
+		/**
+		 * The fleet holding the car.
+		 */
+		private final FlyweightFleet fleet;
+
+		/**
+		 * The index of the car in the fleet.
+		 */
+		private final int index;
+
+		/**
+		 * Constructs a view of a car.
+		 * @param fleet the fleet holding the car.
+		 * @param index the index of the car in the fleet.
+		 */
+		View(FlyweightFleet fleet, int index) {
+			this.fleet = fleet;
+			this.index = index;
+		}
+
+		@Override public RegistrationNumber getRegistrationNumber() {
+			// The Registration Number was registered when the car was added, so this only looks it up
+			return RegistrationNumber.intern(fleet.packed(index));
+		}
+
+		@Override public CarType getType() {
+			return CarType.ofOrdinal(fleet.type(index));
+		}
+
+		@Override public int getFuel() {
+			return fleet.fuel(index);
+		}
+
+		@Override public boolean isTankFull() {
+			return getFuel() == getCapacity();
+		}
+
+		@Override public int getCapacity() {
+			return getType().getCapacity();
+		}
+
+		@Override public void setRental(boolean activeRental) {
+			fleet.setRented(index, activeRental);
+		}
+
+		@Override public boolean isRented() {
+			return fleet.isRented(index);
+		}
+
+		@Override public boolean claimRental() {
+			return fleet.claimRented(index);
+		}
+
+		@Override public int fillTank(int litres) {
+			int required = getCapacity() - getFuel(); // litres of fuel needed to fill the tank
+			if (litres > required) {
+				fleet.setFuel(index, getCapacity());
+				return required;
+			} else {
+				fleet.setFuel(index, getFuel() + litres);
+				return litres;
+			}
+		}
+
+		@Override public int drive(int km) {
+			// Check parameters
+			if (km < 0) {
+				throw new IllegalArgumentException("Cannot drive a negative distance");
+			}
+			if (!fleet.isRented(index)) {
+				throw new IllegalStateException("Car " + this + " cannot be driven as it is not currently rented");
+			}
+			int fuel = getFuel();
+			if (fuel <= 0) {
+				// If there is no fuel in the tank, car cannot be driven, but return zero consumption rather than throw exception
+				return 0;
+			}
+			int fuelConsumed = getType().getConsumption().fuelConsumed(km);
+			fleet.setFuel(index, fuel - fuelConsumed);
+			return fuelConsumed;
+		}
+
+		@Override public int drive(int[] kms) {
+			// Check parameters
+			AbstractCar.checkDistances(kms);
+			if (!fleet.isRented(index)) {
+				throw new IllegalStateException("Car " + this + " cannot be driven as it is not currently rented");
+			}
+			int fuel = getFuel();
+			int fuelConsumed = AbstractCar.fuelConsumed(getType().getConsumption(), kms, fuel);
+			fleet.setFuel(index, fuel - fuelConsumed);
+			return fuelConsumed;
+		}
+
+		@Override public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof View)) return false;
+			View v = (View) o;
+			return fleet == v.fleet && index == v.index;
+		}
+
+		@Override public int hashCode() {
+			return fleet.packed(index);
+		}
+
+		/**
+		 * Return a string representation of this car, in the same format as SmallCar, LargeCar and TypedCar.
+		 * @return the string representation of the car in the format [type of car],[registration number],[fuel]
+		 */
+		@Override public String toString() {
+			return getType() + "," + getRegistrationNumber() + "," + getFuel();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package uk.ac.ncl.rental;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FreeCarPool class.  A pool of the cars of one type that are not currently rented, used by RentalCompany to issue cars in constant time.
+ * Cars are issued from the front of the pool and returned to the back, so that the fleet is used evenly.
+ * The pool is thread-safe and lock-free.  A car taken from the pool is claimed by compare-and-set on its rental status,
+ * so concurrent takes can never hand out the same car twice.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+final class FreeCarPool {
+
+	/**
+	 * Queue of free cars, implemented as a ConcurrentLinkedDeque.
+	 */
+	private final Deque<Car> cars = new ConcurrentLinkedDeque<>();
+
+	/**
+	 * Number of cars in the queue, kept separately as ConcurrentLinkedDeque.size is not a constant-time operation.
+	 * It is incremented before a car is queued and decremented after one is removed, so it is never less than the true size.
+	 */
+	private final AtomicInteger count = new AtomicInteger();
+
+	/**
+	 * Returns the number of free cars in the pool, including any that have been claimed elsewhere but not yet passed over by take.
+	 * @return the number of free cars as an integer.
+	 */
+	int size() {
+		return count.get();
+	}
+
+	/**
+	 * Takes the next free car from the pool and claims it for rental.
+	 * A car in the pool that has been claimed elsewhere, e.g. by another RentalCompany whose fleet it is also in, is passed over and
+	 * put back at the back of the pool, so that it can be taken once it is free again.  Each car is passed over at most once per call,
+	 * so a pool of claimed cars cannot keep the caller spinning.
+	 * @return the car taken from the pool, now marked as rented, or null if the pool holds no car that can be claimed.
+	 */
+	Car take() {
+		for (int n = count.get(); n > 0; n--) {
+			Car car = cars.pollFirst();
+			if (car == null) {
+				return null;
+			}
+			count.decrementAndGet();
+			if (car.claimRental()) {
+				return car;
+			}
+			release(car);
+		}
+		return null;
+	}
+
+	/**
+	 * Puts a free car into the pool, either because it is new to the fleet or because its rental has ended.
+	 * @param car the free Car.
+	 */
+	void release(Car car) {
+		count.incrementAndGet();
+		cars.offerLast(car);
+	}
+}
@@ -0,0 +1,135 @@
+package uk.ac.ncl.rental;
+
+import java.util.Arrays;
+
+/**
+ * FuelRefillReport class.  The result of terminating a batch of rentals with RentalCompany.terminateRentals: for each person, in order,
+ * the amount of fuel in litres required to fill the tank of the car they returned, and the total litres required for each type of car.
+ * The report is held in primitive arrays rather than maps, so there is no boxing however many rentals are terminated.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+public final class FuelRefillReport {
+
+	/**
+	 * The persons whose rentals were to be terminated, in order.
+	 */
+	private final Person[] persons;
+
+	/**
+	 * Litres of fuel required for the car returned by each person, or zero if the person had no rental, indexed as persons.
+	 */
+	private final int[] litres;
+
+	/**
+	 * Total litres of fuel required for each type of car, indexed by the ordinal of the CarType.
+	 * Grown by record if a car of a type registered after this report was created is returned.
+	 */
+	private int[] totalLitres = new int[CarType.count()];
+
+	/**
+	 * Constructs an empty FuelRefillReport for the given persons, to be filled in by RentalCompany as each rental is terminated.
+	 * @param persons the persons whose rentals are to be terminated, in order.
+	 */
+	FuelRefillReport(Person[] persons) {
+		// Array is created by RentalCompany and not shared, so defensive copying not needed
+		this.persons = persons;
+		this.litres = new int[persons.length];
+	}
+
+	/**
+	 * Records the fuel required for the car returned by the person at the given index.
+	 * @param index the index of the person.
+	 * @param type the type of car returned.
+	 * @param fuelRequired the litres of fuel required to fill the car's tank.
+	 */
+	void record(int index, CarType type, int fuelRequired) {
+		litres[index] = fuelRequired;
+		if (type.ordinal() >= totalLitres.length) {
+			totalLitres = Arrays.copyOf(totalLitres, CarType.count());
+		}
+		totalLitres[type.ordinal()] += fuelRequired;
+	}
+
+	/**
+	 * Returns the number of persons in this report.
+	 * @return the number of persons as an integer.
+	 */
+	public int size() {
+		return persons.length;
+	}
+
+	/**
+	 * Returns the person at the given index in this report, in the order the persons were given to terminateRentals.
+	 * @param index the index of the person.
+	 * @return the person as a Person object.
+	 * @throws IndexOutOfBoundsException if the index is negative or not less than size().
+	 */
+	public Person getPerson(int index) {
+		// Person is immutable so defensive copying not needed
+		return persons[index];
+	}
+
+	/**
+	 * Returns the fuel required for the car returned by the person at the given index in this report.
+	 * @param index the index of the person.
+	 * @return the amount of fuel in litres required to fill the car's tank, as an integer, or zero if there was no rental contract.
+	 * @throws IndexOutOfBoundsException if the index is negative or not less than size().
+	 */
+	public int getLitres(int index) {
+		return litres[index];
+	}
+
+	/**
+	 * Returns the total fuel required for all the cars of the given type returned.
+	 * @param typeOfCar String containing the name of a registered type of car e.g. "SmallCar" or "LargeCar".
+	 * @return the total amount of fuel in litres as an integer.
+	 * @throws IllegalArgumentException if a null or invalid typeOfCar parameter are supplied.
+	 */
+	public int getTotalLitres(String typeOfCar) {
+		// Check parameter, CarType.of throws an exception if typeOfCar is null or invalid
+		return getTotalLitresOfType(CarType.of(typeOfCar));
+	}
+
+	/**
+	 * Returns the total fuel required for all the cars of the given type returned.
+	 * @param type the type of car.
+	 * @return the total amount of fuel in litres as an integer.
+	 * @throws IllegalArgumentException if a null type parameter is supplied.
+	 */
+	public int getTotalLitresOfType(CarType type) {
+		// Check parameter
+		if (type == null) {
+			throw new IllegalArgumentException("type parameter cannot be null");
+		}
+		return type.ordinal() < totalLitres.length ? totalLitres[type.ordinal()] : 0;
+	}
+
+	/**
+	 * Returns the total fuel required for all the cars returned.
+	 * @return the total amount of fuel in litres as an integer.
+	 */
+	public int getTotalLitres() {
+		int total = 0;
+		for (int t : totalLitres) {
+			total += t;
+		}
+		return total;
+	}
+
+	/**
+	 * Return a string representation of this FuelRefillReport.
+	 * The totals for SmallCar and LargeCar are always given, and those for any other registered type of car only if they are not zero.
+	 * @return the total litres required for each type of car, and the number of persons, as a String e.g. "SmallCar=10,LargeCar=20,persons=3".
+	 */
+	@Override public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (CarType type : CarType.values()) {
+			int total = getTotalLitresOfType(type);
+			if (total != 0 || type == CarType.SMALL_CAR || type == CarType.LARGE_CAR) {
+				sb.append(type).append('=').append(total).append(',');
+			}
+		}
+		return sb.append("persons=").append(persons.length).toString();
+	}
+}
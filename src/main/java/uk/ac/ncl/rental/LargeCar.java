@@ -10,7 +10,12 @@ public final class LargeCar extends AbstractCar {
 	/**
 	 * Fuel tank capacity for LargeCar is set to constant 60 litres.
 	 */
-	private static final int CAPACITY = 60;
+	static final int CAPACITY = 60;
+	
+	/**
+	 * LargeCar consumes fuel at 10km/litre for the first 50km, 15km/litre thereafter, measured in whole litres always rounded up.
+	 */
+	static final ConsumptionModel CONSUMPTION = ConsumptionModel.tiered(50, 10, 15);
 	
 	/**
 	 * Constructs a LargeCar with the given registration number.
@@ -22,6 +27,23 @@ public final class LargeCar extends AbstractCar {
 		super(RegistrationNumber.valueOf(rnString), CAPACITY);
 	}
 	
+	/**
+	 * Constructs a LargeCar with the given, already registered, registration number, as when a fleet is restored from a RentalJournal.
+	 * Note this Constructor is package-private so that it cannot be used to bypass the uniqueness of registration numbers.
+	 * @param rn the registration number of the car.
+	 */
+	LargeCar(RegistrationNumber rn) {
+		super(rn, CAPACITY);
+	}
+	
+	/**
+	 * Method to get the type of the car.
+	 * @return CarType.LARGE_CAR.
+	 */
+	public CarType getType() {
+		return CarType.LARGE_CAR;
+	}
+	
 	/**
 	 * Method to "drive" the car for a given number of whole Kilometres.
 	 * @param km given number of whole Kilometres to drive.
@@ -43,14 +65,7 @@ public final class LargeCar extends AbstractCar {
 			return 0;
 		}
 		
-		// LargeCar consumes fuel at 10km/litre for the first 50km, 15km/litre thereafter
-		// Fuel consumption is measured in whole litres always rounded up
-		int fuelConsumed;
-		if (km <= 50) {
-			fuelConsumed = (km%10 == 0 ? km/10 : km/10 + 1);
-		} else {
-			fuelConsumed = 5 + ((km-50)%15 == 0 ? (km-50)/15 : (km-50)/15 + 1);
-		}
+		int fuelConsumed = CONSUMPTION.fuelConsumed(km);
 		// Calls consumeFuel from AbstractCar
 		this.consumeFuel(fuelConsumed);
 		return fuelConsumed;
@@ -1,8 +1,8 @@
 package uk.ac.ncl.rental;
 
-import java.util.Map;
-import java.util.HashMap;
-import java.util.Calendar;
+import java.time.Year;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * LicenceNumber class, representing the unique licence number of a DrivingLicence.  A LicenceNumber has three components.<ul>
@@ -32,10 +32,23 @@ public final class LicenceNumber {
 	private final int serialnum;
 	
 	/**
-	 * A map, implemented as a HashMap, from the first and second parts of a LicenceNumber to the current highest sequence number for that combination
-	 * of parts, used to generate the unique serial numbers.
+	 * Number of years with their own serial number counters, i.e. the four digit years 0 to 9999.
 	 */
-	private static final Map<String, Integer> SERIALSEQ = new HashMap<>();
+	private static final int YEARS = 10000;
+	
+	/**
+	 * Number of combinations of initials, each an uppercase letter.
+	 */
+	private static final int INITIALS = 26 * 26;
+	
+	/**
+	 * The serial number counters of each year, indexed by year, each an array indexed by initials of counters holding the current highest
+	 * sequence number for that combination of initials and year, used to generate the unique serial numbers.
+	 * The counters of a year are created when its first licence is issued.  Each counter is incremented atomically, so serial numbers
+	 * stay unique and consecutive when licences are issued from many threads at once.
+	 * Years outside 0 to 9999 share the counters of the year they are congruent to, so their serial numbers are unique but not consecutive.
+	 */
+	private static final AtomicReferenceArray<AtomicIntegerArray> SERIALSEQ = new AtomicReferenceArray<>(YEARS);
 		
 	/**
 	 * Constructs a LicenceNumber from the given Name and year of issue.
@@ -51,9 +64,7 @@ public final class LicenceNumber {
 		}
 		
 		// Check year, cannot be in the future
-		Calendar today = Calendar.getInstance();
-		int thisYear = today.get(Calendar.YEAR);
-		if (year>thisYear) {
+		if (year>Year.now().getValue()) {
 			throw new IllegalArgumentException("Year cannot be in the future");
 		}
 		
@@ -61,15 +72,15 @@ public final class LicenceNumber {
 		this.year = year;
 		
 		// Get the serial number
-		final String key = initials + year;
-		if (SERIALSEQ.containsKey(key)) {
-			// If this combination of initials and year already exists, increment the serial number
-			serialnum = SERIALSEQ.get(key)+1;			
-		} else {
-			// If this combination of initials and year is new, set the serial number to 1
-			serialnum = 1;
+		// If this combination of initials and year is new its counter starts at zero, so the first serial number is 1
+		int y = Math.floorMod(year, YEARS);
+		AtomicIntegerArray counters = SERIALSEQ.get(y);
+		if (counters == null) {
+			// If another thread creates the counters of this year first, use theirs
+			SERIALSEQ.compareAndSet(y, null, new AtomicIntegerArray(INITIALS));
+			counters = SERIALSEQ.get(y);
 		}
-		SERIALSEQ.put(key, serialnum);
+		serialnum = counters.incrementAndGet((initials.charAt(0) - 'A') * 26 + initials.charAt(1) - 'A');
 	}
 	
 	/**
@@ -18,6 +18,11 @@ public final class Name {
 	 */
 	private final String lastName;
 	
+	/**
+	 * Hash code of a name, computed once at construction as a Name is immutable and is used within map keys.
+	 */
+	private final int hash;
+	
 	/**
 	 * Constructs a Name with the given first and last names.
 	 * @param first the first name of the person.
@@ -33,14 +38,66 @@ public final class Name {
 		if (last == null) {
 			throw new IllegalArgumentException("Last name cannot be null");
 		}
-		if (!first.matches("[A-Z][a-z]*")) {
+		checkNames(first, 0, first.length(), last, 0, last.length());
+		firstName = first;
+		lastName = last;
+		hash = hash(first, last);
+	}
+	
+	/**
+	 * Constructs a Name with the given first and last names, which have already been checked.
+	 * Note this Constructor is private as it is used by parse, which checks the names before it creates the Strings.
+	 * @param first the first name of the person, an uppercase letter followed only by lowercase letters.
+	 * @param last the last name of the person, an uppercase letter followed only by lowercase letters.
+	 * @param hash the hash code of the name.
+	 */
+	private Name(String first, String last, int hash) {
+		firstName = first;
+		lastName = last;
+		this.hash = hash;
+	}
+	
+	/**
+	 * Checks that the first and last names are each an uppercase letter followed only by lowercase letters.
+	 * @param first characters containing the first name.
+	 * @param firstFrom index of the first character of the first name.
+	 * @param firstTo index after the last character of the first name.
+	 * @param last characters containing the last name.
+	 * @param lastFrom index of the first character of the last name.
+	 * @param lastTo index after the last character of the last name.
+	 * @throws IllegalArgumentException if either name is not in the correct format.
+	 */
+	private static void checkNames(CharSequence first, int firstFrom, int firstTo, CharSequence last, int lastFrom, int lastTo) {
+		if (!isName(first, firstFrom, firstTo)) {
 			throw new IllegalArgumentException("First name must begin with an uppercase letter followed only by lowercase letters");
 		}
-		if (!last.matches("[A-Z][a-z]*")) {
+		if (!isName(last, lastFrom, lastTo)) {
 			throw new IllegalArgumentException("Last name must begin with an uppercase letter followed only by lowercase letters");
 		}
-		firstName = first;
-		lastName = last;
+	}
+	
+	/**
+	 * Returns whether a range of characters is an uppercase letter followed only by lowercase letters.
+	 * @param cs the characters to check.
+	 * @param from index of the first character of the range.
+	 * @param to index after the last character of the range.
+	 * @return true if the range is a valid name, false otherwise.
+	 */
+	private static boolean isName(CharSequence cs, int from, int to) {
+		if (from >= to) {
+			return false;
+		}
+		char c = cs.charAt(from);
+		if (c < 'A' || c > 'Z') {
+			return false;
+		}
+		for (int i=from+1; i<to; i++) {
+			c = cs.charAt(i);
+			if (c < 'a' || c > 'z') {
+				return false;
+			}
+		}
+		return true;
 	}
 	
 	/**
@@ -76,8 +133,8 @@ public final class Name {
 		
 		// equal if firstName and secondName of both objects is equal
 		Name n = (Name) op;
-		return (firstName == null ? n.getFirstName() == null : firstName.equals(n.getFirstName()))
-				&& (lastName == null ? n.getLastName() == null : lastName.equals(n.getLastName()));
+		// The constructor rejects null names, so the fields can be compared directly; compare the cached hash codes first
+		return hash == n.hash && firstName.equals(n.firstName) && lastName.equals(n.lastName);
 	}
 	
 	/**
@@ -85,9 +142,19 @@ public final class Name {
 	 * @return a hash code value for this object as an integer.
 	 */
 	@Override public int hashCode() {
+		return hash;
+	}
+	
+	/**
+	 * Computes the hash code for a Name.
+	 * @param first the first name.
+	 * @param last the last name.
+	 * @return a hash code value as an integer.
+	 */
+	private static int hash(String first, String last) {
 		int hc = 17;
-		hc = hc*37 + (firstName == null ? 0 : firstName.hashCode());
-		hc = hc*37 + (lastName == null ? 0 : lastName.hashCode());
+		hc = hc*37 + first.hashCode();
+		hc = hc*37 + last.hashCode();
 		return hc;
 	}
 	
@@ -106,18 +173,47 @@ public final class Name {
 	 * @throws IllegalArgumentException if the String argument cannot be parsed.
 	 */
 	public static Name valueOf(String fullname) {
+		return parse(fullname);
+	}
+	
+	/**
+	 * Returns a Name object holding the value of the specified characters.
+	 * This accepts and rejects exactly the same input as valueOf, with the same exception messages, but scans the characters directly
+	 * rather than splitting them and matching regular expressions, so only the Name and its two Strings are allocated.
+	 * @param fullname the characters to be parsed in the format [Firstname] [Lastname] i.e. a valid first name followed by a last name separated by space.
+	 * @return a Name object holding the value represented by the characters.
+	 * @throws IllegalArgumentException if the characters cannot be parsed.
+	 */
+	public static Name parse(CharSequence fullname) {
 		// Check fullname parameter
 		if (fullname == null) {
 			throw new IllegalArgumentException("Name cannot be null");
 		}
-		final String[] names = fullname.split(" ");
+		// Find the single space separating the names, ignoring trailing spaces as String.split does
+		int end = fullname.length();
+		while (end > 0 && fullname.charAt(end - 1) == ' ') {
+			end--;
+		}
+		int space = -1;
+		for (int i=0; i<end; i++) {
+			if (fullname.charAt(i) == ' ') {
+				if (space >= 0) {
+					space = -1;
+					break;
+				}
+				space = i;
+			}
+		}
 		// Can it be parsed
-		if (names.length!=2) {
+		if (space < 0) {
 			throw new IllegalArgumentException("There must be two names separated by space");
 		}
-		final String firstname = names[0];
-		final String lastname = names[1];
+		checkNames(fullname, 0, space, fullname, space + 1, end);
 		
-		return new Name(firstname, lastname);
+		// The names have been checked, so they are not checked again
+		String first = fullname.subSequence(0, space).toString();
+		String last = fullname.subSequence(space + 1, end).toString();
+		return new Name(first, last, hash(first, last));
 	}
+
 }
@@ -0,0 +1,116 @@
+package uk.ac.ncl.rental;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * OffHeapFleet class.  A store for very large fleets of cars held outside the Java heap, in a direct ByteBuffer,
+ * so that however large the fleet it adds nothing to the work of the garbage collector.
+ * Each car is a fixed width record of the packed Registration Number, the fuel in the tank, and a state word holding the type and rental status.
+ * Each car is accessed through a flyweight Car view, as described by FlyweightFleet; driving, filling and renting a car only reads and writes
+ * its record, and so leaves no garbage behind.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+public final class OffHeapFleet extends FlyweightFleet {
+
+	/**
+	 * Length in bytes of each car record: packed Registration Number, fuel and state, each an int.
+	 */
+	private static final int CAR_BYTES = 12;
+
+	/**
+	 * Offset of the fuel in a car record.
+	 */
+	private static final int FUEL = 4;
+
+	/**
+	 * Offset of the state in a car record.
+	 */
+	private static final int STATE = 8;
+
+	/**
+	 * Bit of the state that is set while the car is rented.  The type of car is held in the bits above it.
+	 */
+	private static final int RENTED = 1;
+
+	/**
+	 * Maximum number of cars in an OffHeapFleet, as the records must fit in one ByteBuffer.
+	 */
+	public static final int MAX_CARS = Integer.MAX_VALUE / CAR_BYTES;
+
+	/**
+	 * VarHandle used to read and atomically update the state of a car, which is aligned to 4 bytes in a direct buffer.
+	 */
+	private static final VarHandle STATE_HANDLE = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+	/**
+	 * The car records, in native byte order.
+	 */
+	private final ByteBuffer records;
+
+	/**
+	 * Constructs an empty OffHeapFleet with room for the given number of cars, allocating all of its memory at once.
+	 * @param maxCars the maximum number of cars in the fleet.
+	 * @throws IllegalArgumentException if maxCars is negative or greater than MAX_CARS.
+	 */
+	public OffHeapFleet(int maxCars) {
+		super(checkMaxCars(maxCars));
+		records = ByteBuffer.allocateDirect(maxCars * CAR_BYTES).order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Checks the maximum number of cars of an OffHeapFleet.
+	 * @param maxCars the maximum number of cars in the fleet.
+	 * @return maxCars.
+	 * @throws IllegalArgumentException if maxCars is negative or greater than MAX_CARS.
+	 */
+	private static int checkMaxCars(int maxCars) {
+		if (maxCars < 0 || maxCars > MAX_CARS) {
+			throw new IllegalArgumentException("maxCars parameter must be between 0 and " + MAX_CARS);
+		}
+		return maxCars;
+	}
+
+	@Override void store(int index, int packed, byte type) {
+		int at = index * CAR_BYTES;
+		records.putInt(at, packed);
+		records.putInt(at + FUEL, 0);
+		STATE_HANDLE.setVolatile(records, at + STATE, type << 1);
+	}
+
+	@Override int packed(int index) {
+		return records.getInt(index * CAR_BYTES);
+	}
+
+	@Override byte type(int index) {
+		return (byte) (records.getInt(index * CAR_BYTES + STATE) >>> 1);
+	}
+
+	@Override int fuel(int index) {
+		return records.getInt(index * CAR_BYTES + FUEL);
+	}
+
+	@Override void setFuel(int index, int litres) {
+		records.putInt(index * CAR_BYTES + FUEL, litres);
+	}
+
+	@Override boolean isRented(int index) {
+		return ((int) STATE_HANDLE.getVolatile(records, index * CAR_BYTES + STATE) & RENTED) != 0;
+	}
+
+	@Override void setRented(int index, boolean rented) {
+		int at = index * CAR_BYTES + STATE;
+		if (rented) {
+			STATE_HANDLE.getAndBitwiseOr(records, at, RENTED);
+		} else {
+			STATE_HANDLE.getAndBitwiseAnd(records, at, ~RENTED);
+		}
+	}
+
+	@Override boolean claimRented(int index) {
+		return ((int) STATE_HANDLE.getAndBitwiseOr(records, index * CAR_BYTES + STATE, RENTED) & RENTED) == 0;
+	}
+}
@@ -1,31 +1,53 @@
 package uk.ac.ncl.rental;
 
 import java.util.Date;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
 /**
- * Person class.  A Person, representing a customer, consists of a Name object and Date object representing name and date of birth of a person.
+ * Person class.  A Person, representing a customer, consists of a Name object and a date of birth.
+ * The date of birth is held as primitive values rather than a mutable Date, so no defensive copies are needed.
+ * Two Persons are equal if they have the same Name and were born at the same instant, as returned by getBirthDate.
+ * The day of birth, used for eligibility and the string representation, is the day of that instant in the system default time zone.
  * @author Stephen Shephard
  * @version 1.0
  *
  */
 public final class Person {
 	
+	/**
+	 * Format of the date of birth in the string representation of a Person.  DateTimeFormatter is immutable and thread-safe so one instance is shared.
+	 */
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+	
 	/**
 	 * Name of a person.
 	 */
 	private final Name name;
 	
 	/**
-	 * Date of birth of a person.
+	 * Date of birth of a person as an epoch day (the number of days since 1 January 1970) in the system default time zone.
+	 */
+	private final int birthEpochDay;
+	
+	/**
+	 * Instant of birth of a person as given to the Constructor, in milliseconds since the epoch, returned by getBirthDate.
+	 */
+	private final long birthMillis;
+	
+	/**
+	 * Hash code of a person, computed once at construction as a Person is immutable and is used as a map key.
 	 */
-	private final Date birthDate;
+	private final int hash;
 
 	/**
 	 * Constructs a Person with the given Name and Date of birth.
 	 * @param name Name of person.
 	 * @param birth Date of birth of person.
-	 * @throws IllegalArgumentException if either the Name or Date parameters is null or if the Date of birth given is in the future.
+	 * @throws IllegalArgumentException if either the Name or Date parameters is null or if the Date of birth given is in the future
+	 * or too far in the past.
 	 */
 	public Person(Name name, Date birth) {
 		// Check parameters
@@ -36,15 +58,92 @@ public final class Person {
 			throw new IllegalArgumentException("Birth date cannot be null");
 		}
 		// Check birth date, cannot be in the future
-		Date today = new Date();
-		if (birth.after(today)) {
+		if (birth.getTime() > System.currentTimeMillis()) {
 			throw new IllegalArgumentException("Date of birth cannot be in the future");
 		}
 		
 		this.name = name; // Name is immutable so defensive copying not needed
-		birthDate = new Date(birth.getTime()); // Use defensive copy as Date is mutable
+		birthMillis = birth.getTime(); // Copy the value out of the Date as Date is mutable
+		birthEpochDay = birthEpochDay(Instant.ofEpochMilli(birthMillis).atZone(ZoneId.systemDefault()).toLocalDate());
+		hash = hash(name, birthMillis);
+	}
+	
+	/**
+	 * Constructs a Person from values already checked.
+	 * Note this Constructor is private as it is used by the static factory methods of and ofEpochMilli.
+	 * @param name Name of person.
+	 * @param birthEpochDay date of birth of person as an epoch day.
+	 * @param birthMillis instant of birth of person in milliseconds since the epoch.
+	 */
+	private Person(Name name, int birthEpochDay, long birthMillis) {
+		this.name = name;
+		this.birthEpochDay = birthEpochDay;
+		this.birthMillis = birthMillis;
+		hash = hash(name, birthMillis);
 	}
 	
+	/**
+	 * Returns a Person with the given Name and date of birth, born at the start of that day in the system default time zone.
+	 * @param name Name of person.
+	 * @param birth date of birth of person.
+	 * @return the Person.
+	 * @throws IllegalArgumentException if either the Name or date parameters is null or if the date of birth given is in the future
+	 * or too far in the past.
+	 */
+	public static Person of(Name name, LocalDate birth) {
+		// Check parameters
+		if (name == null) {
+			throw new IllegalArgumentException("Name cannot be null");
+		}
+		if (birth == null) {
+			throw new IllegalArgumentException("Birth date cannot be null");
+		}
+		// Check birth date, cannot be in the future
+		if (birth.isAfter(LocalDate.now())) {
+			throw new IllegalArgumentException("Date of birth cannot be in the future");
+		}
+		
+		// Check the epoch day first, as the instant of the start of a date too far in the past does not fit in a long either
+		int birthEpochDay = birthEpochDay(birth);
+
+		// Name and LocalDate are immutable so defensive copying not needed
+		return new Person(name, birthEpochDay, birth.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli());
+	}
+
+	/**
+	 * Returns a Person with the given Name and instant of birth, equal to the Person constructed with a Date of that instant.
+	 * Note this factory method is package-private as it is used to restore persons saved by PersonCodec.
+	 * @param name Name of person.
+	 * @param birthMillis instant of birth of person in milliseconds since the epoch, as returned by getBirthDate.
+	 * @return the Person.
+	 * @throws IllegalArgumentException if the Name parameter is null, or the instant of birth is in the future or too far in the past.
+	 */
+	static Person ofEpochMilli(Name name, long birthMillis) {
+		// Check parameters
+		if (name == null) {
+			throw new IllegalArgumentException("Name cannot be null");
+		}
+		if (birthMillis > System.currentTimeMillis()) {
+			throw new IllegalArgumentException("Date of birth cannot be in the future");
+		}
+		return new Person(name, birthEpochDay(Instant.ofEpochMilli(birthMillis).atZone(ZoneId.systemDefault()).toLocalDate()), birthMillis);
+	}
+
+	/**
+	 * Returns the epoch day of a date of birth that is not in the future.
+	 * @param birth date of birth of person.
+	 * @return the date of birth as an epoch day integer.
+	 * @throws IllegalArgumentException if the date of birth is too many days before the epoch for an int.
+	 */
+	private static int birthEpochDay(LocalDate birth) {
+		// Every long instant is a valid date, but the earliest are too many days before the epoch for an int
+		long epochDay = birth.toEpochDay();
+		if (epochDay < Integer.MIN_VALUE) {
+			throw new IllegalArgumentException("Date of birth is too far in the past");
+		}
+		return (int) epochDay;
+	}
+
 	/**
 	 * Return the Name of this Person.
 	 * @return the name of the person as a Name object.
@@ -56,17 +155,41 @@ public final class Person {
 	
 	/**
 	 * Return the Date of birth of this Person.
-	 * @return the date of birth of the person as a Date object.
+	 * @return the date of birth of the person as a new Date object.
 	 */
 	public Date getBirthDate() {
-		// Return defensive copy of Date object to preserve immutability
-		return (Date) birthDate.clone();
+		// Return a new Date object each time to preserve immutability
+		return new Date(birthMillis);
+	}
+	
+	/**
+	 * Return the date of birth of this Person.
+	 * @return the date of birth of the person in the system default time zone as a LocalDate.
+	 */
+	public LocalDate getBirthLocalDate() {
+		return LocalDate.ofEpochDay(birthEpochDay);
 	}
 	
+	/**
+	 * Return the date of birth of this Person as an epoch day i.e. the number of days since 1 January 1970, without allocation.
+	 * @return the date of birth in the system default time zone as an epoch day integer.
+	 */
+	public int birthEpochDay() {
+		return birthEpochDay;
+	}
+
+	/**
+	 * Return the instant of birth of this Person in milliseconds since the epoch, as getBirthDate does, without allocation.
+	 * @return the instant of birth as a long integer.
+	 */
+	public long birthEpochMilli() {
+		return birthMillis;
+	}
+
 	/**
 	 * Compares this Person to the specified operand.
 	 * @param op the object to compare with.
-	 * @return true if the Name and Date of birth of this Person and the compared object are equal to each other,
+	 * @return true if the Name and instant of birth of this Person and the compared object are equal to each other,
 	 * false otherwise, as a boolean.
 	 */
 	@Override public boolean equals(Object op) {
@@ -78,11 +201,12 @@ public final class Person {
 		// non-null and instance of Person
 		if (!(op instanceof Person)) return false;
 		
-		// equal if name and birthDate of both objects are equal
+		// equal if name and date of birth of both objects are equal
 		Person p = (Person) op;
 		
-		return (name == null ? p.getName() == null : name.equals(p.getName()))
-				&& (birthDate == null ? p.getBirthDate() == null : birthDate.equals(p.getBirthDate()));
+		// Compare the cached hash codes first so that unequal Persons are usually rejected without comparing names
+		// The instants of birth are compared, as getBirthDate returns them, so Persons born on the same day at different times are not equal
+		return hash == p.hash && birthMillis == p.birthMillis && name.equals(p.name);
 	}
 	
 	/**
@@ -90,9 +214,20 @@ public final class Person {
 	 * @return a hash code value for this object as an integer.
 	 */
 	@Override public int hashCode() {
+		return hash;
+	}
+	
+	/**
+	 * Computes the hash code for a Person from the instant of birth, which equals compares, rather than the day of birth,
+	 * which depends on the time zone.
+	 * @param name Name of person.
+	 * @param birthMillis instant of birth of person in milliseconds since the epoch.
+	 * @return a hash code value as an integer.
+	 */
+	private static int hash(Name name, long birthMillis) {
 		int hc = 17;
-		hc = hc*37 + (name == null ? 0 : name.hashCode());
-		hc = hc*37 + (birthDate == null ? 0 : birthDate.hashCode());
+		hc = hc*37 + name.hashCode();
+		hc = hc*37 + Long.hashCode(birthMillis);
 		return hc;
 	}
 	
@@ -102,7 +237,6 @@ public final class Person {
 	 * separated by comma i.e. [Firstname Lastname],[dd/MM/yyyy>]
 	 */
 	@Override public String toString() {
-		SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-		return name + "," + dateFormat.format(birthDate);
+		return name + "," + DATE_FORMAT.format(getBirthLocalDate());
 	}
 }
@@ -0,0 +1,94 @@
+package uk.ac.ncl.rental;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * PersonCodec class.  Encodes a Person as binary for RentalJournal and RentalSnapshot: the instant of birth in milliseconds since the epoch as a long,
+ * the lengths of the first and last names as unsigned shorts, then the first and last names one byte per character.
+ * The instant is saved, not the day, so that a Person read back equals the Person written whatever time of day they were born
+ * and whatever the time zone of the reader.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+final class PersonCodec {
+
+	/**
+	 * Length in bytes of the fixed length part of an encoded Person.
+	 */
+	static final int FIXED_BYTES = 12;
+
+	/**
+	 * Maximum length of a first or last name that can be encoded.
+	 */
+	private static final int MAX_NAME_LENGTH = 0xFFFF;
+
+	/**
+	 * Private Constructor, as PersonCodec has only static methods.
+	 */
+	private PersonCodec() {
+	}
+
+	/**
+	 * Returns the length of the encoding of a Person.
+	 * @param person the Person.
+	 * @return the length in bytes.
+	 * @throws IllegalArgumentException if either of the person's names is too long to be encoded.
+	 */
+	static int length(Person person) {
+		int first = person.getName().getFirstName().length();
+		int last = person.getName().getLastName().length();
+		if (first > MAX_NAME_LENGTH || last > MAX_NAME_LENGTH) {
+			throw new IllegalArgumentException("Name is too long to be encoded");
+		}
+		return FIXED_BYTES + first + last;
+	}
+
+	/**
+	 * Returns the length of the encoded Person at the given index of a buffer, from its fixed length part.
+	 * @param buffer the buffer, holding at least the fixed length part of the encoding.
+	 * @param at the index of the encoding.
+	 * @return the length in bytes.
+	 */
+	static int length(ByteBuffer buffer, int at) {
+		return FIXED_BYTES + Short.toUnsignedInt(buffer.getShort(at + 8)) + Short.toUnsignedInt(buffer.getShort(at + 10));
+	}
+
+	/**
+	 * Writes the encoding of a Person at the position of a buffer, which must have room for it.
+	 * @param buffer the buffer.
+	 * @param person the Person, whose encoded length has been checked.
+	 */
+	static void write(ByteBuffer buffer, Person person) {
+		String first = person.getName().getFirstName();
+		String last = person.getName().getLastName();
+		buffer.putLong(person.birthEpochMilli()).putShort((short) first.length()).putShort((short) last.length());
+		// A Name contains only the letters A-Z and a-z, so each character is written as a single byte
+		for (int i=0; i<first.length(); i++) {
+			buffer.put((byte) first.charAt(i));
+		}
+		for (int i=0; i<last.length(); i++) {
+			buffer.put((byte) last.charAt(i));
+		}
+	}
+
+	/**
+	 * Reads the encoded Person at the given index of a buffer, without changing the buffer's position.
+	 * @param buffer the buffer, holding the whole encoding.
+	 * @param at the index of the encoding.
+	 * @return the Person.
+	 * @throws IllegalArgumentException if the name or instant of birth is invalid.
+	 */
+	static Person read(ByteBuffer buffer, int at) {
+		int firstLength = Short.toUnsignedInt(buffer.getShort(at + 8));
+		int lastLength = Short.toUnsignedInt(buffer.getShort(at + 10));
+		byte[] names = new byte[firstLength + lastLength];
+		ByteBuffer view = buffer.duplicate();
+		view.position(at + FIXED_BYTES);
+		view.get(names);
+		String first = new String(names, 0, firstLength, StandardCharsets.ISO_8859_1);
+		String last = new String(names, firstLength, lastLength, StandardCharsets.ISO_8859_1);
+		// Person.ofEpochMilli range checks the instant, so a corrupt value is rejected as an IllegalArgumentException like a corrupt name
+		return Person.ofEpochMilli(new Name(first, last), buffer.getLong(at));
+	}
+}
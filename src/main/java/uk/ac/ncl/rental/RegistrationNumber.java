@@ -1,43 +1,45 @@
 package uk.ac.ncl.rental;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * RegistrationNumber class.  A RegistrationNumber consists of two parts:<ul>
  * <li>The first part is two letters followed by two digits</li>
  * <li>The second part is three letters.</li>
  * </ul>
+ * As the format is fixed, a RegistrationNumber is stored packed into a single int, from which the String form of each part is derived when required.
  * @author Stephen Shephard
  * @version 1.0
  */
 public final class RegistrationNumber {
 
 	/**
-	 * First part - two letters followed by two digits.
+	 * Both parts packed into an int: each letter as a base 26 digit and each digit as a base 10 digit, most significant first.
+	 * Every valid Registration Number packs to a distinct value between 0 and 1,188,137,599.
 	 */
-	private final String firstPart;
+	private final int packed;
 	
 	/**
-	 * Second part - three letters.
+	 * Number of distinct packed values i.e. of valid Registration Numbers.
 	 */
-	private final String secondPart;
+	private static final int PACKED_VALUES = 26 * 26 * 10 * 10 * 26 * 26 * 26;
 	
 	/**
-	 * A map, implemented as a HashMap, from the String representation of a RegistrationNumber to theRegistrationNumber object,
-	 * used to enforce uniqueness of Registration Numbers.
+	 * Number of distinct prefixes of each length of the first part, indexed by length.
 	 */
-	private static final Map<String, RegistrationNumber> REGNUMBERS = new HashMap<>();
+	private static final int[] PREFIXES = {1, 26, 26 * 26, 26 * 26 * 10, 26 * 26 * 10 * 10};
 	
 	/**
-	 * Constructs a RegistrationNumber from its two parts.
-	 * @param first first part of Registration Number.
-	 * @param second second part of Registration Number.
+	 * A table from the packed value of a RegistrationNumber to the RegistrationNumber object,
+	 * used to enforce uniqueness of Registration Numbers.  Registration Numbers may be created from many threads at once.
+	 */
+	private static final RegistrationTable REGNUMBERS = new RegistrationTable();
+	
+	/**
+	 * Constructs a RegistrationNumber from its packed value.
+	 * @param packed packed value of both parts of Registration Number.
 	 */
-	private RegistrationNumber(String first, String second) {
+	private RegistrationNumber(int packed) {
 		// Parameters have already been checked by Factory method
-		firstPart = first;
-		secondPart = second;
+		this.packed = packed;
 	}
 	
 	/**
@@ -54,23 +56,143 @@ public final class RegistrationNumber {
 		if (first == null) {
 			throw new IllegalArgumentException("First part cannot be null");
 		}
-		if (!first.matches("[A-Z]{2}\\d{2}")) {
+		if (!isFirstPart(first, 0, first.length())) {
 			throw new IllegalArgumentException("First part must be two letters followed by two digits");
 		}
 		if (second == null) {
 			throw new IllegalArgumentException("Second part cannot be null");
 		}
-		if (!second.matches("[A-Z]{3}")) {
+		if (!isSecondPart(second, 0, second.length())) {
 			throw new IllegalArgumentException("Second part must be three letters");
 		}
-		// Check to see if this Registration Number already exists
-		final String key = first + second;
-		if (!REGNUMBERS.containsKey(key)) {
-			REGNUMBERS.put(key, new RegistrationNumber(first, second));
-			return REGNUMBERS.get(key);
-		} else {
+		// Register this Registration Number unless it already exists
+		// Note: putIfAbsent is atomic so if two threads register the same Registration Number at once, only one succeeds
+		return register(pack(first, 0, second, 0));
+	}
+	
+	/**
+	 * Creates and registers the RegistrationNumber with the given packed value, unless it already exists.
+	 * @param packed packed value of a valid Registration Number.
+	 * @return new Registration Number object.
+	 * @throws IllegalStateException if the Registration Number is already in use.
+	 */
+	private static RegistrationNumber register(int packed) {
+		final RegistrationNumber rn = new RegistrationNumber(packed);
+		if (REGNUMBERS.putIfAbsent(rn) != null) {
 			throw new IllegalStateException("Registration Number already in use");
 		}
+		return rn;
+	}
+	
+	/**
+	 * Checks whether a value is the packed value of a valid Registration Number, without creating or registering it.
+	 * @param packed the value to check.
+	 * @return true if the value is that of a valid Registration Number, false otherwise as a boolean.
+	 */
+	static boolean isPacked(int packed) {
+		return packed >= 0 && packed < PACKED_VALUES;
+	}
+	
+	/**
+	 * Returns the RegistrationNumber with the given packed value, creating and registering it if it does not already exist.
+	 * Used to restore cars from their packed Registration Numbers, for example by RentalJournal.
+	 * @param packed packed value of a Registration Number, as returned by getPackedValue.
+	 * @return the RegistrationNumber object with that packed value.
+	 * @throws IllegalArgumentException if the packed value is not that of any valid Registration Number.
+	 */
+	static RegistrationNumber intern(int packed) {
+		if (!isPacked(packed)) {
+			throw new IllegalArgumentException("Invalid packed Registration Number " + packed);
+		}
+		RegistrationNumber rn = REGNUMBERS.get(packed);
+		if (rn == null) {
+			rn = new RegistrationNumber(packed);
+			RegistrationNumber existing = REGNUMBERS.putIfAbsent(rn);
+			if (existing != null) {
+				// Another thread registered it first
+				rn = existing;
+			}
+		}
+		return rn;
+	}
+	
+	/**
+	 * Finds an existing RegistrationNumber from its String representation, without creating a new one.
+	 * @param rnString the String to be looked up in the format [FirstPart] [SecondPart].
+	 * @return the RegistrationNumber object represented by the String argument, or null if it has not been created or the String is not a valid Registration Number.
+	 * @throws IllegalArgumentException if the String is null.
+	 */
+	public static RegistrationNumber find(String rnString) {
+		// Check rnString parameter
+		if (rnString == null) {
+			throw new IllegalArgumentException("Registration Number String cannot be null");
+		}
+		// A valid Registration Number String is exactly two letters, two digits, a space and three letters
+		if (rnString.length() != 8 || rnString.charAt(4) != ' ' || !isFirstPart(rnString, 0, 4) || !isSecondPart(rnString, 5, 8)) {
+			return null;
+		}
+		return REGNUMBERS.get(pack(rnString, 0, rnString, 5));
+	}
+	
+	/**
+	 * Packs the two validated parts of a Registration Number into an int.
+	 * @param first characters containing the first part of Registration Number, two letters followed by two digits.
+	 * @param firstFrom index of the first part in first.
+	 * @param second characters containing the second part of Registration Number, three letters.
+	 * @param secondFrom index of the second part in second.
+	 * @return the packed value as an integer.
+	 */
+	private static int pack(CharSequence first, int firstFrom, CharSequence second, int secondFrom) {
+		int value = first.charAt(firstFrom) - 'A';
+		value = value * 26 + (first.charAt(firstFrom + 1) - 'A');
+		value = value * 10 + (first.charAt(firstFrom + 2) - '0');
+		value = value * 10 + (first.charAt(firstFrom + 3) - '0');
+		value = value * 26 + (second.charAt(secondFrom) - 'A');
+		value = value * 26 + (second.charAt(secondFrom + 1) - 'A');
+		return value * 26 + (second.charAt(secondFrom + 2) - 'A');
+	}
+	
+	/**
+	 * Returns whether a range of characters is a valid first part i.e. two letters followed by two digits.
+	 * @param cs the characters to check.
+	 * @param from index of the first character of the range.
+	 * @param to index after the last character of the range.
+	 * @return true if the range is a valid first part, false otherwise.
+	 */
+	private static boolean isFirstPart(CharSequence cs, int from, int to) {
+		return to - from == 4
+				&& isLetter(cs.charAt(from)) && isLetter(cs.charAt(from + 1))
+				&& isDigit(cs.charAt(from + 2)) && isDigit(cs.charAt(from + 3));
+	}
+	
+	/**
+	 * Returns whether a range of characters is a valid second part i.e. three letters.
+	 * @param cs the characters to check.
+	 * @param from index of the first character of the range.
+	 * @param to index after the last character of the range.
+	 * @return true if the range is a valid second part, false otherwise.
+	 */
+	private static boolean isSecondPart(CharSequence cs, int from, int to) {
+		return to - from == 3
+				&& isLetter(cs.charAt(from)) && isLetter(cs.charAt(from + 1)) && isLetter(cs.charAt(from + 2));
+	}
+	
+	/**
+	 * Returns whether a character is an uppercase letter A-Z.
+	 * @param c the character to check.
+	 * @return true if the character is an uppercase letter, false otherwise.
+	 */
+	private static boolean isLetter(char c) {
+		return c >= 'A' && c <= 'Z';
+	}
+	
+	/**
+	 * Returns whether a character is a digit 0-9.
+	 * @param c the character to check.
+	 * @return true if the character is a digit, false otherwise.
+	 */
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
 	}
 	
 	/**
@@ -78,7 +200,7 @@ public final class RegistrationNumber {
 	 * @return the first part as a String.
 	 */
 	public String getFirstPart() {
-		return firstPart;
+		return new String(firstPartChars(packed));
 	}
 	
 	/**
@@ -86,7 +208,77 @@ public final class RegistrationNumber {
 	 * @return the second part as a String.
 	 */
 	public String getSecondPart() {
-		return secondPart;
+		return new String(secondPartChars(packed));
+	}
+	
+	/**
+	 * Returns the packed value of this RegistrationNumber, which is distinct for every Registration Number.
+	 * @return the packed value as an integer.
+	 */
+	public int getPackedValue() {
+		return packed;
+	}
+	
+	/**
+	 * Returns the number of distinct prefixes of the given length of the first part of a Registration Number.
+	 * @param length the number of characters of the prefix, from 1 to 4.
+	 * @return the number of prefixes as an integer.
+	 */
+	static int prefixes(int length) {
+		return PREFIXES[length];
+	}
+	
+	/**
+	 * Returns the number of the prefix of the given length of the first part of a packed Registration Number.
+	 * As the packed value holds the characters most significant first, prefixes are numbered in order, from zero.
+	 * @param packed packed value of both parts of Registration Number.
+	 * @param length the number of characters of the prefix, from 1 to 4.
+	 * @return the number of the prefix, less than prefixes(length), as an integer.
+	 */
+	static int prefixOf(int packed, int length) {
+		return packed / (PACKED_VALUES / PREFIXES[length]);
+	}
+	
+	/**
+	 * Returns the prefix of the given length of the first part of a Registration Number from its number, as returned by prefixOf.
+	 * @param prefix the number of the prefix.
+	 * @param length the number of characters of the prefix, from 1 to 4.
+	 * @return the prefix as a String.
+	 */
+	static String prefix(int prefix, int length) {
+		return new String(firstPartChars(prefix * (PACKED_VALUES / PREFIXES[length])), 0, length);
+	}
+	
+	/**
+	 * Unpacks the first part of a packed Registration Number.
+	 * @param packed packed value of both parts of Registration Number.
+	 * @return the two letters and two digits of the first part as a char array.
+	 */
+	private static char[] firstPartChars(int packed) {
+		int value = packed / (26 * 26 * 26);
+		char[] chars = new char[4];
+		chars[3] = (char) ('0' + value % 10);
+		value /= 10;
+		chars[2] = (char) ('0' + value % 10);
+		value /= 10;
+		chars[1] = (char) ('A' + value % 26);
+		chars[0] = (char) ('A' + value / 26);
+		return chars;
+	}
+	
+	/**
+	 * Unpacks the second part of a packed Registration Number.
+	 * @param packed packed value of both parts of Registration Number.
+	 * @return the three letters of the second part as a char array.
+	 */
+	private static char[] secondPartChars(int packed) {
+		int value = packed % (26 * 26 * 26);
+		char[] chars = new char[3];
+		chars[2] = (char) ('A' + value % 26);
+		value /= 26;
+		chars[1] = (char) ('A' + value % 26);
+		chars[0] = (char) ('A' + value / 26);
+		return chars;
 	}
 	
 	/**
@@ -94,7 +286,20 @@ public final class RegistrationNumber {
 	 * @return the first and last parts of this RegistrationNumber, separated by space, as a String.
 	 */
 	@Override public String toString() {
-		return firstPart + " " + secondPart;
+		return format(packed);
+	}
+
+	/**
+	 * Returns the string representation of a packed Registration Number, without looking it up or registering it.
+	 * @param packed packed value of a valid Registration Number.
+	 * @return the first and last parts of the Registration Number, separated by space, as a String.
+	 */
+	static String format(int packed) {
+		char[] chars = new char[8];
+		System.arraycopy(firstPartChars(packed), 0, chars, 0, 4);
+		chars[4] = ' ';
+		System.arraycopy(secondPartChars(packed), 0, chars, 5, 3);
+		return new String(chars);
 	}
 
 	/**
@@ -102,21 +307,53 @@ public final class RegistrationNumber {
 	 * @param rnString the String to be parsed in the format [FirstPart] [SecondPart].
 	 * @return a RegistrationNumber object holding the value represented by the String argument.
 	 * @throws IllegalArgumentException if the String cannot be parsed.
+	 * @throws IllegalStateException if the Registration Number is already in use.
 	 */
 	public static RegistrationNumber valueOf(String rnString) {
-		// Check rnString parameter
-		if (rnString == null) {
+		return parse(rnString);
+	}
+	
+	/**
+	 * Returns a RegistrationNumber object from correctly formatted characters.
+	 * This accepts and rejects exactly the same input as valueOf, with the same exception messages, but scans the characters directly
+	 * rather than splitting them and matching regular expressions, so nothing but the RegistrationNumber itself is allocated.
+	 * @param cs the characters to be parsed in the format [FirstPart] [SecondPart].
+	 * @return a RegistrationNumber object holding the value represented by the characters.
+	 * @throws IllegalArgumentException if the characters cannot be parsed.
+	 * @throws IllegalStateException if the Registration Number is already in use.
+	 */
+	public static RegistrationNumber parse(CharSequence cs) {
+		// Check cs parameter
+		if (cs == null) {
 			throw new IllegalArgumentException("Registration Number String cannot be null");
 		}
-		final String[] parts = rnString.split(" ");
-		// Can string be parsed
-		if (parts.length!=2) {
+		// Find the single space separating the parts, ignoring trailing spaces as String.split does
+		int end = cs.length();
+		while (end > 0 && cs.charAt(end - 1) == ' ') {
+			end--;
+		}
+		int space = -1;
+		for (int i=0; i<end; i++) {
+			if (cs.charAt(i) == ' ') {
+				if (space >= 0) {
+					space = -1;
+					break;
+				}
+				space = i;
+			}
+		}
+		// Can it be parsed
+		if (space < 0) {
 			throw new IllegalArgumentException("There must be two parts separated by space");
 		}
-		final String firstPart = parts[0];
-		final String secondPart = parts[1];
+		if (!isFirstPart(cs, 0, space)) {
+			throw new IllegalArgumentException("First part must be two letters followed by two digits");
+		}
+		if (!isSecondPart(cs, space + 1, end)) {
+			throw new IllegalArgumentException("Second part must be three letters");
+		}
 		
-		// Call Factory method - throws an exception if this RegistrationNumber is a duplicate
-		return RegistrationNumber.getInstance(firstPart, secondPart);
+		// Throws an exception if this RegistrationNumber is a duplicate
+		return register(pack(cs, 0, cs, space + 1));
 	}
 }
@@ -0,0 +1,200 @@
+package uk.ac.ncl.rental;
+
+/**
+ * RegistrationTable class.  A thread-safe hash table of RegistrationNumber objects keyed by their packed int values,
+ * used by RegistrationNumber to enforce uniqueness of Registration Numbers.
+ * The table is split into segments, each an open addressing table of primitive int keys with linear probing, so there is no boxing of keys
+ * and no per-entry node objects.  Insertions lock only their own segment; lookups do not lock at all unless they race with an insertion.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+final class RegistrationTable {
+
+	/**
+	 * Number of segments, which must be a power of two.
+	 */
+	private static final int SEGMENTS = 64;
+
+	/**
+	 * Initial number of slots in each segment, which must be a power of two.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The segments of this table.
+	 */
+	private final Segment[] segments = new Segment[SEGMENTS];
+
+	/**
+	 * Constructs an empty RegistrationTable.
+	 */
+	RegistrationTable() {
+		for (int i=0; i<SEGMENTS; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	/**
+	 * Returns the RegistrationNumber with the given packed value.
+	 * @param packed the packed value of the Registration Number.
+	 * @return the RegistrationNumber, or null if there is none with that value.
+	 */
+	RegistrationNumber get(int packed) {
+		int hash = mix(packed);
+		return segments[hash >>> 26].get(packed, hash);
+	}
+
+	/**
+	 * Adds the given RegistrationNumber to the table, unless one with the same packed value is already present.
+	 * @param rn the RegistrationNumber to add.
+	 * @return the RegistrationNumber already present with the same packed value, or null if rn was added.
+	 */
+	RegistrationNumber putIfAbsent(RegistrationNumber rn) {
+		int packed = rn.getPackedValue();
+		int hash = mix(packed);
+		return segments[hash >>> 26].putIfAbsent(packed, hash, rn);
+	}
+
+	/**
+	 * Spreads the bits of a packed value so that consecutive Registration Numbers are distributed across segments and slots.
+	 * The top 6 bits of the result select the segment and the low bits select the slot.
+	 * Note this method is package-private as the replay of a RentalJournal uses it to index cars by packed value.
+	 * @param packed the packed value of a Registration Number.
+	 * @return the mixed hash as an integer.
+	 */
+	static int mix(int packed) {
+		int h = packed * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Segment class.  One segment of a RegistrationTable.
+	 */
+	private static final class Segment {
+
+		/**
+		 * The current arrays of keys and values, replaced as a whole when the segment grows.
+		 */
+		private volatile Slots slots = new Slots(INITIAL_CAPACITY);
+
+		/**
+		 * Number of entries in this segment, guarded by the segment's monitor.
+		 */
+		private int size;
+
+		/**
+		 * Returns the RegistrationNumber with the given packed value from this segment, without locking if possible.
+		 * @param packed the packed value of the Registration Number.
+		 * @param hash the mixed hash of the packed value.
+		 * @return the RegistrationNumber, or null if there is none with that value.
+		 */
+		RegistrationNumber get(int packed, int hash) {
+			Slots s = slots;
+			int key = packed + 1; // zero marks an empty slot
+			int mask = s.keys.length - 1;
+			for (int i = hash & mask; ; i = (i + 1) & mask) {
+				int k = s.keys[i];
+				if (k == 0) {
+					return null;
+				}
+				if (k == key) {
+					RegistrationNumber rn = s.values[i];
+					if (rn != null) {
+						return rn;
+					}
+					// The key is visible but the value is not yet, so wait for the insertion to finish
+					synchronized (this) {
+						return slots.find(key, hash);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Adds a RegistrationNumber to this segment unless one with the same packed value is already present.
+		 * @param packed the packed value of the Registration Number.
+		 * @param hash the mixed hash of the packed value.
+		 * @param rn the RegistrationNumber to add.
+		 * @return the RegistrationNumber already present, or null if rn was added.
+		 */
+		synchronized RegistrationNumber putIfAbsent(int packed, int hash, RegistrationNumber rn) {
+			int key = packed + 1;
+			RegistrationNumber existing = slots.find(key, hash);
+			if (existing != null) {
+				return existing;
+			}
+			if ((size + 1) * 4 > slots.keys.length * 3) {
+				// Keep the load factor at or below 0.75, publishing the larger arrays only once they are complete
+				Slots grown = new Slots(slots.keys.length * 2);
+				Slots old = slots;
+				for (int i=0; i<old.keys.length; i++) {
+					if (old.keys[i] != 0) {
+						grown.insert(old.keys[i], mix(old.keys[i] - 1), old.values[i]);
+					}
+				}
+				slots = grown;
+			}
+			slots.insert(key, hash, rn);
+			size++;
+			return null;
+		}
+	}
+
+	/**
+	 * Slots class.  Parallel arrays of keys (packed value plus one, so that zero marks an empty slot) and values.
+	 */
+	private static final class Slots {
+
+		/**
+		 * Keys, each the packed value of a Registration Number plus one, or zero for an empty slot.
+		 */
+		private final int[] keys;
+
+		/**
+		 * Values, each the RegistrationNumber for the key in the same slot.
+		 */
+		private final RegistrationNumber[] values;
+
+		/**
+		 * Constructs empty Slots.
+		 * @param capacity the number of slots, which must be a power of two.
+		 */
+		Slots(int capacity) {
+			keys = new int[capacity];
+			values = new RegistrationNumber[capacity];
+		}
+
+		/**
+		 * Finds the value for a key by linear probing.
+		 * @param key the key to look for.
+		 * @param hash the mixed hash of the key's packed value.
+		 * @return the RegistrationNumber for the key, or null if the key is absent.
+		 */
+		RegistrationNumber find(int key, int hash) {
+			int mask = keys.length - 1;
+			for (int i = hash & mask; keys[i] != 0; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					return values[i];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Inserts a key that is known to be absent into the first free slot.
+		 * @param key the key to insert.
+		 * @param hash the mixed hash of the key's packed value.
+		 * @param rn the RegistrationNumber for the key.
+		 */
+		void insert(int key, int hash, RegistrationNumber rn) {
+			int mask = keys.length - 1;
+			int i = hash & mask;
+			while (keys[i] != 0) {
+				i = (i + 1) & mask;
+			}
+			// Write the value before the key so that a lookup that sees the key usually sees the value too
+			values[i] = rn;
+			keys[i] = key;
+		}
+	}
+}
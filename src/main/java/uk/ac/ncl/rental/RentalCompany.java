@@ -1,10 +1,16 @@
 package uk.ac.ncl.rental;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
 
 /**
  * RentalCompany class.  The RentalCompany class represents a Car Rental company.
  * It comprises the fleet of cars and a collection of rentals (associations between Car and Person).
+ * RentalCompany is thread-safe: cars may be added, issued and returned from many threads at once.  There is no global lock;
+ * the free cars of each type are held in a lock-free pool, each car is claimed by compare-and-set on its rental status,
+ * and rentals are held in concurrent maps.
  * @author Stephen Shephard
  * @version 1.0
  */
@@ -13,29 +19,69 @@ public final class RentalCompany {
 	public static final String SMALL_CAR = "SmallCar";
 	public static final String LARGE_CAR = "LargeCar";
 	/**
-	 * Set of cars in the company's fleet.
+	 * Cars in the company's fleet by Registration Number, so that no two cars in the fleet share a Registration Number.
 	 */
-	private final Set<Car> fleet;
+	private final ConcurrentMap<RegistrationNumber, Car> fleet;
 	
 	/**
-	 * A map, implemented as a HashMap, representing rentals i.e. associations between Person and Car objects.
+	 * A registry representing rentals i.e. associations between Person and Car objects, indexed in both directions.
 	 */
-	private final Map<Person, Car> rentals; // Person will be the key as it is immutable
+	private final RentalRegistry rentals;
+	
+	/**
+	 * The pool of cars of each type that are not currently rented, indexed by the ordinal of the CarType.
+	 * Kept up to date by addCar, issueCar and terminateRental so that neither availability nor issuing requires a scan of the fleet.
+	 * The array is replaced, never modified, when a type of car registered after this RentalCompany was constructed is first used;
+	 * each pool is thread-safe.
+	 */
+	private volatile FreeCarPool[] freeCars;
+	
+	/**
+	 * Journal to which every change to the fleet and rentals is recorded, or null if changes are not journalled.
+	 * Each change is made and recorded while holding the journal's lock, so that the journal records changes in the order they took effect;
+	 * the journal's group commit then forces the file to disk, if due, after the lock has been released.
+	 */
+	private final RentalJournal journal;
 	
 	/**
 	 * Constructs a RentalCompany.  No parameters.
 	 */
 	public RentalCompany() {
+		this(null);
+	}
+	
+	/**
+	 * Constructs a RentalCompany that records its changes to the given journal.
+	 * Note this Constructor is package-private as a journalled RentalCompany is created by RentalJournal.recover.
+	 * @param journal the journal, or null if changes are not to be journalled.
+	 */
+	RentalCompany(RentalJournal journal) {
+		this(journal, 16, 16);
+	}
+	
+	/**
+	 * Constructs a RentalCompany that records its changes to the given journal, with room for the given numbers of cars and rentals.
+	 * Note this Constructor is package-private as it is used to restore a RentalCompany of known size.
+	 * @param journal the journal, or null if changes are not to be journalled.
+	 * @param expectedCars the number of cars expected in the fleet.
+	 * @param expectedRentals the number of rentals expected.
+	 */
+	RentalCompany(RentalJournal journal, int expectedCars, int expectedRentals) {
+		this.journal = journal;
 		// Create empty fleet and rentals structures
-		fleet = new HashSet<>();
-		rentals = new HashMap<>();
+		fleet = new ConcurrentHashMap<>(expectedCars);
+		rentals = new RentalRegistry(expectedRentals);
+		freeCars = pools(new FreeCarPool[0], CarType.count());
 	}
 	
 	/**
 	 * Add a car to the RentalCompany's fleet.
+	 * A car should be in the fleet of only one RentalCompany.  A car that is also in another company's fleet is counted as available
+	 * while it is rented from the other company, but cannot be issued until it has been returned there.
 	 * @param car Car object being added to fleet.
-	 * @throws IllegalArgumentException if the car parameter is null.
-	 * @throws IllegalStateException if the car can't be added to the fleet e.g. because it is a duplicate of one already in there.
+	 * @throws IllegalArgumentException if the car parameter is null or the car is already rented.
+	 * @throws IllegalStateException if the car can't be added to the fleet e.g. because it, or another car with the same Registration Number,
+	 * is already in there.
 	 */
 	public void addCar(Car car) {
 		// Check parameter
@@ -43,32 +89,42 @@ public final class RentalCompany {
 			throw new IllegalArgumentException("Car parameter cannot be null");
 		}
 		// Try to add car, if it fails throw an exception
-		if (!fleet.add(car)) {
+		if (!addToFleet(car)) {
 			throw new IllegalStateException("Can't add car " + car);
 		}
+		// A newly added car is not yet rented by anyone, so index it as free (cars of an unknown type are never available)
+		CarType type = car.getType();
+		if (type != null) {
+			pool(type).release(car);
+		}
 	}
 	
 	/**
 	 * This method returns the number of cars of the specified type that are available to rent.
-	 * @param typeOfCar String containing "SmallCar" or "LargeCar".
+	 * @param typeOfCar String containing the name of a registered type of car e.g. "SmallCar" or "LargeCar".
 	 * @return the number of available cars as an integer.
 	 * @throws IllegalArgumentException if a null or invalid typeOfCar parameter are supplied.
 	 */
 	public int availableCars(String typeOfCar) {
-		// Check parameters
-		if (typeOfCar == null) {
-			throw new IllegalArgumentException("typeOfCar parameter cannot be null");
-		}
-		if (!typeOfCar.equals(SMALL_CAR) && !typeOfCar.equals(LARGE_CAR)) {
-			throw new IllegalArgumentException("typeOfCar parameter must be SmallCar or LargeCar");
+		// Check parameter, CarType.of throws an exception if typeOfCar is null or invalid
+		return availableCarsOfType(CarType.of(typeOfCar));
+	}
+	
+	/**
+	 * This method returns the number of cars of the specified type that are available to rent, as availableCars does for the
+	 * name of the type, without looking the type up by name.
+	 * @param type the type of car.
+	 * @return the number of available cars as an integer.
+	 * @throws IllegalArgumentException if a null type parameter is supplied.
+	 */
+	public int availableCarsOfType(CarType type) {
+		// Check parameter
+		if (type == null) {
+			throw new IllegalArgumentException("type parameter cannot be null");
 		}
 
-		// A car is available if it exists in the fleet but not in the rentals structure
-		if (typeOfCar.equals(SMALL_CAR))
-			return (int) fleet.stream().filter(c -> c instanceof SmallCar && !rentals.containsValue(c)).count();
-
-		// Not small car, so must be large car
-		return (int) fleet.stream().filter(c -> c instanceof LargeCar && !rentals.containsValue(c)).count();
+		// A car is available if it exists in the fleet but not in the rentals structure i.e. it is in the free car index
+		return pool(type).size();
 	}
 	
 	/**
@@ -76,8 +132,20 @@ public final class RentalCompany {
 	 * @return the Set of all cars currently rented out as a HashMap.
 	 */
 	public Set<Car> getRentedCars() {
-		// Defensive copy of set of cars from rentals HashMap
-		return new HashSet<>(rentals.values());
+		// Defensive copy of set of cars from rentals registry
+		return new HashSet<>(rentals.rentedCars());
+	}
+	
+	/**
+	 * This method copies the fleet and rentals into a FleetReport, over which reporting queries are run in parallel.
+	 * The rental status, type and fuel of each car are copied together as the car is visited, so they agree with each other.
+	 * If changes are journalled they wait while the cars are copied, not while they are queried, and the copy is of a single state
+	 * of the rentals.  Otherwise changes are never blocked, so a report taken while cars are issued or returned can mix states:
+	 * it may see a rental and miss another made before it, and its counts of rented cars may match no state the company was ever in.
+	 * @return a new FleetReport of the fleet and rentals.
+	 */
+	public FleetReport report() {
+		return new FleetReport(this);
 	}
 	
 	/**
@@ -91,96 +159,165 @@ public final class RentalCompany {
 		if (person == null) {
 			throw new IllegalArgumentException("person parameter cannot be null");
 		}
-		if (!rentals.containsKey(person)) {
-			return null;
-		}
 
 		// Not a defensive copy of the car object (even if this were possible) as this car must be driveable
-		return rentals.get(person);
+		return rentals.getCar(person);
+	}
+	
+	/**
+	 * Given a car, this method returns the person currently renting it (if any).
+	 * @param car the Car object believed to be rented.
+	 * @return the person renting the car (or null) as a Person object.
+	 * @throws IllegalArgumentException if a null car parameter is supplied.
+	 */
+	public Person getRenter(Car car) {
+		// Check car parameter
+		if (car == null) {
+			throw new IllegalArgumentException("car parameter cannot be null");
+		}
+
+		// Person is immutable so defensive copying not needed
+		return rentals.getRenter(car);
 	}
 	
  	/**
 	 * This method determines whether the person is eligible to rent a car of the specified type and, if there is a car available, issues it.
 	 * @param person the Person wishing to rent a car.
 	 * @param drivingLicence the rentor's driving licence.
-	 * @param typeOfCar the type of car required as a String containing "SmallCar" or "LargeCar".
+	 * @param typeOfCar the type of car required as a String containing the name of a registered type of car e.g. "SmallCar" or "LargeCar".
 	 * @return true if a car can be issued, false otherwise as a boolean.
 	 * @throws IllegalArgumentException if any null parameter or invalid typeOfCar are supplied.
 	 */
 	public boolean issueCar(Person person, DrivingLicence drivingLicence, String typeOfCar) {
-		checkParameters(person, drivingLicence, typeOfCar);
+		CarType type = checkParameters(person, drivingLicence, typeOfCar);
 
-		if (personCannotRentCar(person, drivingLicence, typeOfCar)) return false;
+		return issue(person, drivingLicence, type, EligibilityCutoffs.current());
+	}
 
-		// There must be cars of the requested type available
-		if (this.availableCars(typeOfCar) == 0) {
-			return false;
+	/**
+	 * This method determines whether the person is eligible to rent a car of the specified type and, if there is a car available, issues it,
+	 * as issueCar does for the name of the type, without looking the type up by name.
+	 * @param person the Person wishing to rent a car.
+	 * @param drivingLicence the rentor's driving licence.
+	 * @param type the type of car required.
+	 * @return true if a car can be issued, false otherwise as a boolean.
+	 * @throws IllegalArgumentException if any null parameter is supplied.
+	 */
+	public boolean issueCarOfType(Person person, DrivingLicence drivingLicence, CarType type) {
+		checkParameters(person, drivingLicence, type);
+
+		return issue(person, drivingLicence, type, EligibilityCutoffs.current());
+	}
+
+	/**
+	 * This method issues cars for a batch of rental requests, such as a morning's pre-booked pickups, in one call.
+	 * Each request is treated exactly as issueCar would treat it, in order, but the requests are all checked before any car is issued
+	 * and the eligibility cutoff dates are looked up once for the whole batch.
+	 * @param requests the list of RentalRequest objects, each a person, their driving licence and the type of car required.
+	 * @return an array with, for each request in order, true if a car was issued, false otherwise.
+	 * @throws IllegalArgumentException if the list or any request in it is null.
+	 */
+	public boolean[] issueCars(List<RentalRequest> requests) {
+		// Check parameters, so that nothing is issued if any request is invalid
+		if (requests == null) {
+			throw new IllegalArgumentException("requests parameter cannot be null");
+		}
+		RentalRequest[] batch = requests.toArray(new RentalRequest[0]);
+		for (RentalRequest request : batch) {
+			if (request == null) {
+				throw new IllegalArgumentException("requests parameter cannot contain null");
+			}
 		}
 
-		// There is an available car, so go find it
-		Optional<Car> foundCar = Optional.empty();
-		if (typeOfCar.equals(SMALL_CAR))
-			foundCar = fleet.stream().filter(c -> c instanceof SmallCar && !rentals.containsValue(c)).findFirst();
-		if (typeOfCar.equals(LARGE_CAR))
-			foundCar = fleet.stream().filter(c -> c instanceof LargeCar && !rentals.containsValue(c)).findFirst();
+		// Each RentalRequest was validated by its Constructor, so only eligibility and availability remain to be checked
+		EligibilityCutoffs cutoffs = EligibilityCutoffs.current();
+		boolean[] issued = new boolean[batch.length];
+		for (int i=0; i<batch.length; i++) {
+			RentalRequest request = batch[i];
+			issued[i] = issue(request.getPerson(), request.getDrivingLicence(), request.getType(), cutoffs);
+		}
+		return issued;
+	}
 
-		if (foundCar.isEmpty()) return false;
-		Car car = foundCar.orElseThrow();
+	/**
+	 * Issues a car of the specified type to the person, if they are eligible and there is a car available.
+	 * @param person the Person wishing to rent a car.
+	 * @param drivingLicence the rentor's driving licence.
+	 * @param type the type of car required.
+	 * @param cutoffs the eligibility cutoff dates for today.
+	 * @return true if a car was issued, false otherwise as a boolean.
+	 */
+	private boolean issue(Person person, DrivingLicence drivingLicence, CarType type, EligibilityCutoffs cutoffs) {
+		if (personCannotRentCar(person, drivingLicence, type, cutoffs)) return false;
+
+		// There must be cars of the requested type available, if so take the next one from the pool
+		// Note: taking a car claims it, setting its rental state to true, so no other thread can be issued the same car
+		FreeCarPool pool = pool(type);
+		Car car = pool.take();
+		if (car == null) {
+			return false;
+		}
 	 
 		// Amount of fuel in Litres required to fill the car's tank
 		int fuelRequired = car.getCapacity() - car.getFuel();
 		// Ensure the car has a full tank of petrol at the start of the rental
+		// Note: the car was claimed from the pool so no other thread can see it until it is registered
 		car.fillTank(fuelRequired);	
 
 		// Associate the car with the person renting it
 		// Note: unnecessary to create a defensive copy of person as Person is immutable
-		rentals.put(person, car);
-		
-		// Set the car's rental state to true
-		car.setRental(true);
+		if (!register(person, car)) {
+			// Another thread (or an earlier request in the same batch) issued a car to this person in the meantime, so give this one back
+			car.setRental(false);
+			pool.release(car);
+			return false;
+		}
 
 		return true;
 	}
 
-	private boolean personCannotRentCar(Person person, DrivingLicence drivingLicence, String typeOfCar) {
+	private boolean personCannotRentCar(Person person, DrivingLicence drivingLicence, CarType type, EligibilityCutoffs cutoffs) {
 		// The driving licence must be full
 		if (!drivingLicence.getFull()) {
 			return true;
 		}
 
 		// The Person cannot rent more than one car at a time
-		if (rentals.containsKey(person)) {
+		if (rentals.isRenting(person)) {
 			return true;
 		}
 
-		// To rent a small car, they must be at least 20 years old
-		// To rent a large car, they must be at least 25 years old
-		Calendar cBirthCheck = Calendar.getInstance();
-		cBirthCheck.add(Calendar.YEAR, (typeOfCar.equals(SMALL_CAR) ? -20 : -25));
-		if (person.getBirthDate().compareTo(cBirthCheck.getTime()) > 0) {
+		// Dates are compared as epoch days against cutoffs that are only recomputed when the day changes
+
+		// They must be at least the minimum age for the type of car e.g. 20 years old for a small car, 25 years old for a large car
+		if (person.birthEpochDay() > cutoffs.yearsAgo(type.getMinimumAge())) {
 			return true;
 		}
 
-		// To rent a small car, they must have held their licence for at least 1 year
-		// To rent a large car, they must have held their licence for at least 5 years
-		Calendar cIssuedCheck = Calendar.getInstance();
-		cIssuedCheck.add(Calendar.YEAR, (typeOfCar.equals(SMALL_CAR) ? -1 : -5));
-		return drivingLicence.getIssued().compareTo(cIssuedCheck.getTime()) > 0;
+		// They must have held their licence for the minimum time for the type of car e.g. 1 year for a small car, 5 years for a large car
+		return drivingLicence.issuedEpochDay() > cutoffs.yearsAgo(type.getMinimumLicenceYears());
 	}
 
-	private static void checkParameters(Person person, DrivingLicence drivingLicence, String typeOfCar) {
+	static CarType checkParameters(Person person, DrivingLicence drivingLicence, String typeOfCar) {
+		checkPersonAndLicence(person, drivingLicence);
+		// CarType.of throws an exception if typeOfCar is null or invalid
+		return CarType.of(typeOfCar);
+	}
+
+	static void checkParameters(Person person, DrivingLicence drivingLicence, CarType type) {
+		checkPersonAndLicence(person, drivingLicence);
+		if (type == null) {
+			throw new IllegalArgumentException("type parameter cannot be null");
+		}
+	}
+
+	private static void checkPersonAndLicence(Person person, DrivingLicence drivingLicence) {
 		if (person == null) {
 			throw new IllegalArgumentException("person parameter cannot be null");
 		}
 		if (drivingLicence == null) {
 			throw new IllegalArgumentException("drivingLicence parameter cannot be null");
 		}
-		if (typeOfCar == null) {
-			throw new IllegalArgumentException("typeOfCar parameter cannot be null");
-		}
-		if (!typeOfCar.equals(SMALL_CAR) && !typeOfCar.equals(LARGE_CAR)) {
-			throw new IllegalArgumentException("typeOfCar parameter must be SmallCar or LargeCar");
-		}
 	}
 
 	/**
@@ -188,9 +325,16 @@ public final class RentalCompany {
 	 * If a person attempts to terminate a nonexistent contract, this method does nothing.
 	 * @param person a Person renting a car.
 	 * @return the amount of fuel in litres required to fill the car's tank, as an integer, or zero if there was no rental contract.
+	 * @throws IllegalArgumentException if a null person parameter is supplied.
 	 */
 	public int terminateRental(Person person) {
-		Car car = this.getCar(person); //getCar will throw an exception if the person is null
+		// Check person parameter
+		if (person == null) {
+			throw new IllegalArgumentException("person parameter cannot be null");
+		}
+		// The method removes the record of the rental from the company's records (disassociating the car from the person)
+		// Note: a single lookup, as the registry removes and returns the car in one operation
+		Car car = unregister(person);
 		if (car == null) {
 			// If the given person does not have a rental contract, do nothing and return zero litres of fuel to fill
 			return 0;
@@ -199,12 +343,245 @@ public final class RentalCompany {
 		// Amount of fuel in Litres required to fill the car's tank
 		int fuelRequired = car.getCapacity() - car.getFuel();
 		
-		// The method removes the record of the rental from the company's records (disassociating the car from the person)
-		rentals.remove(person);
+		release(car);
 		
+		return fuelRequired;
+	}
+
+	/**
+	 * This method terminates the rental contracts of a batch of persons, such as the end of day returns, in one call.
+	 * Each person is treated exactly as terminateRental would treat them, in order, but the persons are all checked before any rental is terminated.
+	 * @param persons the collection of Persons returning cars.
+	 * @return a FuelRefillReport of the litres of fuel required to fill the tank of each car returned, and the total litres for each type of car.
+	 * @throws IllegalArgumentException if the collection or any person in it is null.
+	 */
+	public FuelRefillReport terminateRentals(Collection<Person> persons) {
+		// Check parameters, so that nothing is terminated if any person is invalid
+		if (persons == null) {
+			throw new IllegalArgumentException("persons parameter cannot be null");
+		}
+		Person[] batch = persons.toArray(new Person[0]);
+		for (Person person : batch) {
+			if (person == null) {
+				throw new IllegalArgumentException("persons parameter cannot contain null");
+			}
+		}
+
+		FuelRefillReport report = new FuelRefillReport(batch);
+		for (int i=0; i<batch.length; i++) {
+			// Persons with no rental contract are left at zero litres in the report
+			Car car = unregister(batch[i]);
+			if (car != null) {
+				report.record(i, car.getType(), car.getCapacity() - car.getFuel());
+				release(car);
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * Adds a car to the fleet set, recording it in the journal if there is one.
+	 * @param car the Car to add.
+	 * @return true if the car was added, false if it or another car with the same Registration Number was already in the fleet.
+	 */
+	private boolean addToFleet(Car car) {
+		if (journal == null) {
+			return putFree(car);
+		}
+		try {
+			synchronized (journal) {
+				if (!putFree(car)) {
+					return false;
+				}
+				try {
+					journal.carAdded(car);
+				} catch (RuntimeException e) {
+					// The change was not recorded, so undo it
+					fleet.remove(car.getRegistrationNumber(), car);
+					throw e;
+				}
+				return true;
+			}
+		} finally {
+			// A completed group of records is forced to disk once the journal's lock has been released
+			journal.commit();
+		}
+	}
+
+	/**
+	 * Puts a car that is not rented into the fleet set.
+	 * @param car the Car to put.
+	 * @return true if the car was put, false if it or another car with the same Registration Number was already in the fleet.
+	 * @throws IllegalArgumentException if the car is rented.
+	 */
+	private boolean putFree(Car car) {
+		// A rented car in the free pool would be counted as available but could never be claimed
+		// (a car with the default isRented of Car cannot be checked, and is treated as not rented)
+		if (car.isRented()) {
+			// A car already in the fleet, which may be rented from it, is not added again rather than rejected
+			if (fleet.containsKey(car.getRegistrationNumber())) {
+				return false;
+			}
+			throw new IllegalArgumentException("Car parameter cannot be rented");
+		}
+		return fleet.putIfAbsent(car.getRegistrationNumber(), car) == null;
+	}
+
+	/**
+	 * Associates a claimed car with the person renting it, recording the rental in the journal if there is one.
+	 * @param person the Person renting the car.
+	 * @param car the Car, already claimed from its pool.
+	 * @return true if the rental was registered, false if the person is already renting a car.
+	 */
+	private boolean register(Person person, Car car) {
+		if (journal == null) {
+			return rentals.put(person, car);
+		}
+		try {
+			synchronized (journal) {
+				if (!rentals.put(person, car)) {
+					return false;
+				}
+				try {
+					journal.carIssued(person, car);
+				} catch (RuntimeException e) {
+					// The rental was not recorded, so undo it and give the car back
+					rentals.remove(person);
+					release(car);
+					throw e;
+				}
+				return true;
+			}
+		} finally {
+			// A completed group of records is forced to disk once the journal's lock has been released
+			journal.commit();
+		}
+	}
+
+	/**
+	 * Removes the rental of the given person, recording its termination in the journal if there is one.
+	 * The car returned is still marked as rented and must be released once the fuel required has been read from it.
+	 * @param person the Person whose rental is terminated.
+	 * @return the Car the person was renting, or null if they had no rental contract.
+	 */
+	private Car unregister(Person person) {
+		if (journal == null) {
+			return rentals.remove(person);
+		}
+		try {
+			synchronized (journal) {
+				Car car = rentals.remove(person);
+				if (car != null) {
+					try {
+						journal.rentalTerminated(car);
+					} catch (RuntimeException e) {
+						// The termination was not recorded, so undo it
+						rentals.put(person, car);
+						throw e;
+					}
+				}
+				return car;
+			}
+		} finally {
+			// A completed group of records is forced to disk once the journal's lock has been released
+			journal.commit();
+		}
+	}
+
+	/**
+	 * Restores the fleet and rentals of a new RentalCompany, as read from a RentalJournal, without journalling them again.
+	 * @param cars the cars in the fleet, in the order they were added.
+	 * @param renters the person renting each rented car.
+	 */
+	void restore(Collection<Car> cars, Map<Car, Person> renters) {
+		for (Car car : cars) {
+			restore(car, renters.get(car));
+		}
+	}
+
+	/**
+	 * Restores one car of the fleet of a new RentalCompany, and its rental if it is rented, without journalling them again.
+	 * @param car a car of a known type.
+	 * @param renter the person renting the car, or null if it is not rented.
+	 * @throws IllegalStateException if a car with the same Registration Number is already in the fleet, or the renter is already renting another car.
+	 */
+	void restore(Car car, Person renter) {
+		if (fleet.putIfAbsent(car.getRegistrationNumber(), car) != null) {
+			throw new IllegalStateException("Car " + car.getRegistrationNumber() + " is already in the fleet");
+		}
+		if (renter != null && !rentals.put(renter, car)) {
+			fleet.remove(car.getRegistrationNumber(), car);
+			throw new IllegalStateException("Person " + renter + " is renting more than one car");
+		}
+		car.setRental(renter != null);
+		if (renter == null) {
+			pool(car.getType()).release(car);
+		}
+	}
+
+	/**
+	 * Calls the given action for every car in the fleet, with the person renting it or null if it is not rented.
+	 * If changes are journalled, no change can be made until every car has been visited, so the cars and rentals are consistent;
+	 * otherwise changes made at the same time may or may not be seen.
+	 * @param action the action to call for each car.
+	 */
+	void forEachCar(BiConsumer<Car, Person> action) {
+		if (journal == null) {
+			for (Car car : fleet.values()) {
+				action.accept(car, rentals.getRenter(car));
+			}
+			return;
+		}
+		synchronized (journal) {
+			for (Car car : fleet.values()) {
+				action.accept(car, rentals.getRenter(car));
+			}
+		}
+	}
+
+	/**
+	 * Makes a car whose rental has been removed from the registry free to be rented again.
+	 * Fuel required must be read from the car before it is released, as another thread may issue and refuel it as soon as it is.
+	 * @param car the returned Car.
+	 */
+	private void release(Car car) {
 		// Set the car's rental state to false
 		car.setRental(false);
 		
-		return fuelRequired;
+		// The car is free to be rented again
+		pool(car.getType()).release(car);
+	}
+
+	/**
+	 * Returns the pool of free cars of the given type.
+	 * @param type the type of car.
+	 * @return the pool, created if the type was registered since the pools were last extended.
+	 */
+	private FreeCarPool pool(CarType type) {
+		FreeCarPool[] pools = freeCars;
+		int ordinal = type.ordinal();
+		if (ordinal < pools.length) {
+			return pools[ordinal];
+		}
+		synchronized (this) {
+			if (ordinal >= freeCars.length) {
+				freeCars = pools(freeCars, CarType.count());
+			}
+			return freeCars[ordinal];
+		}
+	}
+
+	/**
+	 * Returns a copy of the given pools extended with new, empty pools.
+	 * @param pools the existing pools.
+	 * @param count the number of pools required.
+	 * @return the extended pools.
+	 */
+	private static FreeCarPool[] pools(FreeCarPool[] pools, int count) {
+		FreeCarPool[] extended = Arrays.copyOf(pools, count);
+		for (int i=pools.length; i<count; i++) {
+			extended[i] = new FreeCarPool();
+		}
+		return extended;
 	}
 }
@@ -0,0 +1,448 @@
+package uk.ac.ncl.rental;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * RentalCsv class.  Streams fleet and customer files in the comma separated formats of the toString methods, one row per line:<ul>
+ * <li>Fleet rows are the string representation of a car i.e. [type of car],[registration number],[fuel]</li>
+ * <li>Customer rows are the string representation of a Person i.e. [Firstname Lastname],[dd/MM/yyyy]</li>
+ * <li>Licence rows are the string representation of a DrivingLicence i.e. [initials]-[year]-[serialnum],[dd/MM/yyyy],[true|false]</li>
+ * </ul>
+ * Files are read and written through NIO channels a chunk at a time, so memory use does not depend on the size of the file.
+ * Rows are parsed in place in the bytes read, without splitting or decoding each line.  Rows may optionally be parsed and constructed
+ * in parallel, a chunk of lines per task, with a bounded number of chunks in memory at once.
+ * Licence rows can only be written, as the serial number of a licence is generated when it is constructed.
+ * Note that customer rows hold only the day of birth, so a Person is imported as born at the start of that day in the system default
+ * time zone, and equals the Person exported only if they were born then; RentalJournal and RentalSnapshot save the instant of birth.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+public final class RentalCsv {
+
+	/**
+	 * Size of each chunk of a file read or written.  No line may be longer than this.
+	 */
+	private static final int CHUNK_BYTES = 1024 * 1024;
+
+	/**
+	 * Private Constructor, as RentalCsv has only static methods.
+	 */
+	private RentalCsv() {
+	}
+
+	/**
+	 * Adds the cars in a fleet file to a RentalCompany, each with the fuel given in its row.
+	 * If a row is invalid, the cars in the rows before it (or, when parsing in parallel, in some of the other rows, including rows after it
+	 * in other chunks of the file) will have been added, but no car is added once this method has returned or thrown.
+	 * @param path the path of the fleet file.
+	 * @param rentCo the RentalCompany to add the cars to.
+	 * @param parallel true to parse and construct rows in parallel, false to process them in order on the calling thread.
+	 * @return the number of cars added.
+	 * @throws IllegalArgumentException if either the path or rentCo parameter is null.
+	 * @throws IOException if the file cannot be read or contains an invalid row, including one whose registration number is already in use.
+	 */
+	public static int importFleet(Path path, RentalCompany rentCo, boolean parallel) throws IOException {
+		// Check parameters
+		if (path == null) {
+			throw new IllegalArgumentException("path parameter cannot be null");
+		}
+		if (rentCo == null) {
+			throw new IllegalArgumentException("rentCo parameter cannot be null");
+		}
+		AtomicInteger count = new AtomicInteger();
+		read(path, parallel, row -> {
+			rentCo.addCar(parseCar(row));
+			count.incrementAndGet();
+		});
+		return count.get();
+	}
+
+	/**
+	 * Reads the persons in a customer file, passing each to the given action.
+	 * If a row is invalid, the persons in the rows before it (or, when parsing in parallel, in some of the other rows, including rows after it
+	 * in other chunks of the file) will have been passed to the action, but no person is passed to it once this method has returned or thrown.
+	 * @param path the path of the customer file.
+	 * @param action the action to take for each person, which must be thread-safe if rows are parsed in parallel.
+	 * @param parallel true to parse and construct rows in parallel, in no particular order, false to process them in order on the calling thread.
+	 * @return the number of persons read.
+	 * @throws IllegalArgumentException if either the path or action parameter is null.
+	 * @throws IOException if the file cannot be read or contains an invalid row.
+	 */
+	public static int importPersons(Path path, Consumer<? super Person> action, boolean parallel) throws IOException {
+		// Check parameters
+		if (path == null) {
+			throw new IllegalArgumentException("path parameter cannot be null");
+		}
+		if (action == null) {
+			throw new IllegalArgumentException("action parameter cannot be null");
+		}
+		AtomicInteger count = new AtomicInteger();
+		read(path, parallel, row -> {
+			action.accept(parsePerson(row));
+			count.incrementAndGet();
+		});
+		return count.get();
+	}
+
+	/**
+	 * Writes the fleet of a RentalCompany to a fleet file, replacing any file already there.
+	 * @param rentCo the RentalCompany.
+	 * @param path the path of the fleet file.
+	 * @throws IllegalArgumentException if either parameter is null.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void exportFleet(RentalCompany rentCo, Path path) throws IOException {
+		// Check parameters
+		if (rentCo == null) {
+			throw new IllegalArgumentException("rentCo parameter cannot be null");
+		}
+		if (path == null) {
+			throw new IllegalArgumentException("path parameter cannot be null");
+		}
+		// Take the cars first, so that the company is locked, if at all, only while they are copied
+		List<Car> cars = new ArrayList<>();
+		rentCo.forEachCar((car, renter) -> cars.add(car));
+		write(cars, path);
+	}
+
+	/**
+	 * Writes persons to a customer file, replacing any file already there.
+	 * @param persons the persons.
+	 * @param path the path of the customer file.
+	 * @throws IllegalArgumentException if either parameter is null, or any person is null.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void exportPersons(Iterable<Person> persons, Path path) throws IOException {
+		// Check parameters
+		if (persons == null) {
+			throw new IllegalArgumentException("persons parameter cannot be null");
+		}
+		if (path == null) {
+			throw new IllegalArgumentException("path parameter cannot be null");
+		}
+		write(persons, path);
+	}
+
+	/**
+	 * Writes driving licences to a licence file, replacing any file already there.
+	 * @param licences the driving licences.
+	 * @param path the path of the licence file.
+	 * @throws IllegalArgumentException if either parameter is null, or any licence is null.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void exportLicences(Iterable<DrivingLicence> licences, Path path) throws IOException {
+		// Check parameters
+		if (licences == null) {
+			throw new IllegalArgumentException("licences parameter cannot be null");
+		}
+		if (path == null) {
+			throw new IllegalArgumentException("path parameter cannot be null");
+		}
+		write(licences, path);
+	}
+
+	/**
+	 * Parses a fleet row and constructs the car, registering its registration number.
+	 * @param row the row in the format [type of car],[registration number],[fuel], where fuel may be negative.
+	 * @return the car, with the given fuel in its tank.
+	 * @throws IllegalArgumentException if the row cannot be parsed.
+	 * @throws IllegalStateException if the registration number is already in use.
+	 */
+	static Car parseCar(AsciiSequence row) {
+		int comma1 = row.indexOf(',', 0);
+		int comma2 = comma1 < 0 ? -1 : row.indexOf(',', comma1 + 1);
+		if (comma2 < 0 || row.indexOf(',', comma2 + 1) >= 0) {
+			throw new IllegalArgumentException("There must be three fields separated by comma");
+		}
+		CarType type = CarType.find(row, 0, comma1);
+		if (type == null) {
+			throw new IllegalArgumentException("Type of car must be a registered type of car e.g. SmallCar or LargeCar");
+		}
+		// Fuel is negative if the car was driven further than its tank allowed, as exported by exportFleet
+		boolean negative = comma2 + 1 < row.length() && row.charAt(comma2 + 1) == '-';
+		int fuel = parseInt(row, comma2 + (negative ? 2 : 1), row.length());
+		if (negative) {
+			fuel = -fuel;
+		}
+		if (fuel > type.getCapacity()) {
+			throw new IllegalArgumentException("Fuel cannot exceed the capacity of the tank");
+		}
+		// Check everything else before registering the registration number, which cannot be undone
+		RegistrationNumber rn = RegistrationNumber.parse(row.subSequence(comma1 + 1, comma2));
+		AbstractCar car = type.newCar(rn);
+		// A new car has an empty tank
+		car.consumeFuel(-fuel);
+		return car;
+	}
+
+	/**
+	 * Parses a customer row and constructs the person.
+	 * @param row the row in the format [Firstname Lastname],[dd/MM/yyyy].
+	 * @return the person.
+	 * @throws IllegalArgumentException if the row cannot be parsed.
+	 */
+	static Person parsePerson(AsciiSequence row) {
+		int comma = row.indexOf(',', 0);
+		if (comma < 0 || row.indexOf(',', comma + 1) >= 0) {
+			throw new IllegalArgumentException("There must be two fields separated by comma");
+		}
+		int d = comma + 1;
+		if (row.length() - d != 10 || row.charAt(d + 2) != '/' || row.charAt(d + 5) != '/') {
+			throw new IllegalArgumentException("Date of birth must be in the format dd/MM/yyyy");
+		}
+		LocalDate birth;
+		try {
+			birth = LocalDate.of(parseInt(row, d + 6, d + 10), parseInt(row, d + 3, d + 5), parseInt(row, d, d + 2));
+		} catch (DateTimeException e) {
+			throw new IllegalArgumentException("Date of birth is not a valid date", e);
+		}
+		return Person.of(Name.parse(row.subSequence(0, comma)), birth);
+	}
+
+	/**
+	 * Parses a range of characters as an unsigned decimal integer.
+	 * @param cs the characters.
+	 * @param from index of the first character of the range.
+	 * @param to index after the last character of the range.
+	 * @return the integer.
+	 * @throws IllegalArgumentException if the range is not one to nine decimal digits.
+	 */
+	private static int parseInt(CharSequence cs, int from, int to) {
+		// At most 9 digits, so the value cannot overflow
+		if (from == to || to - from > 9) {
+			throw new IllegalArgumentException("Number must be one to nine digits");
+		}
+		int value = 0;
+		for (int i=from; i<to; i++) {
+			char c = cs.charAt(i);
+			if (c < '0' || c > '9') {
+				throw new IllegalArgumentException("Number must be one to nine digits");
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	/**
+	 * Row class.  An action taken for each row of a file.
+	 */
+	@FunctionalInterface
+	private interface Row {
+
+		/**
+		 * Takes the action for a row.
+		 * @param row the row, which is only valid until the action returns.
+		 */
+		void accept(AsciiSequence row);
+	}
+
+	/**
+	 * Reads a file a chunk at a time, taking an action for each non-empty row.  A carriage return at the end of a row is ignored.
+	 * When chunks are processed in parallel and one fails, or the file cannot be read, the chunks not yet started are cancelled, those
+	 * being processed stop at the next row, and this method waits for them to stop before it throws, so no action is taken after it returns.
+	 * @param path the path of the file.
+	 * @param parallel true to process chunks in parallel, false to process them in order on the calling thread.
+	 * @param action the action for each row.
+	 * @throws IOException if the file cannot be read, a line is too long, or the action throws an IllegalArgumentException or IllegalStateException.
+	 */
+	private static void read(Path path, boolean parallel, Row action) throws IOException {
+		int threads = parallel ? Runtime.getRuntime().availableProcessors() : 0;
+		ExecutorService executor = threads > 0 ? Executors.newFixedThreadPool(threads) : null;
+		// Chunks being processed, oldest first, at most two per thread so that memory is bounded
+		Deque<Future<?>> pending = new ArrayDeque<>();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES);
+			byte[] bytes = buffer.array();
+			long line = 1;
+			boolean eof = false;
+			while (!eof) {
+				eof = channel.read(buffer) < 0;
+				int filled = buffer.position();
+				// The chunk ends after the last complete line, unless this is the end of the file
+				int end = filled;
+				if (!eof) {
+					while (end > 0 && bytes[end - 1] != '\n') {
+						end--;
+					}
+					if (end == 0) {
+						if (filled == bytes.length) {
+							throw new IOException("Line " + line + " is longer than " + CHUNK_BYTES + " bytes");
+						}
+						continue;
+					}
+				}
+				if (executor == null) {
+					rows(bytes, end, line, action);
+				} else {
+					byte[] chunk = Arrays.copyOf(bytes, end);
+					long firstLine = line;
+					if (pending.size() >= 2 * threads) {
+						await(pending.removeFirst());
+					}
+					pending.addLast(executor.submit(() -> {
+						rows(chunk, chunk.length, firstLine, row -> {
+							// A chunk is interrupted when another chunk fails, so it stops at the next row
+							if (Thread.currentThread().isInterrupted()) {
+								throw new CancellationException();
+							}
+							action.accept(row);
+						});
+						return null;
+					}));
+				}
+				for (int i=0; i<end; i++) {
+					if (bytes[i] == '\n') {
+						line++;
+					}
+				}
+				// Move the incomplete last line to the start of the buffer
+				System.arraycopy(bytes, end, bytes, 0, filled - end);
+				buffer.position(filled - end);
+			}
+			while (!pending.isEmpty()) {
+				await(pending.removeFirst());
+			}
+		} finally {
+			if (executor != null) {
+				// Pending is empty unless a chunk failed or the file could not be read
+				for (Future<?> future : pending) {
+					future.cancel(true);
+				}
+				executor.shutdownNow();
+				awaitTermination(executor);
+			}
+		}
+	}
+
+	/**
+	 * Waits until every chunk being processed has stopped, even if the calling thread is interrupted meanwhile.
+	 * @param executor the executor processing the chunks, which has been shut down.
+	 */
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+					break;
+				}
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits for a chunk to be processed.
+	 * @param future the result of processing the chunk.
+	 * @throws IOException if the chunk contained an invalid row.
+	 */
+	private static void await(Future<?> future) throws IOException {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Takes an action for each non-empty row in a chunk of whole lines.
+	 * @param bytes the chunk.
+	 * @param end index after the last byte of the chunk.
+	 * @param line the line number of the first line in the chunk.
+	 * @param action the action for each row.
+	 * @throws IOException if the action throws an IllegalArgumentException or IllegalStateException.
+	 */
+	private static void rows(byte[] bytes, int end, long line, Row action) throws IOException {
+		AsciiSequence row = new AsciiSequence();
+		int start = 0;
+		while (start < end) {
+			int next = start;
+			while (next < end && bytes[next] != '\n') {
+				next++;
+			}
+			int to = next > start && bytes[next - 1] == '\r' ? next - 1 : next;
+			if (to > start) {
+				try {
+					action.accept(row.set(bytes, start, to));
+				} catch (IllegalArgumentException | IllegalStateException e) {
+					throw new IOException("Invalid row at line " + line + ": " + e.getMessage(), e);
+				}
+			}
+			line++;
+			start = next + 1;
+		}
+	}
+
+	/**
+	 * Writes the string representation of each object as a line of a file, replacing any file already there.
+	 * The string representations are all ASCII, so each character is written as a single byte.
+	 * @param rows the objects to write.
+	 * @param path the path of the file.
+	 * @throws IllegalArgumentException if any object is null.
+	 * @throws IOException if the file cannot be written.
+	 */
+	private static void write(Iterable<?> rows, Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_BYTES);
+			for (Object row : rows) {
+				if (row == null) {
+					throw new IllegalArgumentException("Rows cannot be null");
+				}
+				String s = row.toString();
+				if (buffer.remaining() < s.length() + 1) {
+					drain(buffer, channel);
+					if (buffer.remaining() < s.length() + 1) {
+						throw new IOException("Row is longer than " + CHUNK_BYTES + " bytes");
+					}
+				}
+				for (int i=0; i<s.length(); i++) {
+					buffer.put((byte) s.charAt(i));
+				}
+				buffer.put((byte) '\n');
+			}
+			drain(buffer, channel);
+		}
+	}
+
+	/**
+	 * Writes the contents of a buffer to a channel and clears the buffer.
+	 * @param buffer the buffer.
+	 * @param channel the channel.
+	 * @throws IOException if the contents cannot be written.
+	 */
+	private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
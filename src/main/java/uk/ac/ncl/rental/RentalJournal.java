@@ -0,0 +1,754 @@
+package uk.ac.ncl.rental;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * RentalJournal class.  An append-only journal of the events that change a RentalCompany - cars added, cars issued and rentals terminated -
+ * from which the RentalCompany can be rebuilt when the application restarts.
+ * Events are written as compact binary records to a buffer, which is written to the file when it fills and when the journal is synced or closed.
+ * The file is forced to disk by sync, by close, and optionally after every given number of records (group commit).
+ * A group commit writes the group's records to the file while the journal is locked, but forces the file to disk only after the lock
+ * has been released, so recording other events is never blocked by the force; one force makes every group written before it durable.
+ * A partly written record at the end of the journal, left by a crash, is ignored when the journal is replayed and overwritten when it is recovered.
+ * Typical use is:<pre>
+ * try (RentalJournal journal = RentalJournal.open(path, 256)) {
+ *     RentalCompany rentCo = journal.recover();
+ *     ...
+ * }</pre>
+ * Note that only the events of RentalCompany are journalled, so fuel used by driving a car during a rental is not restored, and
+ * cars with no CarType, which can never be rented, are not restored.  Nor is the fuel a car holds when it is added to the fleet:
+ * a car is restored with an empty tank until the replay reaches its first rental, which fills it.
+ * Views of the cars of a ColumnarFleet or OffHeapFleet are restored as SmallCar, LargeCar and TypedCar objects.
+ * Cars of a type registered with CarType.register are journalled with the name of their type, which must be registered again
+ * before the journal is replayed.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+public final class RentalJournal implements Closeable {
+
+	/**
+	 * Magic number at the start of every journal file, "RJNL" in ASCII.
+	 */
+	private static final int MAGIC = 0x524A4E4C;
+
+	/**
+	 * Version of the record format.  Version 1, whose ISSUE records held only the day of birth of the person, is not replayed.
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * Length in bytes of the file header i.e. magic number and version.
+	 */
+	private static final int HEADER_BYTES = 8;
+
+	/**
+	 * Record type of a SmallCar added to the fleet: type, packed Registration Number.
+	 */
+	private static final byte ADD_SMALL_CAR = 1;
+
+	/**
+	 * Record type of a LargeCar added to the fleet: type, packed Registration Number.
+	 */
+	private static final byte ADD_LARGE_CAR = 2;
+
+	/**
+	 * Record type of a car issued to a person: type, packed Registration Number, person encoded by PersonCodec.
+	 */
+	private static final byte ISSUE = 3;
+
+	/**
+	 * Record type of a rental terminated: type, packed Registration Number, fuel in the tank when the car was returned.
+	 */
+	private static final byte TERMINATE = 4;
+
+	/**
+	 * Record type of a car of any other registered type added to the fleet:
+	 * type, packed Registration Number, length of the name of the type of car as an unsigned byte, name of the type of car in ASCII.
+	 */
+	private static final byte ADD_TYPED_CAR = 5;
+
+	/**
+	 * Length in bytes of the records of each fixed length type, and of the fixed length part of an ISSUE record.
+	 */
+	private static final int ADD_BYTES = 5, TERMINATE_BYTES = 9, ISSUE_BYTES = 5 + PersonCodec.FIXED_BYTES;
+
+	/**
+	 * Size of the write and read buffers, which must exceed the length of the longest record.
+	 */
+	private static final int BUFFER_BYTES = 256 * 1024;
+
+	/**
+	 * File channel of the journal.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Buffer of records not yet written to the file.
+	 */
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+	/**
+	 * Number of records after which the file is forced to disk, or zero to force it only on sync and close.
+	 */
+	private final int groupCommit;
+
+	/**
+	 * Number of records appended since the file was last forced to disk.
+	 */
+	private int unsynced;
+
+	/**
+	 * The failure of the last group commit since the last successful sync, or null.
+	 */
+	private IOException syncFailure;
+
+	/**
+	 * Whether a group of records has been written to the file but not yet forced to disk by commit.
+	 */
+	private volatile boolean commitDue;
+
+	/**
+	 * Lock held while commit forces the file to disk, so that one thread forces it at a time, without holding the journal's lock.
+	 */
+	private final Object forceLock = new Object();
+
+	/**
+	 * The RentalCompany recovered from this journal, to which events are appended, or null if the journal has not yet been recovered.
+	 */
+	private RentalCompany company;
+
+	/**
+	 * Constructs a RentalJournal on an open file channel.
+	 * @param channel the file channel of the journal.
+	 * @param groupCommit number of records after which the file is forced to disk, or zero.
+	 */
+	private RentalJournal(FileChannel channel, int groupCommit) {
+		this.channel = channel;
+		this.groupCommit = groupCommit;
+	}
+
+	/**
+	 * Opens the journal at the given path, creating it if it does not exist.  The file is forced to disk only on sync and close.
+	 * @param path the path of the journal file.
+	 * @return the RentalJournal, which must be recovered before use.
+	 * @throws IOException if the file cannot be opened or is not a journal.
+	 */
+	public static RentalJournal open(Path path) throws IOException {
+		return open(path, 0);
+	}
+
+	/**
+	 * Opens the journal at the given path, creating it if it does not exist.
+	 * @param path the path of the journal file.
+	 * @param groupCommit the number of records after which the file is forced to disk, or zero to force it only on sync and close.
+	 * @return the RentalJournal, which must be recovered before use.
+	 * @throws IllegalArgumentException if the path is null or groupCommit is negative.
+	 * @throws IOException if the file cannot be opened or is not a journal.
+	 */
+	public static RentalJournal open(Path path, int groupCommit) throws IOException {
+		// Check parameters
+		if (path == null) {
+			throw new IllegalArgumentException("path parameter cannot be null");
+		}
+		if (groupCommit < 0) {
+			throw new IllegalArgumentException("groupCommit parameter cannot be negative");
+		}
+		return open(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE), groupCommit);
+	}
+
+	/**
+	 * Opens the journal on an open file channel, writing a header if the file does not yet have one.
+	 * The channel is closed if the journal cannot be opened.
+	 * @param channel the file channel of the journal, open for reading and writing.
+	 * @param groupCommit the number of records after which the file is forced to disk, or zero to force it only on sync and close.
+	 * @return the RentalJournal, which must be recovered before use.
+	 * @throws IOException if the file cannot be read or written or is not a journal.
+	 */
+	static RentalJournal open(FileChannel channel, int groupCommit) throws IOException {
+		try {
+			if (!readHeader(channel)) {
+				// A new journal, or one whose header was never completely written
+				ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+				header.flip();
+				channel.truncate(0);
+				while (header.hasRemaining()) {
+					channel.write(header, header.position());
+				}
+				channel.force(true);
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		return new RentalJournal(channel, groupCommit);
+	}
+
+	/**
+	 * Rebuilds a RentalCompany from the journal at the given path, without changing the file.
+	 * The RentalCompany returned does not journal its own events.
+	 * @param path the path of the journal file.
+	 * @return a new RentalCompany with the fleet and rentals recorded in the journal.
+	 * @throws IllegalArgumentException if the path is null.
+	 * @throws IOException if the file cannot be read or is not a valid journal.
+	 */
+	public static RentalCompany replay(Path path) throws IOException {
+		// Check parameter
+		if (path == null) {
+			throw new IllegalArgumentException("path parameter cannot be null");
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			RentalCompany rentCo = new RentalCompany();
+			if (readHeader(channel)) {
+				read(channel).restore(rentCo);
+			}
+			return rentCo;
+		}
+	}
+
+	/**
+	 * Rebuilds a RentalCompany from this journal, which then records every event of the RentalCompany.
+	 * A partly written record at the end of the journal is discarded.
+	 * @return a new RentalCompany with the fleet and rentals recorded in the journal.
+	 * @throws IllegalStateException if this journal has already been recovered.
+	 * @throws IOException if the file cannot be read or is not a valid journal.
+	 */
+	public synchronized RentalCompany recover() throws IOException {
+		if (company != null) {
+			throw new IllegalStateException("Journal has already been recovered");
+		}
+		Replay replay = read(channel);
+		// Discard any partly written record so that new records follow on from the last complete one
+		channel.truncate(replay.end);
+		channel.position(replay.end);
+		company = new RentalCompany(this);
+		replay.restore(company);
+		return company;
+	}
+
+	/**
+	 * Records that a car has been added to the fleet.
+	 * @param car the Car added.
+	 * @throws UncheckedIOException if the record cannot be written.
+	 */
+	synchronized void carAdded(Car car) {
+		CarType type = car.getType();
+		if (type == null) {
+			// Cars with no type can never be rented, so they are not journalled
+			return;
+		}
+		int packed = car.getRegistrationNumber().getPackedValue();
+		if (type == CarType.SMALL_CAR || type == CarType.LARGE_CAR) {
+			int start = reserve(ADD_BYTES);
+			try {
+				buffer.put(type == CarType.SMALL_CAR ? ADD_SMALL_CAR : ADD_LARGE_CAR).putInt(packed);
+			} catch (RuntimeException e) {
+				throw discard(start, e);
+			}
+		} else {
+			// Names of types of car are ASCII letters and digits, so one byte per character
+			String name = type.getName();
+			int start = reserve(ADD_BYTES + 1 + name.length());
+			try {
+				buffer.put(ADD_TYPED_CAR).putInt(packed).put((byte) name.length());
+				for (int i=0; i<name.length(); i++) {
+					buffer.put((byte) name.charAt(i));
+				}
+			} catch (RuntimeException e) {
+				throw discard(start, e);
+			}
+		}
+		appended();
+	}
+
+	/**
+	 * Records that a car has been issued to a person.
+	 * @param person the Person renting the car.
+	 * @param car the Car issued.
+	 * @throws IllegalArgumentException if either of the person's names is too long to be journalled.
+	 * @throws UncheckedIOException if the record cannot be written.
+	 */
+	synchronized void carIssued(Person person, Car car) {
+		int start = reserve(5 + PersonCodec.length(person));
+		try {
+			buffer.put(ISSUE).putInt(car.getRegistrationNumber().getPackedValue());
+			PersonCodec.write(buffer, person);
+		} catch (RuntimeException e) {
+			throw discard(start, e);
+		}
+		appended();
+	}
+
+	/**
+	 * Records that the rental of a car has been terminated.
+	 * @param car the Car returned.
+	 * @throws UncheckedIOException if the record cannot be written.
+	 */
+	synchronized void rentalTerminated(Car car) {
+		int start = reserve(TERMINATE_BYTES);
+		try {
+			buffer.put(TERMINATE).putInt(car.getRegistrationNumber().getPackedValue()).putInt(car.getFuel());
+		} catch (RuntimeException e) {
+			throw discard(start, e);
+		}
+		appended();
+	}
+
+	/**
+	 * Writes all buffered records to the file and forces the file to disk, so that every event recorded so far survives a crash.
+	 * If a group commit has failed since the last successful sync, its failure is attached to the exception thrown, as suppressed.
+	 * @throws IOException if the records cannot be written.
+	 */
+	public synchronized void sync() throws IOException {
+		try {
+			flush();
+			channel.force(false);
+		} catch (IOException e) {
+			if (syncFailure != null && syncFailure != e) {
+				e.addSuppressed(syncFailure);
+			}
+			throw e;
+		}
+		unsynced = 0;
+		syncFailure = null;
+		commitDue = false;
+	}
+
+	/**
+	 * Forces the file to disk if a group of records has been written since it was last forced.
+	 * Called by a journalled RentalCompany after recording an event, once it has released the journal's lock, so that recording
+	 * other events is not blocked while the file is forced.  A failure is reported by sync and close, and the force is tried
+	 * again after the next event.
+	 */
+	void commit() {
+		if (!commitDue) {
+			return;
+		}
+		synchronized (forceLock) {
+			synchronized (this) {
+				if (!commitDue || !channel.isOpen()) {
+					return;
+				}
+				commitDue = false;
+			}
+			try {
+				channel.force(false);
+			} catch (IOException e) {
+				synchronized (this) {
+					// Committed but not yet durable
+					syncFailure = e;
+					commitDue = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Syncs and closes this journal.  A RentalCompany recovered from this journal cannot record any further events.
+	 * @throws IOException if the records cannot be written.
+	 */
+	@Override public synchronized void close() throws IOException {
+		if (channel.isOpen()) {
+			try {
+				sync();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+
+	/**
+	 * Ensures there is room in the buffer for a record, writing the buffered records to the file if there is not.
+	 * Nothing of the record has been buffered if this fails, so the event it records can safely be undone.
+	 * @param bytes length of the record in bytes.
+	 * @return the position in the buffer at which the record starts.
+	 * @throws IllegalStateException if this journal has not been recovered.
+	 * @throws UncheckedIOException if the buffered records cannot be written.
+	 */
+	private int reserve(int bytes) {
+		if (company == null) {
+			throw new IllegalStateException("Journal has not been recovered");
+		}
+		if (buffer.remaining() < bytes) {
+			try {
+				flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return buffer.position();
+	}
+
+	/**
+	 * Discards a record that could not be completely buffered, so that the event it records can be undone.
+	 * @param start the position in the buffer at which the record starts.
+	 * @param e the failure.
+	 * @return the failure, to be rethrown.
+	 */
+	private RuntimeException discard(int start, RuntimeException e) {
+		buffer.position(start);
+		return e;
+	}
+
+	/**
+	 * Counts a record appended to the buffer, writing the buffered records to the file if a group of records is complete,
+	 * to be forced to disk by commit once the journal's lock has been released.
+	 * Once buffered the record is committed, and its event is not undone, even if the group commit fails: the records stay
+	 * buffered, the group commit is tried again with the next record, and the failure is reported by sync and close if they also fail.
+	 */
+	private void appended() {
+		if (groupCommit > 0 && ++unsynced >= groupCommit) {
+			try {
+				flush();
+			} catch (IOException e) {
+				// Committed but not yet durable
+				syncFailure = e;
+				return;
+			}
+			unsynced = 0;
+			commitDue = true;
+		}
+	}
+
+	/**
+	 * Writes the buffered records to the end of the file.
+	 * @throws IOException if the records cannot be written.
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} finally {
+			// Any records that could not be written stay in the buffer
+			buffer.compact();
+		}
+	}
+
+	/**
+	 * Reads and checks the header of a journal file.
+	 * @param channel the file channel of the journal.
+	 * @return true if the file has a valid header, false if it is too short to have a header at all.
+	 * @throws IOException if the file cannot be read or the header is not that of a journal.
+	 */
+	private static boolean readHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+			// Keep reading until the header is complete or the end of the file is reached
+		}
+		if (header.hasRemaining()) {
+			return false;
+		}
+		if (header.getInt(0) != MAGIC) {
+			throw new IOException("Not a rental journal");
+		}
+		if (header.getInt(4) != VERSION) {
+			throw new IOException("Unsupported rental journal version " + header.getInt(4));
+		}
+		return true;
+	}
+
+	/**
+	 * Reads all the complete records of a journal file, after its header, in sequence.
+	 * @param channel the file channel of the journal.
+	 * @return the fleet and rentals recorded in the journal.
+	 * @throws IOException if the file cannot be read or contains an invalid record.
+	 */
+	private static Replay read(FileChannel channel) throws IOException {
+		Replay replay = new Replay();
+		ByteBuffer chunk = ByteBuffer.allocateDirect(BUFFER_BYTES);
+		// File position of the start of the chunk
+		long base = HEADER_BYTES;
+		boolean eof = false;
+		while (!eof) {
+			// The chunk holds any incomplete record left over from the last read, so read the rest of the file after it
+			eof = channel.read(chunk, base + chunk.position()) < 0;
+			chunk.flip();
+			int length;
+			while ((length = recordLength(chunk)) > 0) {
+				int start = chunk.position();
+				try {
+					replay.apply(chunk);
+				} catch (IllegalArgumentException | IllegalStateException e) {
+					throw new IOException("Invalid rental journal record at position " + (base + start), e);
+				}
+				chunk.position(start + length);
+			}
+			if (length < 0) {
+				throw new IOException("Unknown rental journal record type at position " + (base + chunk.position()));
+			}
+			base += chunk.position();
+			chunk.compact();
+		}
+		// Any bytes left in the chunk are a partly written record
+		replay.end = base;
+		return replay;
+	}
+
+	/**
+	 * Returns the length of the record at the position of the buffer, if the whole record is in the buffer.
+	 * @param chunk buffer of records.
+	 * @return the length of the record in bytes, 0 if the buffer does not contain the whole record, or -1 if the record type is unknown.
+	 */
+	private static int recordLength(ByteBuffer chunk) {
+		int remaining = chunk.remaining();
+		if (remaining == 0) {
+			return 0;
+		}
+		int length;
+		switch (chunk.get(chunk.position())) {
+			case ADD_SMALL_CAR:
+			case ADD_LARGE_CAR:
+				length = ADD_BYTES;
+				break;
+			case ADD_TYPED_CAR:
+				if (remaining <= ADD_BYTES) {
+					return 0;
+				}
+				length = ADD_BYTES + 1 + Byte.toUnsignedInt(chunk.get(chunk.position() + ADD_BYTES));
+				break;
+			case TERMINATE:
+				length = TERMINATE_BYTES;
+				break;
+			case ISSUE:
+				if (remaining < ISSUE_BYTES) {
+					return 0;
+				}
+				length = 5 + PersonCodec.length(chunk, chunk.position() + 5);
+				break;
+			default:
+				return -1;
+		}
+		return remaining < length ? 0 : length;
+	}
+
+	/**
+	 * Replay class.  The fleet and rentals of a RentalCompany as rebuilt by reading the records of a journal in sequence.
+	 * Only the final state matters, so the person in an ISSUE record is kept as the raw bytes of the record and decoded only if
+	 * the car is still rented at the end of the journal.
+	 * Cars are held by packed Registration Number, and their Registration Numbers are registered only once the whole journal has been checked,
+	 * so that a journal that is rejected leaves none registered.
+	 * The packed values are kept as primitive ints, indexed by an open addressing table with linear probing, so that recovering a large
+	 * fleet does not box a key or allocate a map node for every car.
+	 */
+	private static final class Replay {
+
+		/**
+		 * Initial number of cars the arrays can hold, which must be a power of two.
+		 */
+		private static final int INITIAL_CAPACITY = 64;
+
+		/**
+		 * Packed Registration Numbers of the cars in the fleet, in the order they were added.
+		 */
+		private int[] packed = new int[INITIAL_CAPACITY];
+
+		/**
+		 * Cars in the fleet, at the same index as their packed Registration Numbers.
+		 */
+		private Entry[] entries = new Entry[INITIAL_CAPACITY];
+
+		/**
+		 * Number of cars in the fleet.
+		 */
+		private int size;
+
+		/**
+		 * Open addressing table of the cars in the fleet, each slot holding the index of a car plus one, or zero for an empty slot.
+		 * The table has twice as many slots as the arrays can hold cars, so its load factor is at most 0.5.
+		 */
+		private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+		/**
+		 * File position after the last complete record.
+		 */
+		private long end;
+
+		/**
+		 * Applies the record at the position of the buffer.
+		 * @param chunk buffer containing the whole record.
+		 * @throws IllegalArgumentException if the record contains an invalid value.
+		 * @throws IllegalStateException if the record is inconsistent with the records before it.
+		 */
+		void apply(ByteBuffer chunk) {
+			int at = chunk.position();
+			byte type = chunk.get(at);
+			int packed = chunk.getInt(at + 1);
+			if (!RegistrationNumber.isPacked(packed)) {
+				throw new IllegalArgumentException("Invalid packed Registration Number " + packed);
+			}
+			if (type == ADD_SMALL_CAR || type == ADD_LARGE_CAR || type == ADD_TYPED_CAR) {
+				if (find(packed) != null) {
+					throw new IllegalStateException("Car " + RegistrationNumber.format(packed) + " added twice");
+				}
+				CarType carType;
+				if (type == ADD_SMALL_CAR) {
+					carType = CarType.SMALL_CAR;
+				} else if (type == ADD_LARGE_CAR) {
+					carType = CarType.LARGE_CAR;
+				} else {
+					// CarType.of throws an exception if the type of car has not been registered
+					byte[] name = new byte[Byte.toUnsignedInt(chunk.get(at + ADD_BYTES))];
+					chunk.position(at + ADD_BYTES + 1);
+					chunk.get(name);
+					carType = CarType.of(new String(name, StandardCharsets.US_ASCII));
+				}
+				add(packed, new Entry(carType));
+				return;
+			}
+			Entry entry = find(packed);
+			if (entry == null) {
+				throw new IllegalStateException("Car " + RegistrationNumber.format(packed) + " is not in the fleet");
+			}
+			if (type == ISSUE) {
+				if (entry.renter != null) {
+					throw new IllegalStateException("Car " + RegistrationNumber.format(packed) + " issued twice");
+				}
+				// Keep the encoded person
+				entry.renter = new byte[recordLength(chunk) - 5];
+				chunk.position(at + 5);
+				chunk.get(entry.renter);
+				// Issuing a car fills its tank, even if it was returned with less than none
+				entry.fuel = entry.type.getCapacity();
+			} else {
+				if (entry.renter == null) {
+					throw new IllegalStateException("Car " + RegistrationNumber.format(packed) + " returned but not rented");
+				}
+				entry.renter = null;
+				// Restore the fuel in the tank when the car was returned
+				entry.fuel = chunk.getInt(at + 5);
+			}
+		}
+
+		/**
+		 * Returns the car in the fleet with the given packed Registration Number.
+		 * @param key the packed Registration Number.
+		 * @return the car, or null if it is not in the fleet.
+		 */
+		private Entry find(int key) {
+			int mask = slots.length - 1;
+			for (int i = RegistrationTable.mix(key) & mask; ; i = (i + 1) & mask) {
+				int index = slots[i];
+				if (index == 0) {
+					return null;
+				}
+				if (packed[index - 1] == key) {
+					return entries[index - 1];
+				}
+			}
+		}
+
+		/**
+		 * Adds a car, which must not already be in the fleet, to the end of the fleet.
+		 * @param key the packed Registration Number of the car.
+		 * @param entry the car.
+		 */
+		private void add(int key, Entry entry) {
+			if (size == packed.length) {
+				// Double the arrays and rebuild the table with twice as many slots
+				packed = Arrays.copyOf(packed, size * 2);
+				entries = Arrays.copyOf(entries, size * 2);
+				slots = new int[size * 4];
+				for (int i=0; i<size; i++) {
+					index(i);
+				}
+			}
+			packed[size] = key;
+			entries[size] = entry;
+			index(size++);
+		}
+
+		/**
+		 * Adds the car at the given index of the arrays to the table.
+		 * @param index the index of the car.
+		 */
+		private void index(int index) {
+			int mask = slots.length - 1;
+			int i = RegistrationTable.mix(packed[index]) & mask;
+			while (slots[i] != 0) {
+				i = (i + 1) & mask;
+			}
+			slots[i] = index + 1;
+		}
+
+		/**
+		 * Restores the fleet and rentals into a new RentalCompany.
+		 * Every person renting a car is checked before any Registration Number is registered.
+		 * @param rentCo the RentalCompany, which must have no cars.
+		 * @throws IOException if a person renting a car is invalid or is renting more than one car, or a car cannot be restored.
+		 */
+		void restore(RentalCompany rentCo) throws IOException {
+			Person[] persons = new Person[size];
+			Set<Person> renting = new HashSet<>();
+			for (int i=0; i<size; i++) {
+				byte[] renter = entries[i].renter;
+				if (renter != null) {
+					try {
+						persons[i] = PersonCodec.read(ByteBuffer.wrap(renter), 0);
+					} catch (IllegalArgumentException e) {
+						throw new IOException("Invalid person renting car " + RegistrationNumber.format(packed[i]) + " in rental journal", e);
+					}
+					if (!renting.add(persons[i])) {
+						throw new IOException("Person " + persons[i] + " renting more than one car in rental journal");
+					}
+				}
+			}
+
+			// The journal is valid, so the cars can be created
+			List<Car> cars = new ArrayList<>(size);
+			Map<Car, Person> renters = new HashMap<>();
+			for (int i=0; i<size; i++) {
+				Entry entry = entries[i];
+				AbstractCar restored = entry.type.newCar(RegistrationNumber.intern(packed[i]));
+				// A new car has an empty tank
+				restored.consumeFuel(-entry.fuel);
+				cars.add(restored);
+				if (persons[i] != null) {
+					renters.put(restored, persons[i]);
+				}
+			}
+			try {
+				rentCo.restore(cars, renters);
+			} catch (IllegalStateException e) {
+				throw new IOException("Invalid rental journal: " + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Entry class.  A car in a replayed fleet, with the fuel in its tank and the person renting it if any.
+	 */
+	private static final class Entry {
+
+		/**
+		 * The type of the car.
+		 */
+		private final CarType type;
+
+		/**
+		 * The fuel in the tank of the car, which is empty until the car is first issued.
+		 */
+		private int fuel;
+
+		/**
+		 * The person renting the car as encoded in the ISSUE record of the current rental, or null if the car is not rented.
+		 */
+		private byte[] renter;
+
+		/**
+		 * Constructs an Entry for a car that is not rented.
+		 * @param type the type of the car.
+		 */
+		Entry(CarType type) {
+			this.type = type;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package uk.ac.ncl.rental;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RentalRegistry class.  Records the rentals of a RentalCompany as associations between Person and Car,
+ * indexed in both directions so that the car rented by a person and the person renting a car can each be found in constant time.
+ * The registry is thread-safe.  A person is registered against at most one car, atomically, so concurrent issues to the same person cannot both succeed.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+final class RentalRegistry {
+
+	/**
+	 * A map, implemented as a ConcurrentHashMap, from each renting Person to the Car they rent.
+	 */
+	private final Map<Person, Car> carsByPerson; // Person will be the key as it is immutable
+
+	/**
+	 * A map, implemented as a ConcurrentHashMap, from each rented Car to the Person renting it.
+	 */
+	private final Map<Car, Person> personsByCar; // Car equality is identity, which is unique by RegistrationNumber
+
+	/**
+	 * Constructs an empty RentalRegistry.
+	 */
+	RentalRegistry() {
+		this(16);
+	}
+
+	/**
+	 * Constructs an empty RentalRegistry with room for the given number of rentals.
+	 * @param expectedRentals the number of rentals expected.
+	 */
+	RentalRegistry(int expectedRentals) {
+		carsByPerson = new ConcurrentHashMap<>(expectedRentals);
+		personsByCar = new ConcurrentHashMap<>(expectedRentals);
+	}
+
+	/**
+	 * Returns the car rented by the given person.
+	 * @param person the Person believed to be a rentor.
+	 * @return the Car rented by the person, or null if they have no rental.
+	 */
+	Car getCar(Person person) {
+		return carsByPerson.get(person);
+	}
+
+	/**
+	 * Returns the person renting the given car.
+	 * @param car the Car believed to be rented.
+	 * @return the Person renting the car, or null if it is not rented.
+	 */
+	Person getRenter(Car car) {
+		return personsByCar.get(car);
+	}
+
+	/**
+	 * Returns whether the given person currently rents a car.
+	 * @param person the Person believed to be a rentor.
+	 * @return true if the person has a rental, false otherwise.
+	 */
+	boolean isRenting(Person person) {
+		return carsByPerson.containsKey(person);
+	}
+
+	/**
+	 * Records a rental of the given car by the given person, unless the person already has a rental.
+	 * @param person the Person renting the car.
+	 * @param car the Car being rented.
+	 * @return true if the rental was recorded, false if the person already has a rental.
+	 */
+	boolean put(Person person, Car car) {
+		if (carsByPerson.putIfAbsent(person, car) != null) {
+			return false;
+		}
+		personsByCar.put(car, person);
+		return true;
+	}
+
+	/**
+	 * Removes the rental of the given person, if any.
+	 * @param person the Person whose rental is ending.
+	 * @return the Car that was rented by the person, or null if they had no rental.
+	 */
+	Car remove(Person person) {
+		Car car = carsByPerson.remove(person);
+		if (car != null) {
+			personsByCar.remove(car, person);
+		}
+		return car;
+	}
+
+	/**
+	 * Returns the cars currently rented.
+	 * @return an unmodifiable view of the Set of rented cars.
+	 */
+	Set<Car> rentedCars() {
+		return Collections.unmodifiableSet(personsByCar.keySet());
+	}
+}
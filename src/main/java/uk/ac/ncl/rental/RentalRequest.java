@@ -0,0 +1,106 @@
+package uk.ac.ncl.rental;
+
+/**
+ * RentalRequest class.  A RentalRequest consists of a Person wishing to rent a car, their DrivingLicence and the type of car required,
+ * as passed to RentalCompany.issueCars to issue many cars at once.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+public final class RentalRequest {
+
+	/**
+	 * Person wishing to rent a car.
+	 */
+	private final Person person;
+
+	/**
+	 * Driving licence of the person.
+	 */
+	private final DrivingLicence drivingLicence;
+
+	/**
+	 * Type of car required.
+	 */
+	private final CarType type;
+
+	/**
+	 * Constructs a RentalRequest from the given Person, DrivingLicence and type of car.
+	 * @param person the Person wishing to rent a car.
+	 * @param drivingLicence the rentor's driving licence.
+	 * @param typeOfCar the type of car required as a String containing the name of a registered type of car e.g. "SmallCar" or "LargeCar".
+	 * @throws IllegalArgumentException if any null parameter or invalid typeOfCar are supplied.
+	 */
+	public RentalRequest(Person person, DrivingLicence drivingLicence, String typeOfCar) {
+		// Check parameters as issueCar would, so that a batch of requests never fails part way through
+		this(person, drivingLicence, RentalCompany.checkParameters(person, drivingLicence, typeOfCar));
+	}
+
+	/**
+	 * Constructs a RentalRequest from parameters already checked.
+	 * Note this Constructor is private, so that a null type of car given to the public Constructor is not ambiguous;
+	 * a RentalRequest for a CarType is returned by the static factory method ofType.
+	 * @param person the Person wishing to rent a car.
+	 * @param drivingLicence the rentor's driving licence.
+	 * @param type the type of car required.
+	 */
+	private RentalRequest(Person person, DrivingLicence drivingLicence, CarType type) {
+		// Person and DrivingLicence are immutable so defensive copying not needed
+		this.person = person;
+		this.drivingLicence = drivingLicence;
+		this.type = type;
+	}
+
+	/**
+	 * Returns a RentalRequest from the given Person, DrivingLicence and type of car.
+	 * @param person the Person wishing to rent a car.
+	 * @param drivingLicence the rentor's driving licence.
+	 * @param type the type of car required.
+	 * @return the RentalRequest.
+	 * @throws IllegalArgumentException if any null parameter is supplied.
+	 */
+	public static RentalRequest ofType(Person person, DrivingLicence drivingLicence, CarType type) {
+		// Check parameters as issueCarOfType would, so that a batch of requests never fails part way through
+		RentalCompany.checkParameters(person, drivingLicence, type);
+		return new RentalRequest(person, drivingLicence, type);
+	}
+
+	/**
+	 * Return the Person wishing to rent a car.
+	 * @return the person as a Person object.
+	 */
+	public Person getPerson() {
+		return person;
+	}
+
+	/**
+	 * Return the driving licence of the person.
+	 * @return the driving licence as a DrivingLicence object.
+	 */
+	public DrivingLicence getDrivingLicence() {
+		return drivingLicence;
+	}
+
+	/**
+	 * Return the type of car required.
+	 * @return the name of the type of car as a String e.g. "SmallCar" or "LargeCar".
+	 */
+	public String getTypeOfCar() {
+		return type.getName();
+	}
+
+	/**
+	 * Return the type of car required.
+	 * @return the type of car as a CarType.
+	 */
+	public CarType getType() {
+		return type;
+	}
+
+	/**
+	 * Return a string representation of this RentalRequest.
+	 * @return the string representations of the Person, the DrivingLicence and the type of car separated by comma.
+	 */
+	@Override public String toString() {
+		return person + "," + drivingLicence + "," + type;
+	}
+}
@@ -0,0 +1,455 @@
+package uk.ac.ncl.rental;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RentalSnapshot class.  Writes the fleet and rentals of a RentalCompany to a binary snapshot file, and loads a RentalCompany from one.
+ * The file has a header, then one fixed width record for each car, then a table of the names of the types of car other than
+ * SmallCar and LargeCar, then the persons renting cars encoded by PersonCodec.
+ * Each car record holds the packed Registration Number, type, rented flag, tank capacity, fuel and the position of the person renting the car.
+ * The file is loaded through a MappedByteBuffer, and the Registration Numbers of the cars are registered once every record has been checked.
+ * Types of car registered with CarType.register must be registered again before a snapshot holding their cars is loaded.
+ * Note that cars with no CarType, which can never be rented, are not written, and that views of the cars of
+ * a ColumnarFleet or OffHeapFleet are loaded as SmallCar, LargeCar and TypedCar objects.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+public final class RentalSnapshot {
+
+	/**
+	 * Magic number at the start of every snapshot file, "RSNP" in ASCII.
+	 */
+	private static final int MAGIC = 0x52534E50;
+
+	/**
+	 * Version of the file format.  Versions 1 and 2, which held only the day of birth of each person renting a car, are not loaded.
+	 */
+	private static final int VERSION = 3;
+
+	/**
+	 * Length in bytes of the file header i.e. magic number, version, number of cars and number of rented cars.
+	 */
+	private static final int HEADER_BYTES = 16;
+
+	/**
+	 * Length in bytes of each car record.
+	 */
+	private static final int CAR_BYTES = 16;
+
+	/**
+	 * Car record type of a SmallCar.
+	 */
+	private static final byte SMALL_CAR = 1;
+
+	/**
+	 * Car record type of a LargeCar.
+	 */
+	private static final byte LARGE_CAR = 2;
+
+	/**
+	 * Car record type of the first type of car in the table of types; each later type in the table has the next record type.
+	 * The table is a count as an unsigned byte, then for each type the length of its name as an unsigned byte and its name in ASCII.
+	 */
+	private static final int TYPED_CAR = 3;
+
+	/**
+	 * Position of the renter in the record of a car that is not rented.
+	 */
+	private static final int NO_RENTER = -1;
+
+	/**
+	 * Size of the buffer used to write a snapshot.
+	 */
+	private static final int BUFFER_BYTES = 1024 * 1024;
+
+	/**
+	 * Private Constructor, as RentalSnapshot has only static methods.
+	 */
+	private RentalSnapshot() {
+	}
+
+	/**
+	 * Writes a snapshot of the fleet and rentals of a RentalCompany to the given path, replacing any file already there.
+	 * The snapshot is written to a temporary file which is then moved into place, so a crash never leaves a partly written snapshot.
+	 * If the company's changes are journalled the snapshot is consistent; otherwise the company should not be changed while it is written.
+	 * @param rentCo the RentalCompany.
+	 * @param path the path of the snapshot file.
+	 * @throws IllegalArgumentException if either parameter is null.
+	 * @throws IOException if the file cannot be written, or the snapshot would be too large to load.
+	 */
+	public static void write(RentalCompany rentCo, Path path) throws IOException {
+		// Check parameters
+		if (rentCo == null) {
+			throw new IllegalArgumentException("rentCo parameter cannot be null");
+		}
+		if (path == null) {
+			throw new IllegalArgumentException("path parameter cannot be null");
+		}
+		writeCopy(copy(rentCo), path);
+	}
+
+	/**
+	 * Copies the state of every car of a RentalCompany that has a type, so that the company is locked, if at all, only while the cars are copied.
+	 * The type, capacity, fuel and renter of each car are read together as the car is visited, and the snapshot is written only from the copy,
+	 * so they agree with each other even if the car is returned, issued again and driven while the snapshot is written.
+	 * @param rentCo the RentalCompany.
+	 * @return the copy.
+	 */
+	static Copy copy(RentalCompany rentCo) {
+		Copy copy = new Copy();
+		rentCo.forEachCar(copy::add);
+		return copy;
+	}
+
+	/**
+	 * Writes a snapshot of a copy of the fleet and rentals of a RentalCompany to the given path, replacing any file already there.
+	 * @param copy the copy of the cars.
+	 * @param path the path of the snapshot file.
+	 * @throws IOException if the file cannot be written, or the snapshot would be too large to load.
+	 */
+	static void writeCopy(Copy copy, Path path) throws IOException {
+		int count = copy.size;
+		int rented = 0;
+		for (int i=0; i<count; i++) {
+			if (copy.renters[i] != null) {
+				rented++;
+			}
+		}
+		// Table of the other types of car, in the order their cars are first found, giving each its record type
+		Map<CarType, Integer> table = new LinkedHashMap<>();
+		int tableBytes = 1;
+		for (int i=0; i<count; i++) {
+			CarType type = copy.types[i];
+			if (type != CarType.SMALL_CAR && type != CarType.LARGE_CAR && !table.containsKey(type)) {
+				table.put(type, TYPED_CAR + table.size());
+				tableBytes += 1 + type.getName().length();
+			}
+		}
+		// Positions in the snapshot are ints, so a snapshot that load could not map is never written
+		long bytes = HEADER_BYTES + (long) count * CAR_BYTES + tableBytes;
+		for (int i=0; i<count; i++) {
+			if (copy.renters[i] != null) {
+				bytes += PersonCodec.length(copy.renters[i]);
+			}
+		}
+		if (bytes > Integer.MAX_VALUE) {
+			throw new IOException("Rental snapshot of " + bytes + " bytes would be too large to load");
+		}
+
+		Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(rented);
+			// Persons are written after all the cars and the table, so each car record holds the position its renter will have
+			// (which cannot overflow, as the whole snapshot has been checked to fit in an int)
+			int renterAt = HEADER_BYTES + count * CAR_BYTES + tableBytes;
+			for (int i=0; i<count; i++) {
+				Person renter = copy.renters[i];
+				if (buffer.remaining() < CAR_BYTES) {
+					drain(buffer, channel);
+				}
+				CarType type = copy.types[i];
+				buffer.putInt(copy.packed[i])
+						.put(type == CarType.SMALL_CAR ? SMALL_CAR : type == CarType.LARGE_CAR ? LARGE_CAR : (byte) (int) table.get(type))
+						.put((byte) (renter == null ? 0 : 1))
+						.putShort((short) copy.capacity[i])
+						.putInt(copy.fuel[i])
+						.putInt(renter == null ? NO_RENTER : renterAt);
+				if (renter != null) {
+					renterAt += PersonCodec.length(renter);
+				}
+			}
+			// Names of types of car are ASCII letters and digits, so one byte per character, and the whole table fits in the buffer
+			if (buffer.remaining() < tableBytes) {
+				drain(buffer, channel);
+			}
+			buffer.put((byte) table.size());
+			for (CarType type : table.keySet()) {
+				String name = type.getName();
+				buffer.put((byte) name.length());
+				for (int i=0; i<name.length(); i++) {
+					buffer.put((byte) name.charAt(i));
+				}
+			}
+			for (int i=0; i<count; i++) {
+				Person renter = copy.renters[i];
+				if (renter != null) {
+					if (buffer.remaining() < PersonCodec.length(renter)) {
+						drain(buffer, channel);
+					}
+					PersonCodec.write(buffer, renter);
+				}
+			}
+			drain(buffer, channel);
+			channel.force(true);
+		}
+		Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Loads a RentalCompany from the snapshot at the given path.
+	 * The RentalCompany returned does not journal its own events.
+	 * @param path the path of the snapshot file.
+	 * @return a new RentalCompany with the fleet and rentals in the snapshot.
+	 * @throws IllegalArgumentException if the path is null.
+	 * @throws IOException if the file cannot be read or is not a valid snapshot, e.g. because it holds two cars with the same Registration Number.
+	 */
+	public static RentalCompany load(Path path) throws IOException {
+		// Check parameter
+		if (path == null) {
+			throw new IllegalArgumentException("path parameter cannot be null");
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Rental snapshot is too large to load");
+			}
+			MappedByteBuffer snapshot = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (size < HEADER_BYTES || snapshot.getInt(0) != MAGIC) {
+				throw new IOException("Not a rental snapshot");
+			}
+			int version = snapshot.getInt(4);
+			if (version != VERSION) {
+				throw new IOException("Unsupported rental snapshot version " + version);
+			}
+			int count = snapshot.getInt(8);
+			int rented = snapshot.getInt(12);
+			if (count < 0 || rented < 0 || rented > count || HEADER_BYTES + (long) count * CAR_BYTES > size) {
+				throw new IOException("Rental snapshot is truncated");
+			}
+			CarType[] types = types(snapshot, HEADER_BYTES + count * CAR_BYTES);
+
+			// Check every record before any Registration Number is interned, so that an invalid snapshot leaves none registered
+			Person[] renters = new Person[count];
+			Set<Person> renting = new HashSet<>();
+			// Packed Registration Number in the high half and record index in the low half, so that sorting brings together
+			// the records of each number in the order they appear
+			long[] numbers = new long[count];
+			for (int i=0, at=HEADER_BYTES; i<count; i++, at+=CAR_BYTES) {
+				try {
+					type(snapshot, at, types);
+					renters[i] = renter(snapshot, at, (int) size);
+				} catch (IllegalArgumentException e) {
+					throw new IOException("Invalid rental snapshot car record at position " + at, e);
+				}
+				if (renters[i] != null && !renting.add(renters[i])) {
+					throw new IOException("Invalid rental snapshot car record at position " + at + ", the person renting the car is renting another car");
+				}
+				numbers[i] = (long) snapshot.getInt(at) << 32 | i;
+			}
+			int duplicate = firstDuplicate(numbers);
+			if (duplicate >= 0) {
+				// A fleet holds one car for each Registration Number
+				throw new IOException("Invalid rental snapshot car record at position " + (HEADER_BYTES + duplicate * CAR_BYTES));
+			}
+
+			// Size the fleet and rentals for the snapshot, so that they never have to grow while it is loaded
+			RentalCompany rentCo = new RentalCompany(null, count, rented);
+			for (int i=0, at=HEADER_BYTES; i<count; i++, at+=CAR_BYTES) {
+				rentCo.restore(car(snapshot, at, types), renters[i]);
+			}
+			return rentCo;
+		}
+	}
+
+	/**
+	 * Reads the table of types of car that follows the car records.
+	 * @param snapshot the mapped snapshot.
+	 * @param at the position of the table.
+	 * @return the types of car, indexed by record type less TYPED_CAR.
+	 * @throws IOException if the table is truncated or names a type of car that is not registered.
+	 */
+	private static CarType[] types(ByteBuffer snapshot, int at) throws IOException {
+		int size = snapshot.limit();
+		if (at >= size) {
+			throw new IOException("Rental snapshot is truncated");
+		}
+		CarType[] types = new CarType[Byte.toUnsignedInt(snapshot.get(at++))];
+		for (int i=0; i<types.length; i++) {
+			int length = at < size ? Byte.toUnsignedInt(snapshot.get(at++)) : size;
+			if (at + length > size) {
+				throw new IOException("Rental snapshot is truncated");
+			}
+			byte[] name = new byte[length];
+			for (int j=0; j<length; j++) {
+				name[j] = snapshot.get(at++);
+			}
+			try {
+				types[i] = CarType.of(new String(name, StandardCharsets.US_ASCII));
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Rental snapshot holds cars of unregistered type " + new String(name, StandardCharsets.US_ASCII), e);
+			}
+		}
+		return types;
+	}
+
+	/**
+	 * Checks a car record, without creating the car or interning its Registration Number, and returns the type of the car.
+	 * @param snapshot the mapped snapshot.
+	 * @param at the position of the car record.
+	 * @param types the types of car in the table of the snapshot.
+	 * @return the type of the car.
+	 * @throws IllegalArgumentException if the record is invalid.
+	 */
+	private static CarType type(ByteBuffer snapshot, int at, CarType[] types) {
+		int packed = snapshot.getInt(at);
+		if (!RegistrationNumber.isPacked(packed)) {
+			throw new IllegalArgumentException("Invalid packed Registration Number " + packed);
+		}
+		int type = Byte.toUnsignedInt(snapshot.get(at + 4));
+		CarType carType;
+		if (type == SMALL_CAR) {
+			carType = CarType.SMALL_CAR;
+		} else if (type == LARGE_CAR) {
+			carType = CarType.LARGE_CAR;
+		} else if (type >= TYPED_CAR && type < TYPED_CAR + types.length) {
+			carType = types[type - TYPED_CAR];
+		} else {
+			throw new IllegalArgumentException("Unknown car type");
+		}
+		if (carType.getCapacity() != snapshot.getShort(at + 6)) {
+			throw new IllegalArgumentException("Car of type " + carType + " has the wrong capacity");
+		}
+		return carType;
+	}
+
+	/**
+	 * Creates the car described by a checked car record, with the fuel in its tank, interning its Registration Number.
+	 * @param snapshot the mapped snapshot.
+	 * @param at the position of the car record.
+	 * @param types the types of car in the table of the snapshot.
+	 * @return the car.
+	 */
+	private static Car car(ByteBuffer snapshot, int at, CarType[] types) {
+		AbstractCar car = type(snapshot, at, types).newCar(RegistrationNumber.intern(snapshot.getInt(at)));
+		// A new car has an empty tank
+		car.consumeFuel(-snapshot.getInt(at + 8));
+		return car;
+	}
+
+	/**
+	 * Finds the first record whose Registration Number is the same as that of an earlier record.
+	 * @param numbers the packed Registration Number of each record in the high half and its index in the low half; sorted in place.
+	 * @return the index of the first such record, or -1 if every Registration Number is different.
+	 */
+	private static int firstDuplicate(long[] numbers) {
+		Arrays.sort(numbers);
+		int first = -1;
+		for (int i=1; i<numbers.length; i++) {
+			if (numbers[i] >>> 32 == numbers[i - 1] >>> 32 && (first < 0 || (int) numbers[i] < first)) {
+				first = (int) numbers[i];
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Reads the person renting the car described by a car record.
+	 * @param snapshot the mapped snapshot.
+	 * @param at the position of the car record.
+	 * @param size the size of the snapshot.
+	 * @return the person renting the car, or null if it is not rented.
+	 * @throws IllegalArgumentException if the record or person is invalid.
+	 */
+	private static Person renter(ByteBuffer snapshot, int at, int size) {
+		boolean rented = snapshot.get(at + 5) != 0;
+		int renterAt = snapshot.getInt(at + 12);
+		if (!rented) {
+			return null;
+		}
+		if (renterAt < 0 || renterAt > size - PersonCodec.FIXED_BYTES || renterAt > size - PersonCodec.length(snapshot, renterAt)) {
+			throw new IllegalArgumentException("Renter is outside the snapshot");
+		}
+		return PersonCodec.read(snapshot, renterAt);
+	}
+
+	/**
+	 * Writes the contents of a buffer to a channel and clears the buffer.
+	 * @param buffer the buffer.
+	 * @param channel the channel.
+	 * @throws IOException if the contents cannot be written.
+	 */
+	private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Copy class.  The state of the cars of a RentalCompany that have a type, copied for a snapshot in arrays grown as cars are added.
+	 */
+	static final class Copy {
+
+		/**
+		 * Type of each car.
+		 */
+		private CarType[] types = new CarType[16];
+
+		/**
+		 * Packed Registration Number of each car.
+		 */
+		private int[] packed = new int[16];
+
+		/**
+		 * Tank capacity of each car in litres.
+		 */
+		private int[] capacity = new int[16];
+
+		/**
+		 * Fuel in the tank of each car in litres.
+		 */
+		private int[] fuel = new int[16];
+
+		/**
+		 * Person renting each car, or null if it is not rented.
+		 */
+		private Person[] renters = new Person[16];
+
+		/**
+		 * Number of cars copied.
+		 */
+		private int size;
+
+		/**
+		 * Copies the state of a car, reading each value once so that they agree with each other.  Cars with no type are not copied.
+		 * @param car the Car.
+		 * @param renter the person renting the car, or null if it is not rented.
+		 */
+		void add(Car car, Person renter) {
+			CarType type = car.getType();
+			if (type == null) {
+				// Cars with no type can never be rented, so they are not written
+				return;
+			}
+			if (size == types.length) {
+				int length = size * 2;
+				types = Arrays.copyOf(types, length);
+				packed = Arrays.copyOf(packed, length);
+				capacity = Arrays.copyOf(capacity, length);
+				fuel = Arrays.copyOf(fuel, length);
+				renters = Arrays.copyOf(renters, length);
+			}
+			types[size] = type;
+			packed[size] = car.getRegistrationNumber().getPackedValue();
+			capacity[size] = car.getCapacity();
+			fuel[size] = car.getFuel();
+			renters[size] = renter;
+			size++;
+		}
+	}
+}
@@ -10,7 +10,12 @@ public final class SmallCar extends AbstractCar {
 	/**
 	 * Fuel tank capacity for SmallCar is set to constant 49 litres.
 	 */
-	private static final int CAPACITY = 49;
+	static final int CAPACITY = 49;
+	
+	/**
+	 * SmallCar consumes fuel at a uniform rate of 20km/litre, measured in whole litres always rounded up.
+	 */
+	static final ConsumptionModel CONSUMPTION = ConsumptionModel.uniform(20);
 	
 	/**
 	 * Constructs a SmallCar with the given registration number.
@@ -23,6 +28,23 @@ public final class SmallCar extends AbstractCar {
 		super(RegistrationNumber.valueOf(rnString), CAPACITY);
 	}
 	
+	/**
+	 * Constructs a SmallCar with the given, already registered, registration number, as when a fleet is restored from a RentalJournal.
+	 * Note this Constructor is package-private so that it cannot be used to bypass the uniqueness of registration numbers.
+	 * @param rn the registration number of the car.
+	 */
+	SmallCar(RegistrationNumber rn) {
+		super(rn, CAPACITY);
+	}
+	
+	/**
+	 * Method to get the type of the car.
+	 * @return CarType.SMALL_CAR.
+	 */
+	public CarType getType() {
+		return CarType.SMALL_CAR;
+	}
+	
 	/**
 	 * Method to "drive" the car for a given number of whole Kilometres.
 	 * @param km given number of whole Kilometres to drive.
@@ -44,9 +66,7 @@ public final class SmallCar extends AbstractCar {
 			return 0;
 		}
 		
-		// SmallCar consumes fuel at a uniform rate of 20km/litre
-		// Fuel consumption is measured in whole litres always rounded up
-		int fuelConsumed = (km%20 == 0 ? km/20 : km/20 + 1);
+		int fuelConsumed = CONSUMPTION.fuelConsumed(km);
 		// Calls consumeFuel from AbstractCar
 		this.consumeFuel(fuelConsumed);
 		return fuelConsumed;
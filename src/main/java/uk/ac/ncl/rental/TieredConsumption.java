@@ -0,0 +1,116 @@
+package uk.ac.ncl.rental;
+
+/**
+ * TieredConsumption class.  A ConsumptionModel with a rate for the first tier of a journey and a rate for the rest of it,
+ * each in whole Kilometres per litre, where the fuel for each tier is measured in whole litres always rounded up.
+ * The fuel is computed without branches: each division is replaced by a multiplication and shift by a reciprocal precomputed
+ * when the model is created, which is exact for every non-negative int distance.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+final class TieredConsumption implements ConsumptionModel {
+
+	/**
+	 * Length of the first tier in whole Kilometres.
+	 */
+	private final int firstKm;
+
+	/**
+	 * Kilometres per litre in the first tier.
+	 */
+	private final int firstRate;
+
+	/**
+	 * Reciprocal of firstRate, as returned by reciprocal.
+	 */
+	private final long firstReciprocal;
+
+	/**
+	 * Shift of firstRate, as returned by shift.
+	 */
+	private final int firstShift;
+
+	/**
+	 * Kilometres per litre after the first tier.
+	 */
+	private final int rate;
+
+	/**
+	 * Reciprocal of rate, as returned by reciprocal.
+	 */
+	private final long reciprocal;
+
+	/**
+	 * Shift of rate, as returned by shift.
+	 */
+	private final int shift;
+
+	/**
+	 * Constructs a TieredConsumption.  Parameters have already been checked by ConsumptionModel.
+	 * @param firstKm the length of the first tier in whole Kilometres.
+	 * @param firstRate the Kilometres per litre in the first tier.
+	 * @param rate the Kilometres per litre after the first tier.
+	 */
+	TieredConsumption(int firstKm, int firstRate, int rate) {
+		this.firstKm = firstKm;
+		this.firstRate = firstRate;
+		this.firstShift = shift(firstRate);
+		this.firstReciprocal = reciprocal(firstRate, firstShift);
+		this.rate = rate;
+		this.shift = shift(rate);
+		this.reciprocal = reciprocal(rate, shift);
+	}
+
+	/**
+	 * Method to get the fuel consumed driving a given distance.
+	 * @param km a non-negative number of whole Kilometres.
+	 * @return the number of whole Litres of fuel consumed as an integer.
+	 */
+	@Override public int fuelConsumed(int km) {
+		int first = Math.min(km, firstKm);
+		return ceilDiv(first, firstRate, firstReciprocal, firstShift) + ceilDiv(km - first, rate, reciprocal, shift);
+	}
+
+	/**
+	 * Divides a non-negative int by a positive divisor, rounding up, by multiplying by the reciprocal of the divisor.
+	 * @param n the dividend, from 0 to Integer.MAX_VALUE.
+	 * @param d the divisor.
+	 * @param reciprocal the reciprocal of the divisor, as returned by reciprocal.
+	 * @param shift the shift of the divisor, as returned by shift.
+	 * @return n divided by d, rounded up.
+	 */
+	private static int ceilDiv(int n, int d, long reciprocal, int shift) {
+		int q = (int) ((n * reciprocal) >>> shift);
+		// The remainder is from 0 to d-1, so its negation has the sign bit set exactly when there is a part litre to round up
+		return q + (-(n - q * d) >>> 31);
+	}
+
+	/**
+	 * Returns the shift to use with the reciprocal of a divisor, 31 plus the number of bits needed for the divisor less one.
+	 * @param d the divisor.
+	 * @return the shift.
+	 */
+	private static int shift(int d) {
+		return 31 + (32 - Integer.numberOfLeadingZeros(d - 1));
+	}
+
+	/**
+	 * Returns the reciprocal of a divisor, 2 to the power shift divided by the divisor and rounded up.
+	 * This is at most 2 to the power 32, so the product with any non-negative int fits in a long, and the error is small enough that
+	 * the product shifted right gives the exact quotient (Granlund and Montgomery, Division by Invariant Integers using Multiplication).
+	 * @param d the divisor.
+	 * @param shift the shift of the divisor.
+	 * @return the reciprocal.
+	 */
+	private static long reciprocal(int d, int shift) {
+		return ((1L << shift) + d - 1) / d;
+	}
+
+	/**
+	 * Return a string representation of this TieredConsumption.
+	 * @return the rates and first tier as a String e.g. "10km/l to 50km,15km/l".
+	 */
+	@Override public String toString() {
+		return firstKm == 0 ? rate + "km/l" : firstRate + "km/l to " + firstKm + "km," + rate + "km/l";
+	}
+}
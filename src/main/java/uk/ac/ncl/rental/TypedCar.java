@@ -0,0 +1,98 @@
+package uk.ac.ncl.rental;
+
+/**
+ * TypedCar class.  Implements the elements of the Car interface specific to a car of any registered CarType, such as a van,
+ * whose fuel consumption is given by the consumption model of its type.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+public final class TypedCar extends AbstractCar {
+
+	/**
+	 * Type of the car.
+	 */
+	private final CarType type;
+
+	/**
+	 * Constructs a TypedCar of the given type with the given registration number.
+	 * @param type the type of the car.
+	 * @param rnString the registration number of the car as a String.
+	 * @throws IllegalArgumentException if either parameter is null or invalid.
+	 * @throws IllegalStateException if the registration number is already in use.
+	 */
+	public TypedCar(CarType type, String rnString) {
+		// Check type before the registration number is registered, which cannot be undone
+		// Note: RegistrationNumber.valueOf throws an exception if a duplicate registration number is given
+		super(RegistrationNumber.valueOf(checkType(type, rnString)), type.getCapacity());
+		this.type = type;
+	}
+
+	/**
+	 * Constructs a TypedCar with the given, already registered, registration number, as when a fleet is restored from a RentalJournal.
+	 * Note this Constructor is package-private so that it cannot be used to bypass the uniqueness of registration numbers.
+	 * @param type the type of the car.
+	 * @param rn the registration number of the car.
+	 */
+	TypedCar(CarType type, RegistrationNumber rn) {
+		super(rn, type.getCapacity());
+		this.type = type;
+	}
+
+	/**
+	 * Checks the type parameter of the public Constructor.
+	 * @param type the type of the car.
+	 * @param rnString the registration number of the car as a String.
+	 * @return rnString.
+	 * @throws IllegalArgumentException if type is null.
+	 */
+	private static String checkType(CarType type, String rnString) {
+		if (type == null) {
+			throw new IllegalArgumentException("type parameter cannot be null");
+		}
+		return rnString;
+	}
+
+	/**
+	 * Method to get the type of the car.
+	 * @return the type of car as a CarType.
+	 */
+	public CarType getType() {
+		return type;
+	}
+
+	/**
+	 * Method to "drive" the car for a given number of whole Kilometres.
+	 * @param km given number of whole Kilometres to drive.
+	 * @return the number of whole Litres of fuel consumed during the journey as an integer.
+	 * @throws IllegalArgumentException if an invalid (negative) distance is given.
+	 * @throws IllegalStateException if the car cannot be driven.
+	 */
+	public int drive(int km) {
+		// Check parameters
+		if (km < 0) {
+			throw new IllegalArgumentException("Cannot drive a negative distance");
+		}
+		if (!this.isRented()) {
+			// Calls this.toString
+			throw new IllegalStateException("Car " + this + " cannot be driven as it is not currently rented");
+		}
+		if (this.getFuel() <= 0) {
+			// If there is no fuel in the tank, car cannot be driven, but return zero consumption rather than throw exception
+			return 0;
+		}
+
+		int fuelConsumed = type.getConsumption().fuelConsumed(km);
+		// Calls consumeFuel from AbstractCar
+		this.consumeFuel(fuelConsumed);
+		return fuelConsumed;
+	}
+
+	/**
+	 * Return a string representation of this car.
+	 * @return the string representation of the car in the format [type of car],[registration number],[fuel]
+	 */
+	@Override public String toString() {
+		// Calls getRegistrationNumber and getFuel from AbstractCar
+		return type + "," + this.getRegistrationNumber() + "," + this.getFuel();
+	}
+}
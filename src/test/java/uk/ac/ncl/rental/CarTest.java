@@ -1,6 +1,9 @@
 package uk.ac.ncl.rental;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -242,6 +245,42 @@ class CarTest {
 		assertTrue(car.isRented());
 	}
 	
+	/**
+	 * Test method for SmallCar.claimRental method.
+	 * Only the first claim succeeds until the rental ends.
+	 */
+	@Test
+	void testSmallCarClaimRental() {
+		SmallCar car = new SmallCar("AB52 QAG");
+		assertTrue(car.claimRental());
+		assertTrue(car.isRented());
+		assertFalse(car.claimRental());
+		car.setRental(false);
+		assertTrue(car.claimRental());
+	}
+	
+	/**
+	 * Test method for LargeCar.claimRental method.
+	 * When many threads claim the same car at once exactly one succeeds.
+	 */
+	@Test
+	void testLargeCarClaimRentalConcurrent() throws InterruptedException {
+		LargeCar car = new LargeCar("AB53 QAG");
+		AtomicInteger claims = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for (int i=0; i<threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				if (car.claimRental()) claims.incrementAndGet();
+			});
+			threads[i].start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertEquals(1, claims.get());
+		assertTrue(car.isRented());
+	}
+	
 	/**
 	 * Test method for LargeCar.isRented method.
 	 */
@@ -404,4 +443,92 @@ class CarTest {
 		assertEquals(2, car.drive(20)); // 20 km requires 2 litres
 		assertEquals(-1, car.getFuel()); // should be -1 litres "in tank"
 	}
+	
+	/**
+	 * Test method for Car.drive method with a sequence of journeys.
+	 * The fuel consumed is exactly that of driving each journey in turn, including once the tank is empty.
+	 */
+	@Test
+	void testDriveJourneys() {
+		int[] kms = {0, 1, 9, 10, 11, 49, 50, 51, 60, 65, 66, 1000, 10};
+		Car[] cars = {new SmallCar("SC01 QBJ"), new LargeCar("LC01 QBJ"), new OffHeapFleet(1).addOfType(CarType.LARGE_CAR, "LC02 QBJ")};
+		Car[] singles = {new SmallCar("SC02 QBJ"), new LargeCar("LC03 QBJ"), new LargeCar("LC04 QBJ")};
+		for (int i=0; i<cars.length; i++) {
+			cars[i].setRental(true);
+			cars[i].fillTank(60);
+			singles[i].setRental(true);
+			singles[i].fillTank(60);
+			int total = 0;
+			for (int km : kms) {
+				total += singles[i].drive(km);
+			}
+			assertEquals(total, cars[i].drive(kms));
+			assertEquals(singles[i].getFuel(), cars[i].getFuel());
+			assertTrue(cars[i].getFuel() < 0);
+			// No further journey consumes fuel once the tank is empty
+			assertEquals(0, cars[i].drive(new int[] {100}));
+		}
+	}
+	
+	/**
+	 * Test method for Car.drive method with a sequence of journeys.
+	 * Invalid distances and cars that are not rented are rejected before any journey is driven.
+	 */
+	@Test
+	void testDriveJourneysInvalid() {
+		// The default method of Car, which drives each journey in turn, checks the same inputs as AbstractCar
+		SmallCar delegate = new SmallCar("SC04 QBJ");
+		Car byDefault = new Car() {
+			@Override public RegistrationNumber getRegistrationNumber() { return delegate.getRegistrationNumber(); }
+			@Override public int getFuel() { return delegate.getFuel(); }
+			@Override public boolean isTankFull() { return delegate.isTankFull(); }
+			@Override public int getCapacity() { return delegate.getCapacity(); }
+			@Override public void setRental(boolean activeRental) { delegate.setRental(activeRental); }
+			@Override public int fillTank(int litres) { return delegate.fillTank(litres); }
+			@Override public int drive(int km) { return delegate.drive(km); }
+		};
+		for (Car car : new Car[] {new SmallCar("SC03 QBJ"), byDefault}) {
+			assertThrows(IllegalStateException.class, () -> car.drive(new int[] {10}));
+			assertThrows(IllegalStateException.class, () -> car.drive(new int[0]));
+			assertThrows(IllegalArgumentException.class, () -> car.drive(new int[] {10, -1}));
+			assertThrows(IllegalArgumentException.class, () -> car.drive((int[]) null));
+			car.setRental(true);
+			car.fillTank(49);
+			assertThrows(IllegalArgumentException.class, () -> car.drive(new int[] {100, -1}));
+			assertThrows(IllegalArgumentException.class, () -> car.drive((int[]) null));
+			assertEquals(49, car.getFuel());
+			assertEquals(0, car.drive(new int[0]));
+			assertEquals(49, car.getFuel());
+		}
+	}
+
+	/**
+	 * Test method for the default methods of the Car interface.
+	 * A Car implemented outside the package has no type, so it can be added to a RentalCompany but never rented.
+	 */
+	@Test
+	void testCarDefaults() {
+		RegistrationNumber rn = RegistrationNumber.valueOf("EX01 QBS");
+		AtomicInteger rentals = new AtomicInteger();
+		Car car = new Car() {
+			@Override public RegistrationNumber getRegistrationNumber() { return rn; }
+			@Override public int getFuel() { return 0; }
+			@Override public boolean isTankFull() { return false; }
+			@Override public int getCapacity() { return 40; }
+			@Override public void setRental(boolean activeRental) { rentals.addAndGet(activeRental ? 1 : -1); }
+			@Override public int fillTank(int litres) { return 0; }
+			@Override public int drive(int km) { return 0; }
+		};
+		assertNull(car.getType());
+		assertFalse(car.isRented());
+		assertTrue(car.claimRental());
+		assertEquals(1, rentals.get());
+		car.setRental(false);
+
+		// Adding the car reads its rental status without setting it
+		RentalCompany rentCo = new RentalCompany();
+		rentCo.addCar(car);
+		assertEquals(0, rentals.get());
+		assertEquals(0, rentCo.availableCars("SmallCar"));
+	}
 }
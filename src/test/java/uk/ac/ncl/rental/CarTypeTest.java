@@ -0,0 +1,124 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CarTypeTest class.  JUnit test cases for the CarType and TypedCar classes.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class CarTypeTest {
+
+	/**
+	 * Test method for CarType.of method.
+	 */
+	@Test
+	void testOf() {
+		assertSame(CarType.SMALL_CAR, CarType.of("SmallCar"));
+		assertSame(CarType.LARGE_CAR, CarType.of("LargeCar"));
+		assertThrows(IllegalArgumentException.class, () -> CarType.of(null));
+		assertThrows(IllegalArgumentException.class, () -> CarType.of("MediumCar"));
+		assertThrows(IllegalArgumentException.class, () -> CarType.of("SMALL_CAR"));
+	}
+
+	/**
+	 * Test method for CarType getter methods.
+	 * Capacities and eligibility thresholds are those of SmallCar and LargeCar.
+	 */
+	@Test
+	void testGetters() {
+		assertEquals("SmallCar", CarType.SMALL_CAR.getName());
+		assertEquals("SmallCar", CarType.SMALL_CAR.toString());
+		assertEquals(49, CarType.SMALL_CAR.getCapacity());
+		assertEquals(20, CarType.SMALL_CAR.getMinimumAge());
+		assertEquals(1, CarType.SMALL_CAR.getMinimumLicenceYears());
+		assertEquals("LargeCar", CarType.LARGE_CAR.getName());
+		assertEquals(60, CarType.LARGE_CAR.getCapacity());
+		assertEquals(25, CarType.LARGE_CAR.getMinimumAge());
+		assertEquals(5, CarType.LARGE_CAR.getMinimumLicenceYears());
+	}
+
+	/**
+	 * Test method for Car.getType method.
+	 */
+	@Test
+	void testGetType() {
+		assertSame(CarType.SMALL_CAR, new SmallCar("SC01 QBH").getType());
+		assertSame(CarType.LARGE_CAR, new LargeCar("LC01 QBH").getType());
+		assertSame(CarType.LARGE_CAR, new ColumnarFleet(1).addOfType(CarType.LARGE_CAR, "LC02 QBH").getType());
+		assertSame(CarType.SMALL_CAR, new OffHeapFleet(1).addOfType(CarType.SMALL_CAR, "SC02 QBH").getType());
+	}
+
+	/**
+	 * Test method for CarType.register method.
+	 * A registered type can be looked up by name and its cars created as TypedCar.
+	 */
+	@Test
+	void testRegister() {
+		CarType van = CarType.register("Panelvan", 80, km -> (km + 7) / 8, 21, 3);
+		assertSame(van, CarType.of("Panelvan"));
+		assertEquals("Panelvan", van.getName());
+		assertEquals(80, van.getCapacity());
+		assertEquals(21, van.getMinimumAge());
+		assertEquals(3, van.getMinimumLicenceYears());
+		assertEquals(2, van.getConsumption().fuelConsumed(9));
+		assertSame(van, CarType.values()[van.ordinal()]);
+		assertSame(van, CarType.find("x,Panelvan,", 2, 10));
+		assertNull(CarType.find("x,Panelva,", 2, 9));
+
+		// Names must be unique
+		assertThrows(IllegalStateException.class, () -> CarType.register("Panelvan", 80, km -> km, 21, 3));
+		assertThrows(IllegalStateException.class, () -> CarType.register("SmallCar", 80, km -> km, 21, 3));
+	}
+
+	/**
+	 * Test method for CarType.register method.
+	 * Null and invalid parameters are rejected.
+	 */
+	@Test
+	void testRegisterInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> CarType.register(null, 80, km -> km, 21, 3));
+		assertThrows(IllegalArgumentException.class, () -> CarType.register("", 80, km -> km, 21, 3));
+		assertThrows(IllegalArgumentException.class, () -> CarType.register("Mini Bus", 80, km -> km, 21, 3));
+		assertThrows(IllegalArgumentException.class, () -> CarType.register("Mini,Bus", 80, km -> km, 21, 3));
+		assertThrows(IllegalArgumentException.class, () -> CarType.register("Tr\u00e4ger", 80, km -> km, 21, 3));
+		assertThrows(IllegalArgumentException.class, () -> CarType.register("Truck", 0, km -> km, 21, 3));
+		assertThrows(IllegalArgumentException.class, () -> CarType.register("Truck", 40000, km -> km, 21, 3));
+		assertThrows(IllegalArgumentException.class, () -> CarType.register("Truck", 80, null, 21, 3));
+		assertThrows(IllegalArgumentException.class, () -> CarType.register("Truck", 80, km -> km, -1, 3));
+		assertThrows(IllegalArgumentException.class, () -> CarType.register("Truck", 80, km -> km, 21, -1));
+		assertThrows(IllegalArgumentException.class, () -> CarType.of("Truck"));
+	}
+
+	/**
+	 * Test method for TypedCar class.
+	 * A TypedCar, and a view of a car of the same type in a fleet, use the capacity and consumption model of its type.
+	 */
+	@Test
+	void testTypedCar() {
+		CarType pickup = CarType.register("Pickup", 70, km -> (km + 9) / 10, 21, 2);
+		TypedCar car = new TypedCar(pickup, "PU01 QBI");
+		assertSame(pickup, car.getType());
+		assertEquals(70, car.getCapacity());
+		assertEquals("Pickup,PU01 QBI,0", car.toString());
+		assertThrows(IllegalStateException.class, () -> car.drive(10));
+		car.setRental(true);
+		car.fillTank(70);
+		assertEquals(3, car.drive(21));
+		assertEquals(67, car.getFuel());
+
+		Car view = new ColumnarFleet(1).addOfType(pickup, "PU02 QBI");
+		assertSame(pickup, view.getType());
+		assertEquals(70, view.getCapacity());
+		view.setRental(true);
+		view.fillTank(70);
+		assertEquals(3, view.drive(21));
+		assertEquals("Pickup,PU02 QBI,67", view.toString());
+
+		assertThrows(IllegalArgumentException.class, () -> new TypedCar(null, "PU03 QBI"));
+		// The registration number is not registered if the type is invalid
+		new TypedCar(pickup, "PU03 QBI");
+	}
+}
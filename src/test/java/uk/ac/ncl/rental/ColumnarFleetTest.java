@@ -0,0 +1,104 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static uk.ac.ncl.rental.RentalFixtures.personFixture;
+import static uk.ac.ncl.rental.RentalFixtures.dlFixture;
+
+/**
+ * ColumnarFleetTest class.  JUnit test cases for the ColumnarFleet class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class ColumnarFleetTest {
+
+	/**
+	 * Test method for ColumnarFleet.add and ColumnarFleet.get methods.
+	 * Views behave exactly as SmallCar and LargeCar objects do.
+	 */
+	@Test
+	void testViews() {
+		ColumnarFleet fleet = new ColumnarFleet(2);
+		Car small = fleet.add("SmallCar", "SC01 QBF");
+		Car large = fleet.add("LargeCar", "LC01 QBF");
+		assertEquals(2, fleet.size());
+		assertEquals(small, fleet.get(0));
+		assertEquals(small.hashCode(), fleet.get(0).hashCode());
+		assertNotEquals(small, large);
+		assertSame(RegistrationNumber.find("SC01 QBF"), small.getRegistrationNumber());
+
+		assertEquals(49, small.getCapacity());
+		assertEquals(60, large.getCapacity());
+		assertEquals(0, small.getFuel());
+		assertEquals("SmallCar,SC01 QBF,0", small.toString());
+		assertEquals(49, small.fillTank(100));
+		assertTrue(small.isTankFull());
+		assertEquals(10, large.fillTank(10));
+		assertEquals(10, large.getFuel());
+		assertEquals("LargeCar,LC01 QBF,10", large.toString());
+		assertEquals(50, fleet.fuelRequired());
+
+		assertThrows(IllegalStateException.class, () -> small.drive(10));
+		assertTrue(small.claimRental());
+		assertFalse(small.claimRental());
+		assertEquals(1, fleet.rentedCars());
+		assertThrows(IllegalArgumentException.class, () -> small.drive(-1));
+		assertEquals(3, small.drive(41));
+		assertEquals(46, small.getFuel());
+		large.setRental(true);
+		assertEquals(2, fleet.rentedCars());
+		assertEquals(6, large.drive(51));
+		assertEquals(5, large.drive(50));
+		assertEquals(0, large.drive(10));
+		small.setRental(false);
+		large.setRental(false);
+		assertEquals(0, fleet.rentedCars());
+	}
+
+	/**
+	 * Test method for ColumnarFleet.add method.
+	 * Views can be added to, issued and returned by a RentalCompany.
+	 */
+	@Test
+	void testRentalCompany() {
+		ColumnarFleet fleet = new ColumnarFleet(100);
+		RentalCompany rentCo = new RentalCompany();
+		rentCo.addCar(fleet.add("SmallCar", "SC02 QBF"));
+		rentCo.addCar(fleet.add("LargeCar", "LC02 QBF"));
+		assertEquals(1, rentCo.availableCars("SmallCar"));
+		assertEquals(1, rentCo.availableCars("LargeCar"));
+
+		Person p = personFixture("Stephen", "Shephard", 50);
+		assertTrue(rentCo.issueCar(p, dlFixture(p, 30), "LargeCar"));
+		Car car = rentCo.getCar(p);
+		assertEquals(fleet.get(1), car);
+		assertTrue(car.isTankFull());
+		assertEquals(1, fleet.rentedCars());
+		assertEquals(fleet.get(1), rentCo.getRentedCars().iterator().next());
+		assertEquals(5, car.drive(50));
+		assertEquals(5, rentCo.terminateRental(p));
+		assertEquals(0, fleet.rentedCars());
+		assertEquals(1, rentCo.availableCars("LargeCar"));
+	}
+
+	/**
+	 * Test method for ColumnarFleet.add and ColumnarFleet.get methods with invalid parameters.
+	 */
+	@Test
+	void testInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> new ColumnarFleet(-1));
+		ColumnarFleet fleet = new ColumnarFleet(1);
+		assertThrows(IllegalArgumentException.class, () -> fleet.add(null, "SC03 QBF"));
+		assertThrows(IllegalArgumentException.class, () -> fleet.add("MediumCar", "SC03 QBF"));
+		assertThrows(IllegalArgumentException.class, () -> fleet.add("SmallCar", null));
+		assertThrows(IllegalArgumentException.class, () -> fleet.add("SmallCar", "SC03QBF"));
+		assertThrows(IllegalArgumentException.class, () -> fleet.get(0));
+		fleet.add("SmallCar", "SC03 QBF");
+		assertThrows(IllegalStateException.class, () -> fleet.add("SmallCar", "SC04 QBF"));
+		// The Registration Number of a car that could not be added was not registered
+		assertNull(RegistrationNumber.find("SC04 QBF"));
+		assertThrows(IllegalStateException.class, () -> new ColumnarFleet(1).add("SmallCar", "SC03 QBF"));
+		assertThrows(IllegalArgumentException.class, () -> fleet.get(1));
+	}
+}
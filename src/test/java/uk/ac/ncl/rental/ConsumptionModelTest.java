@@ -0,0 +1,76 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ConsumptionModelTest class.  JUnit test cases for the ConsumptionModel interface and TieredConsumption class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class ConsumptionModelTest {
+
+	/**
+	 * Fuel consumed at a given rate, in whole litres rounded up, computed by division as SmallCar and LargeCar always have.
+	 */
+	private static int litres(int km, int kmPerLitre) {
+		return km%kmPerLitre == 0 ? km/kmPerLitre : km/kmPerLitre + 1;
+	}
+
+	/**
+	 * Test method for SmallCar and LargeCar consumption models.
+	 * The fuel is identical to the rounding rules of SmallCar and LargeCar, for short journeys and the longest.
+	 */
+	@Test
+	void testSmallAndLargeCar() {
+		for (int km=0; km<1_000_000; km++) {
+			assertEquals(litres(km, 20), SmallCar.CONSUMPTION.fuelConsumed(km));
+			assertEquals(km <= 50 ? litres(km, 10) : 5 + litres(km - 50, 15), LargeCar.CONSUMPTION.fuelConsumed(km));
+		}
+		for (int km=Integer.MAX_VALUE; km>Integer.MAX_VALUE - 1000; km--) {
+			assertEquals(litres(km, 20), SmallCar.CONSUMPTION.fuelConsumed(km));
+			assertEquals(5 + litres(km - 50, 15), LargeCar.CONSUMPTION.fuelConsumed(km));
+		}
+		assertSame(SmallCar.CONSUMPTION, CarType.SMALL_CAR.getConsumption());
+		assertSame(LargeCar.CONSUMPTION, CarType.LARGE_CAR.getConsumption());
+	}
+
+	/**
+	 * Test method for ConsumptionModel.uniform and ConsumptionModel.tiered methods.
+	 * The fuel is exact for any rates and distances, including rates that are powers of two and the largest.
+	 */
+	@Test
+	void testTiered() {
+		Random random = new Random(23);
+		int[] rates = {1, 2, 3, 7, 16, 1000, 65536, 65537, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+		for (int rate : rates) {
+			ConsumptionModel model = ConsumptionModel.uniform(rate);
+			for (int i=0; i<10_000; i++) {
+				int km = i < 5000 ? i : random.nextInt(Integer.MAX_VALUE);
+				assertEquals(litres(km, rate), model.fuelConsumed(km));
+			}
+			assertEquals(litres(Integer.MAX_VALUE, rate), model.fuelConsumed(Integer.MAX_VALUE));
+		}
+		ConsumptionModel model = ConsumptionModel.tiered(33, 7, 12);
+		for (int km=0; km<10_000; km++) {
+			assertEquals(litres(Math.min(km, 33), 7) + litres(Math.max(km - 33, 0), 12), model.fuelConsumed(km));
+		}
+		assertEquals("20km/l", SmallCar.CONSUMPTION.toString());
+		assertEquals("10km/l to 50km,15km/l", LargeCar.CONSUMPTION.toString());
+	}
+
+	/**
+	 * Test method for ConsumptionModel.uniform and ConsumptionModel.tiered methods.
+	 * Invalid parameters are rejected.
+	 */
+	@Test
+	void testTieredInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> ConsumptionModel.uniform(0));
+		assertThrows(IllegalArgumentException.class, () -> ConsumptionModel.tiered(-1, 10, 15));
+		assertThrows(IllegalArgumentException.class, () -> ConsumptionModel.tiered(50, 0, 15));
+		assertThrows(IllegalArgumentException.class, () -> ConsumptionModel.tiered(50, 10, -15));
+	}
+}
@@ -6,6 +6,7 @@ package uk.ac.ncl.rental;
 import org.junit.jupiter.api.Test;
 import java.util.Date;
 import java.util.Calendar;
+import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -106,6 +107,18 @@ class DrivingLicenceTest {
 		assertEquals(issued2, dl.getIssued());
 	}
 	
+	/**
+	 * Test method for DrivingLicence.issuedEpochDay method.
+	 */
+	@Test
+	void testIssuedEpochDay() {
+		Calendar cIssued = Calendar.getInstance();
+		cIssued.set(2015,Calendar.MARCH,22);
+		DrivingLicence dl = new DrivingLicence(new Name("Tom", "Smithson"), cIssued.getTime(), true);
+		
+		assertEquals(LocalDate.of(2015, 3, 22).toEpochDay(), dl.issuedEpochDay());
+	}
+	
 	/**
 	 * Test method for DrivingLicence.toString method.
 	 */
@@ -119,4 +132,30 @@ class DrivingLicenceTest {
 		assertEquals("GP-1998-1,11/02/1998,true", dl.toString());
 	}
 
+	/**
+	 * Test method for DrivingLicence.of method.
+	 */
+	@Test
+	void testDrivingLicenceLocalDate() {
+		DrivingLicence dl = DrivingLicence.of(new Name("Ursula", "Quill"), LocalDate.of(1999, 4, 3), false);
+
+		assertEquals(LocalDate.of(1999, 4, 3), dl.getIssuedLocalDate());
+		assertEquals(1999, dl.getLicenceNumber().getYear());
+		assertEquals("UQ-1999-1,03/04/1999,false", dl.toString());
+	}
+
+	/**
+	 * Test method for DrivingLicence.of method.
+	 * Missing or invalid date.
+	 */
+	@Test
+	void testDrivingLicenceLocalDateInvalid() {
+		final Name name = new Name("Ursula", "Quill");
+		assertThrows(IllegalArgumentException.class, () -> DrivingLicence.of(name, null, true));
+		assertThrows(IllegalArgumentException.class, () -> DrivingLicence.of(name, LocalDate.now().plusDays(1), true));
+		// Too many days before the epoch for an int
+		assertThrows(IllegalArgumentException.class, () -> DrivingLicence.of(name, LocalDate.MIN, true));
+		assertThrows(IllegalArgumentException.class, () -> new DrivingLicence(name, new Date(Long.MIN_VALUE), true));
+	}
+
 }
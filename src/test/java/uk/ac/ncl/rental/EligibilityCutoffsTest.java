@@ -0,0 +1,96 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EligibilityCutoffsTest class.  JUnit test cases for the EligibilityCutoffs class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class EligibilityCutoffsTest {
+
+	/**
+	 * Test method for EligibilityCutoffs.yearsAgo method.
+	 */
+	@Test
+	void testYearsAgo() {
+		ZoneId zone = ZoneOffset.UTC;
+		LocalDate today = LocalDate.of(2021, 6, 15);
+		EligibilityCutoffs cutoffs = new EligibilityCutoffs(zone, today.atTime(13, 30).toInstant(ZoneOffset.UTC).toEpochMilli());
+
+		assertEquals(today.toEpochDay(), cutoffs.yearsAgo(0));
+		assertEquals(LocalDate.of(2020, 6, 15).toEpochDay(), cutoffs.yearsAgo(1));
+		assertEquals(LocalDate.of(1996, 6, 15).toEpochDay(), cutoffs.yearsAgo(25));
+		// Beyond the precomputed range
+		assertEquals(LocalDate.of(1821, 6, 15).toEpochDay(), cutoffs.yearsAgo(200));
+	}
+
+	/**
+	 * Test method for EligibilityCutoffs.yearsAgo method.
+	 * 29 February becomes 28 February in a year that is not a leap year.
+	 */
+	@Test
+	void testYearsAgoLeapDay() {
+		EligibilityCutoffs cutoffs = new EligibilityCutoffs(ZoneOffset.UTC,
+				LocalDate.of(2024, 2, 29).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli());
+
+		assertEquals(LocalDate.of(2023, 2, 28).toEpochDay(), cutoffs.yearsAgo(1));
+		assertEquals(LocalDate.of(2020, 2, 29).toEpochDay(), cutoffs.yearsAgo(4));
+	}
+
+	/**
+	 * Test method for EligibilityCutoffs.expires method.
+	 * Cutoffs expire at the start of the next day.
+	 */
+	@Test
+	void testExpires() {
+		LocalDate today = LocalDate.of(2021, 6, 15);
+		EligibilityCutoffs cutoffs = new EligibilityCutoffs(ZoneOffset.UTC, today.atTime(23, 59).toInstant(ZoneOffset.UTC).toEpochMilli());
+
+		assertEquals(today.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli(), cutoffs.expires());
+	}
+
+	/**
+	 * Test method for EligibilityCutoffs.current method.
+	 * The cached cutoffs are replaced if the clock is set back before their day or the time zone changes.
+	 */
+	@Test
+	void testCurrentClockOrZoneChanged() {
+		LocalDate today = LocalDate.of(2021, 6, 15);
+		long now = today.atTime(13, 30).toInstant(ZoneOffset.UTC).toEpochMilli();
+		EligibilityCutoffs cutoffs = EligibilityCutoffs.current(ZoneOffset.UTC, now);
+		assertEquals(today.toEpochDay(), cutoffs.yearsAgo(0));
+		assertSame(cutoffs, EligibilityCutoffs.current(ZoneOffset.UTC, now + 60000));
+
+		// The clock is set back to the day before
+		EligibilityCutoffs earlier = EligibilityCutoffs.current(ZoneOffset.UTC, now - 86400000L);
+		assertEquals(today.minusDays(1).toEpochDay(), earlier.yearsAgo(0));
+
+		// The time zone changes to one in which it is already the next day
+		EligibilityCutoffs zoned = EligibilityCutoffs.current(ZoneOffset.ofHours(12), now);
+		assertEquals(today.plusDays(1).toEpochDay(), zoned.yearsAgo(0));
+		assertNotSame(zoned, EligibilityCutoffs.current(ZoneOffset.UTC, now));
+
+		// The cutoffs for the current day and zone are restored
+		assertEquals(LocalDate.now().toEpochDay(), EligibilityCutoffs.current().yearsAgo(0), 1);
+	}
+
+	/**
+	 * Test method for EligibilityCutoffs.current method.
+	 * The same cutoffs are reused until the day changes.
+	 */
+	@Test
+	void testCurrent() {
+		EligibilityCutoffs cutoffs = EligibilityCutoffs.current();
+		assertEquals(LocalDate.now().toEpochDay(), cutoffs.yearsAgo(0), 1); // allow for the day changing during the test
+		if (System.currentTimeMillis() < cutoffs.expires()) {
+			assertSame(cutoffs, EligibilityCutoffs.current());
+		}
+	}
+}
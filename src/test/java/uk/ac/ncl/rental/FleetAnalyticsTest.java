@@ -0,0 +1,110 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FleetAnalyticsTest class.  JUnit test cases for the FleetAnalytics class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class FleetAnalyticsTest {
+
+	/**
+	 * Test method for FleetAnalytics.of method and statistics.
+	 * Totals, counts and the distribution of fuel are computed for the whole fleet and for each type of car.
+	 */
+	@Test
+	void testOfRentalCompany() {
+		CarType coach = CarType.register("Coach", 100, ConsumptionModel.uniform(4), 25, 5);
+		RentalCompany rentCo = new RentalCompany();
+		int[] smallFuel = {49, 10, 0};
+		for (int i=0; i<smallFuel.length; i++) {
+			SmallCar car = new SmallCar("SC0" + (i + 1) + " QBK");
+			car.fillTank(smallFuel[i]);
+			rentCo.addCar(car);
+		}
+		LargeCar lc1 = new LargeCar("LC01 QBK");
+		lc1.fillTank(60);
+		rentCo.addCar(lc1);
+		LargeCar lc2 = new LargeCar("LC02 QBK");
+		lc2.fillTank(14);
+		rentCo.addCar(lc2);
+		TypedCar cc1 = new TypedCar(coach, "CC01 QBK");
+		cc1.fillTank(30);
+		rentCo.addCar(cc1);
+
+		FleetAnalytics analytics = FleetAnalytics.of(rentCo);
+		assertEquals(6, analytics.size());
+		assertEquals(3, analytics.size(CarType.SMALL_CAR));
+		assertEquals(1, analytics.size(coach));
+		assertEquals(204, analytics.totalRefuelLitres());
+		assertEquals(88, analytics.totalRefuelLitres(CarType.SMALL_CAR));
+		assertEquals(46, analytics.totalRefuelLitres(CarType.LARGE_CAR));
+		assertEquals(70, analytics.totalRefuelLitres(coach));
+
+		// Less than a quarter of a tank is less than 13 litres for a small car and 15 litres for a large car
+		assertEquals(3, analytics.countBelow(25));
+		assertEquals(2, analytics.countBelow(CarType.SMALL_CAR, 25));
+		assertEquals(0, analytics.countBelow(0));
+		assertEquals(4, analytics.countBelow(100));
+		assertArrayEquals(new int[] {3, 1, 0, 2}, analytics.distribution(4));
+		assertArrayEquals(new int[] {6}, analytics.distribution(1));
+
+		// The copy does not change with the fleet, and has no cars of types registered after it was taken
+		lc1.consumeFuel(60);
+		assertEquals(204, analytics.totalRefuelLitres());
+		CarType bus = CarType.register("Bus", 80, ConsumptionModel.uniform(5), 25, 5);
+		assertEquals(0, analytics.size(bus));
+		assertEquals(0, analytics.totalRefuelLitres(bus));
+		assertEquals(0, analytics.countBelow(bus, 50));
+		assertEquals(264, FleetAnalytics.of(rentCo).totalRefuelLitres());
+	}
+
+	/**
+	 * Test method for FleetAnalytics.of method.
+	 * The views of a flyweight fleet are copied like any other cars, and cars with negative fuel are counted as empty.
+	 */
+	@Test
+	void testOfCars() {
+		ColumnarFleet fleet = new ColumnarFleet(2);
+		Car sc = fleet.addOfType(CarType.SMALL_CAR, "SC04 QBK");
+		Car lc = fleet.addOfType(CarType.LARGE_CAR, "LC03 QBK");
+		lc.fillTank(30);
+		lc.setRental(true);
+		lc.drive(430);
+		assertEquals(-1, lc.getFuel());
+
+		FleetAnalytics analytics = FleetAnalytics.of(Arrays.asList(lc, sc));
+		assertEquals(2, analytics.size());
+		assertEquals(49 + 61, analytics.totalRefuelLitres());
+		assertEquals(2, analytics.countBelow(1));
+		assertArrayEquals(new int[] {2, 0}, analytics.distribution(2));
+
+		FleetAnalytics empty = FleetAnalytics.of(Collections.emptyList());
+		assertEquals(0, empty.size());
+		assertEquals(0, empty.totalRefuelLitres());
+		assertArrayEquals(new int[3], empty.distribution(3));
+	}
+
+	/**
+	 * Test method for FleetAnalytics methods.
+	 * Null and invalid parameters are rejected.
+	 */
+	@Test
+	void testInvalid() {
+		FleetAnalytics analytics = FleetAnalytics.of(new RentalCompany());
+		assertThrows(IllegalArgumentException.class, () -> FleetAnalytics.of((RentalCompany) null));
+		assertThrows(IllegalArgumentException.class, () -> FleetAnalytics.of(Arrays.asList((Car) null)));
+		assertThrows(IllegalArgumentException.class, () -> analytics.size(null));
+		assertThrows(IllegalArgumentException.class, () -> analytics.totalRefuelLitres(null));
+		assertThrows(IllegalArgumentException.class, () -> analytics.countBelow(-1));
+		assertThrows(IllegalArgumentException.class, () -> analytics.countBelow(101));
+		assertThrows(IllegalArgumentException.class, () -> analytics.countBelow(null, 50));
+		assertThrows(IllegalArgumentException.class, () -> analytics.distribution(0));
+	}
+}
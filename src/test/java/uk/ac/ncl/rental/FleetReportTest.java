@@ -0,0 +1,157 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static uk.ac.ncl.rental.RentalFixtures.personFixture;
+import static uk.ac.ncl.rental.RentalFixtures.dlFixture;
+
+/**
+ * FleetReportTest class.  JUnit test cases for the FleetReport class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class FleetReportTest {
+
+	/**
+	 * Test method for RentalCompany.report method and FleetReport queries.
+	 * Queries are answered from the snapshot, which does not change with the company.
+	 */
+	@Test
+	void testReport() {
+		RentalCompany rentCo = new RentalCompany();
+		SmallCar sc1 = new SmallCar("AB01 QBL");
+		SmallCar sc2 = new SmallCar("AB02 QBL");
+		LargeCar lc1 = new LargeCar("AC01 QBL");
+		LargeCar lc2 = new LargeCar("BA01 QBL");
+		for (Car car : new Car[] {sc1, sc2, lc1, lc2}) {
+			rentCo.addCar(car);
+		}
+		sc2.fillTank(20);
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		assertTrue(rentCo.issueCarOfType(p1, dlFixture(p1, 30), CarType.LARGE_CAR));
+
+		FleetReport report = rentCo.report();
+		assertEquals(4, report.size());
+		assertEquals(2, report.count(CarType.SMALL_CAR, false));
+		assertEquals(0, report.count(CarType.SMALL_CAR, true));
+		assertEquals(1, report.count(CarType.LARGE_CAR, true));
+		assertEquals(1, report.count(CarType.LARGE_CAR, false));
+
+		// The rented large car had its tank filled when it was issued
+		assertEquals(new HashSet<>(Arrays.asList(sc1, lc2.isRented() ? lc1 : lc2)), new HashSet<>(report.carsBelow(20)));
+		assertEquals(3, report.carsBelow(21).size());
+		assertTrue(report.carsBelow(0).isEmpty());
+
+		SortedMap<String, Integer> byPrefix = report.countByPrefix(2);
+		assertEquals(Arrays.asList("AB", "AC", "BA"), Arrays.asList(byPrefix.keySet().toArray()));
+		assertEquals(2, byPrefix.get("AB"));
+		assertEquals(3, report.countByPrefix(1).get("A"));
+		assertEquals(1, report.countByPrefix(4).get("AB02"));
+
+		// The report does not change with the company
+		assertEquals(0, rentCo.terminateRental(p1));
+		assertEquals(1, report.count(CarType.LARGE_CAR, true));
+		assertEquals(0, rentCo.report().count(CarType.LARGE_CAR, true));
+
+		assertThrows(IllegalArgumentException.class, () -> report.count(null, true));
+		assertThrows(IllegalArgumentException.class, () -> report.countByPrefix(0));
+		assertThrows(IllegalArgumentException.class, () -> report.countByPrefix(5));
+	}
+
+	/**
+	 * Test method for FleetReport queries.
+	 * Queries over a fleet large enough to be split across fork-join tasks give the same results as a sequential scan.
+	 */
+	@Test
+	void testReportParallel() {
+		RentalCompany rentCo = new RentalCompany();
+		int count = 26 * 26 * 40;
+		for (int i=0; i<count; i++) {
+			String rn = "" + (char) ('A' + i / 1040) + (char) ('A' + i / 40 % 26) + (char) ('0' + i / 10 % 4) + (char) ('0' + i % 10) + " QBM";
+			Car car = i % 3 == 0 ? new LargeCar(rn) : new SmallCar(rn);
+			car.fillTank(i % 50);
+			rentCo.addCar(car);
+		}
+		FleetReport report = rentCo.report();
+		assertEquals(count, report.size());
+		assertEquals(count / 3 + 1, report.count(CarType.LARGE_CAR, false));
+		assertEquals(count - count / 3 - 1, report.count(CarType.SMALL_CAR, false));
+		assertEquals(0, report.count(CarType.SMALL_CAR, true));
+
+		List<Car> below = report.carsBelow(10);
+		assertEquals(count / 50 * 10 + Math.min(count % 50, 10), below.size());
+		for (Car car : below) {
+			assertTrue(car.getFuel() < 10);
+		}
+
+		SortedMap<String, Integer> byPrefix = report.countByPrefix(2);
+		assertEquals(26 * 26, byPrefix.size());
+		assertEquals("AA", byPrefix.firstKey());
+		assertEquals("ZZ", byPrefix.lastKey());
+		for (int n : byPrefix.values()) {
+			assertEquals(40, n);
+		}
+		assertEquals(26, report.countByPrefix(1).size());
+		assertEquals(count, report.countByPrefix(4).size());
+	}
+
+	/**
+	 * Test method for RentalCompany.report method.
+	 * Reports taken while other threads issue and return cars copy the rental status and fuel of each car together.
+	 */
+	@Test
+	void testReportConcurrent() throws Exception {
+		RentalCompany rentCo = new RentalCompany();
+		int count = 100;
+		for (int i=0; i<count; i++) {
+			rentCo.addCar(new SmallCar(String.format("SC%1$02d QBU", i)));
+		}
+
+		int threads = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		AtomicBoolean done = new AtomicBoolean();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t=0; t<threads; t++) {
+				Person p = personFixture("Thread", "Number" + (char) ('a' + t), 40);
+				DrivingLicence dl = dlFixture(p, 10);
+				futures.add(executor.submit(() -> {
+					while (!done.get()) {
+						// Cars are returned without being driven, so every car that has ever been issued has a full tank
+						if (rentCo.issueCarOfType(p, dl, CarType.SMALL_CAR)) {
+							rentCo.terminateRental(p);
+						}
+					}
+				}));
+			}
+			for (int r=0; r<500; r++) {
+				FleetReport report = rentCo.report();
+				assertEquals(count, report.size());
+				int rented = report.count(CarType.SMALL_CAR, true);
+				assertEquals(count, rented + report.count(CarType.SMALL_CAR, false));
+				assertTrue(rented <= threads);
+				// A car reported as rented was copied with the full tank it was issued with
+				assertTrue(rented <= count - report.carsBelow(SmallCar.CAPACITY).size());
+			}
+			done.set(true);
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			done.set(true);
+			executor.shutdown();
+		}
+		assertEquals(0, rentCo.report().count(CarType.SMALL_CAR, true));
+	}
+}
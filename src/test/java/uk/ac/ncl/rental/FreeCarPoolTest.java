@@ -0,0 +1,72 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FreeCarPoolTest class.  JUnit test cases for the FreeCarPool class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class FreeCarPoolTest {
+
+	/**
+	 * Test method for FreeCarPool.take method.
+	 * An empty pool has no car to take.
+	 */
+	@Test
+	void testTakeEmpty() {
+		FreeCarPool pool = new FreeCarPool();
+		assertEquals(0, pool.size());
+		assertNull(pool.take());
+	}
+
+	/**
+	 * Test method for FreeCarPool.take and FreeCarPool.release methods.
+	 * Cars are taken in the order they were released.
+	 */
+	@Test
+	void testTakeRelease() {
+		FreeCarPool pool = new FreeCarPool();
+		SmallCar sc1 = new SmallCar("SC01 QAB");
+		SmallCar sc2 = new SmallCar("SC02 QAB");
+		pool.release(sc1);
+		pool.release(sc2);
+		assertEquals(2, pool.size());
+
+		assertSame(sc1, pool.take());
+		assertEquals(1, pool.size());
+		// Taking a car claims it for rental
+		assertTrue(sc1.isRented());
+
+		// A returned car goes to the back of the pool
+		sc1.setRental(false);
+		pool.release(sc1);
+		assertSame(sc2, pool.take());
+		assertSame(sc1, pool.take());
+		assertNull(pool.take());
+	}
+
+	/**
+	 * Test method for FreeCarPool.take method.
+	 * A car that has already been claimed elsewhere is skipped, but kept in the pool until it is free again.
+	 */
+	@Test
+	void testTakeSkipsClaimedCar() {
+		FreeCarPool pool = new FreeCarPool();
+		LargeCar lc1 = new LargeCar("LC01 QAB");
+		LargeCar lc2 = new LargeCar("LC02 QAB");
+		pool.release(lc1);
+		pool.release(lc2);
+
+		assertTrue(lc1.claimRental());
+		assertSame(lc2, pool.take());
+		assertEquals(1, pool.size());
+		assertNull(pool.take());
+		assertEquals(1, pool.size());
+
+		lc1.setRental(false);
+		assertSame(lc1, pool.take());
+		assertEquals(0, pool.size());
+	}
+}
@@ -0,0 +1,55 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FuelRefillReportTest class.  JUnit test cases for the FuelRefillReport class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class FuelRefillReportTest {
+
+	/**
+	 * Test method for FuelRefillReport.record method.
+	 * Litres are recorded per person and totalled per type of car.
+	 */
+	@Test
+	void testRecord() {
+		Person p1 = Person.of(new Name("Una", "Quinn"), LocalDate.of(1970, 1, 1));
+		Person p2 = Person.of(new Name("Vic", "Quinn"), LocalDate.of(1975, 1, 1));
+		Person p3 = Person.of(new Name("Wes", "Quinn"), LocalDate.of(1980, 1, 1));
+		FuelRefillReport report = new FuelRefillReport(new Person[] {p1, p2, p3});
+		report.record(0, CarType.SMALL_CAR, 3);
+		report.record(2, CarType.LARGE_CAR, 7);
+
+		assertEquals(3, report.size());
+		assertSame(p2, report.getPerson(1));
+		assertEquals(3, report.getLitres(0));
+		assertEquals(0, report.getLitres(1));
+		assertEquals(7, report.getLitres(2));
+		assertEquals(3, report.getTotalLitres("SmallCar"));
+		assertEquals(7, report.getTotalLitres("LargeCar"));
+		assertEquals(3, report.getTotalLitresOfType(CarType.SMALL_CAR));
+		assertEquals(7, report.getTotalLitresOfType(CarType.LARGE_CAR));
+		assertEquals(10, report.getTotalLitres());
+		assertEquals("SmallCar=3,LargeCar=7,persons=3", report.toString());
+		assertThrows(IndexOutOfBoundsException.class, () -> report.getLitres(3));
+	}
+
+	/**
+	 * Test method for FuelRefillReport.getTotalLitres method.
+	 * Type of car must be SmallCar or LargeCar.
+	 */
+	@Test
+	void testGetTotalLitresInvalid() {
+		FuelRefillReport report = new FuelRefillReport(new Person[0]);
+		assertEquals(0, report.getTotalLitres());
+		assertThrows(IllegalArgumentException.class, () -> report.getTotalLitres(null));
+		assertThrows(IllegalArgumentException.class, () -> report.getTotalLitres("Van"));
+		assertThrows(IllegalArgumentException.class, () -> report.getTotalLitresOfType(null));
+	}
+}
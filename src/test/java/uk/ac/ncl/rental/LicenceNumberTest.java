@@ -1,6 +1,14 @@
 package uk.ac.ncl.rental;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -92,5 +100,41 @@ class LicenceNumberTest {
 		LicenceNumber ln = new LicenceNumber(new Name("James", "Davies"), 1987);
 		assertEquals("JD-1987-1", ln.toString());
 	}
-
+	
+	/**
+	 * Test method for LicenceNumber Constructor.
+	 * Serial numbers created from many threads at once must be unique and consecutive.
+	 */
+	@Test
+	void testLicenceNumberConcurrentSerialNum() throws Exception {
+		final Name name = new Name("Quincy", "Quarrie");
+		final int threads = 8;
+		final int perThread = 500;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<List<Integer>>> futures = new ArrayList<>();
+			for (int t=0; t<threads; t++) {
+				futures.add(executor.submit(() -> {
+					List<Integer> serials = new ArrayList<>();
+					for (int i=0; i<perThread; i++) {
+						serials.add(new LicenceNumber(name, 1961).getSerialNum());
+					}
+					return serials;
+				}));
+			}
+			boolean[] seen = new boolean[threads * perThread + 1];
+			for (Future<List<Integer>> f : futures) {
+				for (int serial : f.get(60, TimeUnit.SECONDS)) {
+					assertFalse(seen[serial]); // unique
+					seen[serial] = true;
+				}
+			}
+			// consecutive from 1
+			for (int serial=1; serial<seen.length; serial++) {
+				assertTrue(seen[serial]);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
 }
@@ -2,6 +2,7 @@ package uk.ac.ncl.rental;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -128,6 +129,26 @@ class NameTest {
         assertEquals(n1.hashCode(), n2.hashCode());
     }
 
+    /**
+     * Test method for Name.hashCode method.
+     * Tests that the cached hashcode is the same for equal Name objects however they were constructed, and does not
+     * change between calls.
+     */
+    @Test
+    void testHashCodeCached() {
+        Name n1 = new Name("John", "Smith");
+        Name n2 = Name.valueOf("John Smith");
+
+        assertEquals(n1, n2);
+        assertEquals(n1.hashCode(), n2.hashCode());
+
+        // consistent
+        int hash = n1.hashCode();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(hash, n1.hashCode());
+        }
+    }
+
     /**
      * Test method for Name.toString method.
      */
@@ -165,4 +186,43 @@ class NameTest {
         assertThrows(IllegalArgumentException.class, () -> Name.valueOf(fullname));
     }
 
+    /**
+     * Test method for Name.parse method.
+     */
+    @Test
+    void testNameParse() {
+        assertEquals(new Name("John", "Smith"), Name.parse("John Smith"));
+        assertEquals(new Name("John", "Smith"), Name.parse(new StringBuilder("John Smith")));
+        // Trailing spaces are ignored, as they are by valueOf
+        assertEquals(new Name("John", "Smith"), Name.parse("John Smith  "));
+    }
+
+    /**
+     * Test method for invalid Name.parse method.
+     * The exception messages must be the same as those of valueOf.
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "John Q Smith|There must be two names separated by space",
+            "Smith|There must be two names separated by space",
+            "''|There must be two names separated by space",
+            "John  Smith|There must be two names separated by space",
+            "' Smith'|First name must begin with an uppercase letter followed only by lowercase letters",
+            "JOHN smith|First name must begin with an uppercase letter followed only by lowercase letters",
+            "John smith|Last name must begin with an uppercase letter followed only by lowercase letters",
+            "John Sm1th|Last name must begin with an uppercase letter followed only by lowercase letters"})
+    void testNameInvalidParse(String fullname, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Name.parse(fullname));
+        assertEquals(message, e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> Name.valueOf(fullname));
+        assertEquals(message, e.getMessage());
+    }
+
+    /**
+     * Test method for null Name.parse method.
+     */
+    @Test
+    void testNameNullParse() {
+        assertThrows(IllegalArgumentException.class, () -> Name.parse(null));
+    }
 }
@@ -0,0 +1,105 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static uk.ac.ncl.rental.RentalFixtures.personFixture;
+import static uk.ac.ncl.rental.RentalFixtures.dlFixture;
+
+/**
+ * OffHeapFleetTest class.  JUnit test cases for the OffHeapFleet class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class OffHeapFleetTest {
+
+	/**
+	 * Test method for OffHeapFleet.add and OffHeapFleet.get methods.
+	 * Views behave exactly as SmallCar and LargeCar objects do.
+	 */
+	@Test
+	void testViews() {
+		OffHeapFleet fleet = new OffHeapFleet(2);
+		Car small = fleet.add("SmallCar", "SC01 QBG");
+		Car large = fleet.add("LargeCar", "LC01 QBG");
+		assertEquals(2, fleet.size());
+		assertEquals(small, fleet.get(0));
+		assertEquals(small.hashCode(), fleet.get(0).hashCode());
+		assertNotEquals(small, large);
+		assertSame(RegistrationNumber.find("SC01 QBG"), small.getRegistrationNumber());
+
+		assertEquals(49, small.getCapacity());
+		assertEquals(60, large.getCapacity());
+		assertEquals(0, small.getFuel());
+		assertEquals("SmallCar,SC01 QBG,0", small.toString());
+		assertEquals(49, small.fillTank(100));
+		assertTrue(small.isTankFull());
+		assertEquals(10, large.fillTank(10));
+		assertEquals(10, large.getFuel());
+		assertEquals("LargeCar,LC01 QBG,10", large.toString());
+		assertEquals(50, fleet.fuelRequired());
+
+		assertThrows(IllegalStateException.class, () -> small.drive(10));
+		assertTrue(small.claimRental());
+		assertFalse(small.claimRental());
+		assertEquals(1, fleet.rentedCars());
+		assertThrows(IllegalArgumentException.class, () -> small.drive(-1));
+		assertEquals(3, small.drive(41));
+		assertEquals(46, small.getFuel());
+		large.setRental(true);
+		assertEquals(2, fleet.rentedCars());
+		assertEquals(6, large.drive(51));
+		assertEquals(5, large.drive(50));
+		assertEquals(0, large.drive(10));
+		small.setRental(false);
+		large.setRental(false);
+		assertEquals(0, fleet.rentedCars());
+	}
+
+	/**
+	 * Test method for OffHeapFleet.add method.
+	 * Views can be added to, issued and returned by a RentalCompany.
+	 */
+	@Test
+	void testRentalCompany() {
+		OffHeapFleet fleet = new OffHeapFleet(100);
+		RentalCompany rentCo = new RentalCompany();
+		rentCo.addCar(fleet.add("SmallCar", "SC02 QBG"));
+		rentCo.addCar(fleet.add("LargeCar", "LC02 QBG"));
+		assertEquals(1, rentCo.availableCars("SmallCar"));
+		assertEquals(1, rentCo.availableCars("LargeCar"));
+
+		Person p = personFixture("Stephen", "Shephard", 50);
+		assertTrue(rentCo.issueCar(p, dlFixture(p, 30), "LargeCar"));
+		Car car = rentCo.getCar(p);
+		assertEquals(fleet.get(1), car);
+		assertTrue(car.isTankFull());
+		assertEquals(1, fleet.rentedCars());
+		assertEquals(fleet.get(1), rentCo.getRentedCars().iterator().next());
+		assertEquals(5, car.drive(50));
+		assertEquals(5, rentCo.terminateRental(p));
+		assertEquals(0, fleet.rentedCars());
+		assertEquals(1, rentCo.availableCars("LargeCar"));
+	}
+
+	/**
+	 * Test method for OffHeapFleet.add and OffHeapFleet.get methods with invalid parameters.
+	 */
+	@Test
+	void testInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> new OffHeapFleet(-1));
+		assertThrows(IllegalArgumentException.class, () -> new OffHeapFleet(OffHeapFleet.MAX_CARS + 1));
+		OffHeapFleet fleet = new OffHeapFleet(1);
+		assertThrows(IllegalArgumentException.class, () -> fleet.add(null, "SC03 QBG"));
+		assertThrows(IllegalArgumentException.class, () -> fleet.add("MediumCar", "SC03 QBG"));
+		assertThrows(IllegalArgumentException.class, () -> fleet.add("SmallCar", null));
+		assertThrows(IllegalArgumentException.class, () -> fleet.add("SmallCar", "SC03QBG"));
+		assertThrows(IllegalArgumentException.class, () -> fleet.get(0));
+		fleet.add("SmallCar", "SC03 QBG");
+		assertThrows(IllegalStateException.class, () -> fleet.add("SmallCar", "SC04 QBG"));
+		// The Registration Number of a car that could not be added was not registered
+		assertNull(RegistrationNumber.find("SC04 QBG"));
+		assertThrows(IllegalStateException.class, () -> new OffHeapFleet(1).add("SmallCar", "SC03 QBG"));
+		assertThrows(IllegalArgumentException.class, () -> fleet.get(1));
+	}
+}
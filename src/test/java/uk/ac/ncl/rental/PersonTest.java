@@ -1,8 +1,11 @@
 package uk.ac.ncl.rental;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
 import java.util.Date;
 import java.util.Calendar;
+import java.util.TimeZone;
+import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -143,6 +146,29 @@ class PersonTest {
 		assertEquals(p1.hashCode(), p2.hashCode());
 	}
 
+	/**
+	 * Test method for Person.hashCode method.
+	 * Tests that the cached hashcode is the same for equal Person objects however they were constructed, and does not
+	 * change between calls.
+	 */
+	@Test
+	void testHashCodeCached() {
+		Calendar cDOB = Calendar.getInstance();
+		cDOB.clear();
+		cDOB.set(1987,Calendar.JANUARY,1);
+		Person p1 = new Person(new Name("Amy", "Mclean"), cDOB.getTime());
+		Person p2 = Person.of(Name.valueOf("Amy Mclean"), LocalDate.of(1987, 1, 1));
+
+		assertEquals(p1, p2);
+		assertEquals(p1.hashCode(), p2.hashCode());
+
+		// consistent
+		int hash = p1.hashCode();
+		for (int i=0; i<100; i++) {
+			assertEquals(hash, p1.hashCode());
+		}
+	}
+
 	/**
 	 * Test method for Person.toString method.
 	 */
@@ -156,4 +182,96 @@ class PersonTest {
 		assertEquals("Peter Thompson,18/07/1975", p.toString());
 	}
 
+	/**
+	 * Test method for Person.birthEpochDay method.
+	 */
+	@Test
+	void testBirthEpochDay() {
+		Calendar cDOB = Calendar.getInstance();
+		cDOB.set(1979,Calendar.SEPTEMBER,7);
+		Person p = new Person(new Name("Patrick", "Chan"), cDOB.getTime());
+
+		assertEquals(LocalDate.of(1979, 9, 7).toEpochDay(), p.birthEpochDay());
+	}
+
+	/**
+	 * Test method for Person.of method.
+	 */
+	@Test
+	void testPersonLocalDate() {
+		Person p = Person.of(new Name("Stephen", "Shephard"), LocalDate.of(1971, 12, 18));
+
+		assertEquals(LocalDate.of(1971, 12, 18), p.getBirthLocalDate());
+		assertEquals("Stephen Shephard,18/12/1971", p.toString());
+	}
+
+	/**
+	 * Test method for Person.of method.
+	 * Missing or invalid date.
+	 */
+	@Test
+	void testPersonLocalDateInvalid() {
+		final Name janeSmith = new Name("Jane", "Smith");
+		assertThrows(IllegalArgumentException.class, () -> Person.of(janeSmith, null));
+		assertThrows(IllegalArgumentException.class, () -> Person.of(janeSmith, LocalDate.now().plusDays(1)));
+		// Too many days before the epoch for an int
+		assertThrows(IllegalArgumentException.class, () -> Person.of(janeSmith, LocalDate.MIN));
+		assertThrows(IllegalArgumentException.class, () -> new Person(janeSmith, new Date(Long.MIN_VALUE)));
+	}
+
+	/**
+	 * Test method for Person.equals method.
+	 * People with the same name are equal if they were born at the same instant, however the date of birth was given,
+	 * so a Person born on a day given as a LocalDate is equal to one born at the start of that day.
+	 */
+	@Test
+	void testEqualsLocalDate() {
+		Calendar cDOB = Calendar.getInstance();
+		cDOB.clear();
+		cDOB.set(1992,Calendar.MAY,29);
+		Person p1 = new Person(new Name("Bill", "Harrison"), cDOB.getTime());
+		Person p2 = Person.of(new Name("Bill", "Harrison"), LocalDate.of(1992, 5, 29));
+
+		assertEquals(p1, p2);
+		assertEquals(p1.hashCode(), p2.hashCode());
+		assertNotEquals(p1, Person.of(new Name("Bill", "Harrison"), LocalDate.of(1992, 5, 30)));
+		// Born on the same day but later in it, as getBirthDate shows
+		cDOB.set(Calendar.HOUR_OF_DAY, 12);
+		Person p3 = new Person(new Name("Bill", "Harrison"), cDOB.getTime());
+		assertNotEquals(p1.getBirthDate(), p3.getBirthDate());
+		assertNotEquals(p1, p3);
+	}
+
+	/**
+	 * Test method for Person.equals and Person.hashCode methods.
+	 * A Person saved by PersonCodec and read back, even in another time zone, equals the Person saved, with the same hash code.
+	 */
+	@Test
+	void testEqualsSaveReload() {
+		Calendar cDOB = Calendar.getInstance();
+		cDOB.clear();
+		cDOB.set(1984,Calendar.MARCH,3,23,47,12);
+		cDOB.set(Calendar.MILLISECOND, 345);
+		Person p1 = new Person(new Name("Ruth", "Okafor"), cDOB.getTime());
+
+		ByteBuffer buffer = ByteBuffer.allocate(PersonCodec.length(p1));
+		PersonCodec.write(buffer, p1);
+		Person p2 = PersonCodec.read(buffer, 0);
+		assertEquals(p1, p2);
+		assertEquals(p1.hashCode(), p2.hashCode());
+		assertEquals(p1.getBirthDate(), p2.getBirthDate());
+		assertEquals(p1.toString(), p2.toString());
+
+		// Read back in another time zone, in which the day of birth may differ
+		TimeZone zone = TimeZone.getDefault();
+		try {
+			TimeZone.setDefault(TimeZone.getTimeZone(zone.getID().equals("Asia/Tokyo") ? "Pacific/Honolulu" : "Asia/Tokyo"));
+			Person p3 = PersonCodec.read(buffer, 0);
+			assertEquals(p1, p3);
+			assertEquals(p1.hashCode(), p3.hashCode());
+			assertEquals(p1.getBirthDate(), p3.getBirthDate());
+		} finally {
+			TimeZone.setDefault(zone);
+		}
+	}
 }
@@ -2,8 +2,16 @@ package uk.ac.ncl.rental;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -135,4 +143,134 @@ class RegistrationNumberTest {
         assertThrows(IllegalStateException.class, () -> RegistrationNumber.valueOf("AB07 BBC"));
     }
 
+
+    /**
+     * Test method for RegistrationNumber.find method.
+     */
+    @Test
+    void testFind() {
+        RegistrationNumber rn = RegistrationNumber.valueOf("FN01 QAH");
+        assertSame(rn, RegistrationNumber.find("FN01 QAH"));
+
+        // Finding does not create a Registration Number, or throw if there isn't one
+        assertNull(RegistrationNumber.find("FN02 QAH"));
+        assertNull(RegistrationNumber.find("FN02QAH"));
+        assertDoesNotThrow(() -> RegistrationNumber.valueOf("FN02 QAH"));
+    }
+
+    /**
+     * Test method for RegistrationNumber.find method.
+     * Null parameter.
+     */
+    @Test
+    void testFindNull() {
+        assertThrows(IllegalArgumentException.class, () -> RegistrationNumber.find(null));
+    }
+
+    /**
+     * Test method for RegistrationNumber Factory method.
+     * When many threads create the same Registration Numbers at once, each is created exactly once.
+     */
+    @Test
+    void testGetInstanceConcurrent() throws Exception {
+        final int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    int created = 0;
+                    for (int i = 0; i < 100; i++) {
+                        try {
+                            RegistrationNumber.getInstance(String.format("CC%1$02d", i), "QAH");
+                            created++;
+                        } catch (IllegalStateException e) {
+                            // Already created by another thread
+                        }
+                    }
+                    return created;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> f : futures) {
+                total += f.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(100, total);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test method for RegistrationNumber.getPackedValue method.
+     * Packed values are distinct and the parts can be recovered from them.
+     */
+    @Test
+    void testGetPackedValue() {
+        RegistrationNumber first = RegistrationNumber.getInstance("AA00", "AAA");
+        RegistrationNumber last = RegistrationNumber.getInstance("ZZ99", "ZZZ");
+        RegistrationNumber other = RegistrationNumber.getInstance("PK07", "QAI");
+
+        assertEquals(0, first.getPackedValue());
+        assertEquals(26 * 26 * 100 * 26 * 26 * 26 - 1, last.getPackedValue());
+        assertNotEquals(first.getPackedValue(), other.getPackedValue());
+
+        assertEquals("ZZ99", last.getFirstPart());
+        assertEquals("ZZZ", last.getSecondPart());
+        assertEquals("PK07 QAI", other.toString());
+        assertSame(other, RegistrationNumber.find("PK07 QAI"));
+    }
+
+    /**
+     * Test method for RegistrationNumber Factory method.
+     * Many Registration Numbers can be created and found again.
+     */
+    @Test
+    void testGetInstanceMany() {
+        List<RegistrationNumber> created = new ArrayList<>();
+        for (int i = 0; i < 26 * 100; i++) {
+            created.add(RegistrationNumber.getInstance(String.format("M%c%02d", (char) ('A' + i / 100), i % 100), "QAJ"));
+        }
+        for (RegistrationNumber rn : created) {
+            assertSame(rn, RegistrationNumber.find(rn.toString()));
+            assertThrows(IllegalStateException.class, () -> RegistrationNumber.valueOf(rn.toString()));
+        }
+    }
+
+    /**
+     * Test method for RegistrationNumber.parse method.
+     */
+    @Test
+    void testParse() {
+        RegistrationNumber rn = RegistrationNumber.parse(new StringBuilder("PA01 QAK"));
+        assertEquals("PA01", rn.getFirstPart());
+        assertEquals("QAK", rn.getSecondPart());
+        // Trailing spaces are ignored, as they are by valueOf
+        assertEquals("PA02 QAK", RegistrationNumber.parse("PA02 QAK ").toString());
+        assertThrows(IllegalStateException.class, () -> RegistrationNumber.parse("PA01 QAK"));
+    }
+
+    /**
+     * Test method for invalid RegistrationNumber.parse method.
+     * The exception messages must be the same as those of valueOf.
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "AB06 123|Second part must be three letters",
+            "AB06123|There must be two parts separated by space",
+            "A B C|There must be two parts separated by space",
+            "''|There must be two parts separated by space",
+            "'   '|There must be two parts separated by space",
+            "PA03  QAK|There must be two parts separated by space",
+            "' QAK'|First part must be two letters followed by two digits",
+            "pa03 QAK|First part must be two letters followed by two digits",
+            "PA3 QAK|First part must be two letters followed by two digits",
+            "PA03 QA|Second part must be three letters",
+            "PA03 QAKK|Second part must be three letters"})
+    void testInvalidParse(String regNumber, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> RegistrationNumber.parse(regNumber));
+        assertEquals(message, e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> RegistrationNumber.valueOf(regNumber));
+        assertEquals(message, e.getMessage());
+    }
 }
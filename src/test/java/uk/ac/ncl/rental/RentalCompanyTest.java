@@ -7,8 +7,19 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -55,6 +66,57 @@ class RentalCompanyTest {
 		assertThrows(IllegalArgumentException.class, () -> rentCo.addCar(null));
 	}
 	
+	/**
+	 * Test method for RentalCompany.addCar method.
+	 * Should not add a Car that is already rented.
+	 */
+	@Test
+	void testAddCarRented() {
+		RentalCompany rentCo = new RentalCompany();
+
+		SmallCar sc = new SmallCar("SC01 QBR");
+		sc.setRental(true);
+		assertThrows(IllegalArgumentException.class, () -> rentCo.addCar(sc));
+		assertEquals(0, rentCo.availableCars("SmallCar"));
+		assertTrue(sc.isRented());
+		// Once returned it can be added, and issued
+		sc.setRental(false);
+		rentCo.addCar(sc);
+		assertEquals(1, rentCo.availableCars("SmallCar"));
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30, true), "SmallCar"));
+		assertSame(sc, rentCo.getCar(p1));
+		// Once issued it is a duplicate, not a rejected rented car, and is left rented
+		assertThrows(IllegalStateException.class, () -> rentCo.addCar(sc));
+		assertTrue(sc.isRented());
+		assertSame(sc, rentCo.getCar(p1));
+	}
+
+	/**
+	 * Test method for RentalCompany.issueCar method.
+	 * A car in the fleets of two companies that is rented from one is not lost to the other, which can issue it once it is returned.
+	 */
+	@Test
+	void testIssueCarSharedWithAnotherCompany() {
+		RentalCompany rentCo1 = new RentalCompany();
+		RentalCompany rentCo2 = new RentalCompany();
+		LargeCar lc = new LargeCar("LC01 QBX");
+		rentCo1.addCar(lc);
+		rentCo2.addCar(lc);
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		Person p2 = personFixture("Jane", "Smith", 40);
+
+		assertTrue(rentCo1.issueCar(p1, dlFixture(p1, 30, true), "LargeCar"));
+		// Rented from the first company, so the second cannot issue it, but keeps it
+		assertFalse(rentCo2.issueCar(p2, dlFixture(p2, 20, true), "LargeCar"));
+		assertEquals(1, rentCo2.availableCars("LargeCar"));
+
+		rentCo1.terminateRental(p1);
+		assertTrue(rentCo2.issueCar(p2, dlFixture(p2, 20, true), "LargeCar"));
+		assertSame(lc, rentCo2.getCar(p2));
+		assertEquals(0, rentCo2.availableCars("LargeCar"));
+	}
+
 	/**
 	 * Test method for RentalCompany.addCar method.
 	 * Should not add duplicate Car.
@@ -66,6 +128,9 @@ class RentalCompanyTest {
 		SmallCar sc = new SmallCar("SC01 FFF");
 		rentCo.addCar(sc);
 		assertThrows(IllegalStateException.class, () -> rentCo.addCar(sc));
+		// Nor a different car with the same Registration Number
+		assertThrows(IllegalStateException.class, () -> rentCo.addCar(new LargeCar(sc.getRegistrationNumber())));
+		assertEquals(0, rentCo.availableCars("LargeCar"));
 	}
 
 	/**
@@ -108,6 +173,34 @@ class RentalCompanyTest {
 		assertThrows(IllegalArgumentException.class, () -> rentCo.availableCars("MediumCar"));
 	}
 
+	/**
+	 * Test method for RentalCompany.availableCars method.
+	 * Availability should track cars added, issued and returned.
+	 */
+	@Test
+	void testAvailableCarsTracksRentals() {
+		RentalCompany rentCo = new RentalCompany();
+		for (int i=1; i<=5; i++) {
+			rentCo.addCar(new SmallCar(String.format("SC%1$02d QAA", i)));
+		}
+
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		DrivingLicence dl1 = dlFixture(p1, 30, true);
+		assertTrue(rentCo.issueCar(p1, dl1, "SmallCar"));
+		assertEquals(4, rentCo.availableCars("SmallCar"));
+		assertEquals(0, rentCo.availableCars("LargeCar"));
+
+		// Cars added while others are rented are available immediately
+		rentCo.addCar(new SmallCar("SC06 QAA"));
+		rentCo.addCar(new LargeCar("LC01 QAA"));
+		assertEquals(5, rentCo.availableCars("SmallCar"));
+		assertEquals(1, rentCo.availableCars("LargeCar"));
+
+		rentCo.terminateRental(p1);
+		assertEquals(6, rentCo.availableCars("SmallCar"));
+		assertEquals(1, rentCo.availableCars("LargeCar"));
+	}
+
 	private Person personFixture(String firstname, String lastname, long age)
 	{
 		LocalDate ldDOB = LocalDate.now().minusYears(age);
@@ -196,6 +289,39 @@ class RentalCompanyTest {
 		assertThrows(IllegalArgumentException.class, () -> rentCo.getCar(null));
 	}
 
+	/**
+	 * Test method for RentalCompany.getRenter method.
+	 */
+	@Test
+	void testGetRenter() {
+		RentalCompany rentCo = new RentalCompany();
+		SmallCar sc = new SmallCar("SC01 QAC");
+		rentCo.addCar(sc);
+
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		DrivingLicence dl1 = dlFixture(p1, 30, true);
+
+		// Not rented yet
+		assertNull(rentCo.getRenter(sc));
+
+		rentCo.issueCar(p1, dl1, "SmallCar");
+		assertEquals(p1, rentCo.getRenter(sc));
+
+		rentCo.terminateRental(p1);
+		assertNull(rentCo.getRenter(sc));
+	}
+
+	/**
+	 * Test method for RentalCompany.getRenter method.
+	 * Car parameter may not be null.
+	 */
+	@Test
+	void testGetRenterCarNull() {
+		RentalCompany rentCo = new RentalCompany();
+
+		assertThrows(IllegalArgumentException.class, () -> rentCo.getRenter(null));
+	}
+
 	/**
 	 * Test method for RentalCompany.issueCar method.
 	 * Successful issue.
@@ -232,6 +358,62 @@ class RentalCompanyTest {
 		assertEquals(9, rentCo.availableCars("LargeCar"));
 	}
 	
+	/**
+	 * Test method for RentalCompany.availableCars and RentalCompany.issueCar methods taking a CarType.
+	 * Eligibility is decided by the thresholds of the type of car.
+	 */
+	@Test
+	void testIssueCarCarType() {
+		RentalCompany rentCo = new RentalCompany();
+		rentCo.addCar(new SmallCar("SC03 QBH"));
+		rentCo.addCar(new LargeCar("LC03 QBH"));
+		assertEquals(1, rentCo.availableCarsOfType(CarType.SMALL_CAR));
+		assertEquals(1, rentCo.availableCarsOfType(CarType.LARGE_CAR));
+
+		// Old enough and licensed long enough for a small car but not a large car
+		Person p1 = personFixture("Stephen", "Shephard", 22);
+		DrivingLicence dl1 = dlFixture(p1, 2, true);
+		assertFalse(rentCo.issueCarOfType(p1, dl1, CarType.LARGE_CAR));
+		assertTrue(rentCo.issueCarOfType(p1, dl1, CarType.SMALL_CAR));
+		assertSame(CarType.SMALL_CAR, rentCo.getCar(p1).getType());
+		assertEquals(0, rentCo.availableCarsOfType(CarType.SMALL_CAR));
+		assertEquals(0, rentCo.terminateRentals(Arrays.asList(p1)).getTotalLitresOfType(CarType.SMALL_CAR));
+		assertEquals(1, rentCo.availableCarsOfType(CarType.SMALL_CAR));
+
+		assertThrows(IllegalArgumentException.class, () -> rentCo.availableCarsOfType(null));
+		assertThrows(IllegalArgumentException.class, () -> rentCo.issueCarOfType(p1, dl1, null));
+		assertThrows(IllegalArgumentException.class, () -> rentCo.issueCarOfType(null, dl1, CarType.SMALL_CAR));
+		assertThrows(IllegalArgumentException.class, () -> rentCo.issueCarOfType(p1, null, CarType.SMALL_CAR));
+	}
+
+	/**
+	 * Test method for RentalCompany.issueCar method.
+	 * Cars of a type registered after the RentalCompany was constructed are indexed and issued with the type's thresholds.
+	 */
+	@Test
+	void testIssueCarRegisteredType() {
+		RentalCompany rentCo = new RentalCompany();
+		CarType minibus = CarType.register("Minibus", 90, km -> (km + 7) / 8, 23, 3);
+		rentCo.addCar(new TypedCar(minibus, "MB01 QBI"));
+		assertEquals(1, rentCo.availableCars("Minibus"));
+		assertEquals(0, rentCo.availableCarsOfType(CarType.SMALL_CAR));
+
+		// Old enough but not licensed long enough for a minibus
+		Person p1 = personFixture("Stephen", "Shephard", 24);
+		assertFalse(rentCo.issueCar(p1, dlFixture(p1, 2, true), "Minibus"));
+		assertTrue(rentCo.issueCarOfType(p1, dlFixture(p1, 4, true), minibus));
+		Car car = rentCo.getCar(p1);
+		assertSame(minibus, car.getType());
+		assertTrue(car.isTankFull());
+		assertEquals(10, car.drive(80));
+		assertEquals(0, rentCo.availableCarsOfType(minibus));
+
+		FuelRefillReport report = rentCo.terminateRentals(Arrays.asList(p1));
+		assertEquals(10, report.getTotalLitresOfType(minibus));
+		assertEquals("SmallCar=0,LargeCar=0,Minibus=10,persons=1", report.toString());
+		assertEquals(1, rentCo.availableCarsOfType(minibus));
+	}
+
 	/**
 	 * Test method for RentalCompany.issueCar method.
 	 * Person parameter may not be null.
@@ -341,6 +523,67 @@ class RentalCompanyTest {
 		assertFalse(rentCo.issueCar(p_20yo_twin, dlFixture(p_20yo_twin, 1, true), "SmallCar"));
 	}
 	
+	/**
+	 * Test method for RentalCompany.issueCars method.
+	 * Each request is issued or refused as issueCar would, in order.
+	 */
+	@Test
+	void testIssueCars() {
+		RentalCompany rentCo = new RentalCompany();
+		SmallCar sc = new SmallCar("SC01 QBA");
+		rentCo.addCar(sc);
+		LargeCar lc = new LargeCar("LC01 QBA");
+		rentCo.addCar(lc);
+
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		Person p2 = personFixture("Jane", "Smith", 32);
+		Person p3 = personFixture("Jack", "Young", 21);
+		Person p4 = personFixture("Anne", "Other", 40);
+		DrivingLicence dl1 = dlFixture(p1, 30, true);
+
+		List<RentalRequest> requests = new ArrayList<>();
+		requests.add(new RentalRequest(p1, dl1, "LargeCar"));
+		// Same person again, already renting a car
+		requests.add(new RentalRequest(p1, dl1, "SmallCar"));
+		// Too young for a large car
+		requests.add(new RentalRequest(p3, dlFixture(p3, 2, true), "LargeCar"));
+		// Not a full licence
+		requests.add(new RentalRequest(p4, dlFixture(p4, 20, false), "SmallCar"));
+		requests.add(new RentalRequest(p2, dlFixture(p2, 17, true), "SmallCar"));
+		// No small cars left
+		requests.add(new RentalRequest(p4, dlFixture(p4, 20, true), "SmallCar"));
+
+		assertArrayEquals(new boolean[] {true, false, false, false, true, false}, rentCo.issueCars(requests));
+		assertSame(lc, rentCo.getCar(p1));
+		assertSame(sc, rentCo.getCar(p2));
+		assertNull(rentCo.getCar(p3));
+		assertNull(rentCo.getCar(p4));
+		assertEquals(0, rentCo.availableCars("SmallCar"));
+		assertEquals(0, rentCo.availableCars("LargeCar"));
+
+		assertEquals(0, rentCo.issueCars(new ArrayList<>()).length);
+	}
+
+	/**
+	 * Test method for RentalCompany.issueCars method.
+	 * Null list or request, and nothing is issued if any request is null.
+	 */
+	@Test
+	void testIssueCarsNull() {
+		RentalCompany rentCo = new RentalCompany();
+		rentCo.addCar(new SmallCar("SC02 QBA"));
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+
+		List<RentalRequest> requests = new ArrayList<>();
+		requests.add(new RentalRequest(p1, dlFixture(p1, 30, true), "SmallCar"));
+		requests.add(null);
+
+		assertThrows(IllegalArgumentException.class, () -> rentCo.issueCars(null));
+		assertThrows(IllegalArgumentException.class, () -> rentCo.issueCars(requests));
+		assertEquals(1, rentCo.availableCars("SmallCar"));
+		assertNull(rentCo.getCar(p1));
+	}
+
 	/**
 	 * Test method for RentalCompany.terminateRental method.
 	 */
@@ -388,4 +631,194 @@ class RentalCompanyTest {
 		// Check that there are now 20 available small cars to rent
 		assertEquals(20, rentCo.availableCars("SmallCar"));
 	}
+
+	/**
+	 * Test method for RentalCompany.terminateRentals method.
+	 * Each rental is terminated as terminateRental would, and fuel is totalled by type of car.
+	 */
+	@Test
+	void testTerminateRentals() {
+		RentalCompany rentCo = new RentalCompany();
+		SmallCar sc = new SmallCar("SC01 QBB");
+		rentCo.addCar(sc);
+		LargeCar lc = new LargeCar("LC01 QBB");
+		rentCo.addCar(lc);
+
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		Person p2 = personFixture("Jane", "Smith", 32);
+		Person p3 = personFixture("Anne", "Other", 40);
+		assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30, true), "LargeCar"));
+		assertTrue(rentCo.issueCar(p2, dlFixture(p2, 17, true), "SmallCar"));
+
+		// 2 litres for the small car, 4 litres for the large car
+		sc.drive(40);
+		lc.drive(40);
+
+		// p3 has no rental, p1 is returning a car twice
+		FuelRefillReport report = rentCo.terminateRentals(Arrays.asList(p1, p3, p2, p1));
+		assertEquals(4, report.size());
+		assertSame(p1, report.getPerson(0));
+		assertSame(p3, report.getPerson(1));
+		assertEquals(4, report.getLitres(0));
+		assertEquals(0, report.getLitres(1));
+		assertEquals(2, report.getLitres(2));
+		assertEquals(0, report.getLitres(3));
+		assertEquals(2, report.getTotalLitres("SmallCar"));
+		assertEquals(4, report.getTotalLitres("LargeCar"));
+		assertEquals(6, report.getTotalLitres());
+
+		assertEquals(0, rentCo.getRentedCars().size());
+		assertEquals(1, rentCo.availableCars("SmallCar"));
+		assertEquals(1, rentCo.availableCars("LargeCar"));
+		assertFalse(sc.isRented());
+		assertFalse(lc.isRented());
+	}
+
+	/**
+	 * Test method for RentalCompany.terminateRentals method.
+	 * Null collection or person, and nothing is terminated if any person is null.
+	 */
+	@Test
+	void testTerminateRentalsNull() {
+		RentalCompany rentCo = new RentalCompany();
+		rentCo.addCar(new SmallCar("SC02 QBB"));
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30, true), "SmallCar"));
+
+		assertThrows(IllegalArgumentException.class, () -> rentCo.terminateRentals(null));
+		assertThrows(IllegalArgumentException.class, () -> rentCo.terminateRentals(Arrays.asList(p1, null)));
+		assertNotNull(rentCo.getCar(p1));
+	}
+
+	/**
+	 * Runs the given task on several threads at once and waits for them all to finish.
+	 */
+	private void runConcurrently(int threads, IntConsumerTask task) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t=0; t<threads; t++) {
+				final int thread = t;
+				futures.add(executor.submit(() -> {
+					start.await();
+					task.run(thread);
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> f : futures) {
+				f.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * A task run by one of several threads, given the thread's number.
+	 */
+	private interface IntConsumerTask {
+		void run(int thread) throws Exception;
+	}
+
+	/**
+	 * Test method for RentalCompany.issueCar method.
+	 * When many threads compete for fewer cars, no car is issued twice and no person gets two cars.
+	 */
+	@Test
+	void testConcurrentIssueCar() throws Exception {
+		RentalCompany rentCo = new RentalCompany();
+		for (int i=1; i<=20; i++) {
+			rentCo.addCar(new SmallCar(String.format("SC%1$02d QAE", i)));
+		}
+
+		// 50 customers competing for 20 cars, and every customer is requested by two threads at once
+		List<Person> people = new ArrayList<>();
+		List<DrivingLicence> licences = new ArrayList<>();
+		for (int i=0; i<50; i++) {
+			Person p = personFixture("Customer", "Number" + (char) ('a' + i / 26) + (char) ('a' + i % 26), 40);
+			people.add(p);
+			licences.add(dlFixture(p, 10, true));
+		}
+		AtomicInteger[] issuedPerPerson = new AtomicInteger[people.size()];
+		for (int i=0; i<issuedPerPerson.length; i++) {
+			issuedPerPerson[i] = new AtomicInteger();
+		}
+
+		runConcurrently(8, thread -> {
+			for (int i=0; i<people.size(); i++) {
+				// Pairs of threads walk the customers in the same order so that they collide
+				int index = (thread % 2 == 0) ? i : people.size() - 1 - i;
+				if (rentCo.issueCar(people.get(index), licences.get(index), "SmallCar")) {
+					issuedPerPerson[index].incrementAndGet();
+				}
+			}
+		});
+
+		int issued = 0;
+		Set<Car> cars = new HashSet<>();
+		for (int i=0; i<people.size(); i++) {
+			assertTrue(issuedPerPerson[i].get() <= 1);
+			issued += issuedPerPerson[i].get();
+			Car car = rentCo.getCar(people.get(i));
+			if (car != null) {
+				assertTrue(cars.add(car)); // no car is rented by two people
+				assertEquals(people.get(i), rentCo.getRenter(car));
+			}
+		}
+		assertEquals(20, issued);
+		assertEquals(20, cars.size());
+		assertEquals(cars, rentCo.getRentedCars());
+		assertEquals(0, rentCo.availableCars("SmallCar"));
+	}
+
+	/**
+	 * Test method for RentalCompany.issueCar and RentalCompany.terminateRental methods.
+	 * Many threads repeatedly issuing and returning cars must never hold the same car at once.
+	 */
+	@Test
+	void testConcurrentIssueAndTerminate() throws Exception {
+		RentalCompany rentCo = new RentalCompany();
+		for (int i=1; i<=5; i++) {
+			rentCo.addCar(new SmallCar(String.format("SC%1$02d QAF", i)));
+			rentCo.addCar(new LargeCar(String.format("LC%1$02d QAF", i)));
+		}
+
+		int threads = 8;
+		List<Person> people = new ArrayList<>();
+		List<DrivingLicence> licences = new ArrayList<>();
+		for (int t=0; t<threads; t++) {
+			Person p = personFixture("Thread", "Number" + (char) ('a' + t), 40);
+			people.add(p);
+			licences.add(dlFixture(p, 10, true));
+		}
+
+		Set<Car> held = ConcurrentHashMap.newKeySet();
+		AtomicInteger violations = new AtomicInteger();
+		AtomicInteger issued = new AtomicInteger();
+		runConcurrently(threads, thread -> {
+			Person p = people.get(thread);
+			for (int i=0; i<5000; i++) {
+				if (rentCo.issueCar(p, licences.get(thread), (i % 2 == 0) ? "SmallCar" : "LargeCar")) {
+					issued.incrementAndGet();
+					Car car = rentCo.getCar(p);
+					if (!held.add(car)) {
+						violations.incrementAndGet(); // another thread holds this car
+					}
+					car.drive(10); // one litre in either type of car
+					held.remove(car);
+					assertEquals(1, rentCo.terminateRental(p));
+				}
+			}
+		});
+
+		assertTrue(issued.get() > 0);
+		assertEquals(0, violations.get());
+
+		// Every car has been returned, so the whole fleet is available again and nothing is rented
+		assertEquals(5, rentCo.availableCars("SmallCar"));
+		assertEquals(5, rentCo.availableCars("LargeCar"));
+		assertTrue(rentCo.getRentedCars().isEmpty());
+	}
 }
@@ -0,0 +1,236 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static uk.ac.ncl.rental.RentalFixtures.personFixture;
+
+/**
+ * RentalCsvTest class.  JUnit test cases for the RentalCsv class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class RentalCsvTest {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Test method for RentalCsv.importFleet and RentalCsv.exportFleet methods.
+	 * Cars are added with the fuel in their rows, and written back in the same format.
+	 */
+	@Test
+	void testFleet() throws IOException {
+		Path path = dir.resolve("fleet.csv");
+		Files.write(path, ("SmallCar,SC01 QBE,49\r\n\nLargeCar,LC01 QBE,0\nSmallCar,SC02 QBE,10").getBytes(StandardCharsets.US_ASCII));
+
+		RentalCompany rentCo = new RentalCompany();
+		assertEquals(3, RentalCsv.importFleet(path, rentCo, false));
+		assertEquals(2, rentCo.availableCars("SmallCar"));
+		assertEquals(1, rentCo.availableCars("LargeCar"));
+
+		Path out = dir.resolve("out.csv");
+		RentalCsv.exportFleet(rentCo, out);
+		Set<String> rows = new HashSet<>(Files.readAllLines(out));
+		assertEquals(new HashSet<>(Arrays.asList("SmallCar,SC01 QBE,49", "LargeCar,LC01 QBE,0", "SmallCar,SC02 QBE,10")), rows);
+	}
+
+	/**
+	 * Test method for RentalCsv.importFleet and RentalCsv.exportFleet methods.
+	 * A car driven below zero fuel is exported with negative fuel, which is imported again.
+	 */
+	@Test
+	void testFleetNegativeFuel() throws IOException {
+		SmallCar sc = new SmallCar("SC01 QBQ");
+		sc.setRental(true);
+		sc.fillTank(SmallCar.CAPACITY);
+		sc.drive(1000);
+		sc.setRental(false);
+		assertEquals(-1, sc.getFuel());
+		RentalCompany rentCo = new RentalCompany();
+		rentCo.addCar(sc);
+		Path out = dir.resolve("out.csv");
+		RentalCsv.exportFleet(rentCo, out);
+		assertEquals(Arrays.asList("SmallCar,SC01 QBQ,-1"), Files.readAllLines(out));
+
+		// Import the exported row with a Registration Number not yet in use, and export it again
+		Path path = writeRow(dir.resolve("fleet.csv"), "LargeCar,LC01 QBQ,-15");
+		RentalCompany imported = new RentalCompany();
+		assertEquals(1, RentalCsv.importFleet(path, imported, false));
+		assertEquals(1, imported.availableCars("LargeCar"));
+		RentalCsv.exportFleet(imported, out);
+		assertEquals(Arrays.asList("LargeCar,LC01 QBQ,-15"), Files.readAllLines(out));
+	}
+
+	/**
+	 * Test method for RentalCsv.importFleet and RentalCsv.exportFleet methods.
+	 * Rows of a registered type of car are added as TypedCar.
+	 */
+	@Test
+	void testFleetRegisteredType() throws IOException {
+		CarType tipper = CarType.register("Tipper", 110, km -> (km + 5) / 6, 25, 5);
+		Path path = dir.resolve("fleet.csv");
+		Files.write(path, "Tipper,TP01 QBI,100\nSmallCar,SC05 QBI,1\n".getBytes(StandardCharsets.US_ASCII));
+
+		RentalCompany rentCo = new RentalCompany();
+		assertEquals(2, RentalCsv.importFleet(path, rentCo, false));
+		assertEquals(1, rentCo.availableCarsOfType(tipper));
+
+		Path out = dir.resolve("out.csv");
+		RentalCsv.exportFleet(rentCo, out);
+		assertTrue(Files.readAllLines(out).contains("Tipper,TP01 QBI,100"));
+	}
+
+	/**
+	 * Test method for RentalCsv.importFleet method.
+	 * Rows parsed in parallel add every car, over several chunks.
+	 */
+	@Test
+	void testFleetParallel() throws IOException {
+		Path path = dir.resolve("fleet.csv");
+		StringBuilder sb = new StringBuilder();
+		int count = 26 * 26 * 100 * 4;
+		for (int i=0; i<count; i++) {
+			// Enough rows to fill several chunks, all with unique Registration Numbers ending ZQA to ZQD
+			sb.append(i % 2 == 0 ? "SmallCar," : "LargeCar,")
+					.append((char) ('A' + i / 2600 % 26)).append((char) ('A' + i / 100 % 26))
+					.append((char) ('0' + i / 10 % 10)).append((char) ('0' + i % 10))
+					.append(" ZQ").append((char) ('A' + i / 67600))
+					.append(",").append(i % 40).append('\n');
+		}
+		Files.write(path, sb.toString().getBytes(StandardCharsets.US_ASCII));
+		assertTrue(Files.size(path) > 2 * 1024 * 1024);
+
+		RentalCompany rentCo = new RentalCompany();
+		assertEquals(count, RentalCsv.importFleet(path, rentCo, true));
+		assertEquals(count / 2, rentCo.availableCars("SmallCar"));
+		assertEquals(count / 2, rentCo.availableCars("LargeCar"));
+	}
+
+	/**
+	 * Test method for RentalCsv.importFleet method.
+	 * When a row in an early chunk is invalid, no car is added once the parallel import has thrown.
+	 */
+	@Test
+	void testFleetParallelInvalid() throws IOException, InterruptedException {
+		Path path = dir.resolve("fleet.csv");
+		StringBuilder sb = new StringBuilder("SmallCar,SC01 ZRZ,10\nSmallCar,SC03QBE,10\n");
+		int count = 26 * 26 * 100 * 4;
+		for (int i=0; i<count; i++) {
+			// Enough valid rows after the invalid one to fill several chunks, all with unique Registration Numbers ending ZRA to ZRD
+			sb.append("SmallCar,")
+					.append((char) ('A' + i / 2600 % 26)).append((char) ('A' + i / 100 % 26))
+					.append((char) ('0' + i / 10 % 10)).append((char) ('0' + i % 10))
+					.append(" ZR").append((char) ('A' + i / 67600))
+					.append(",10\n");
+		}
+		Files.write(path, sb.toString().getBytes(StandardCharsets.US_ASCII));
+		assertTrue(Files.size(path) > 2 * 1024 * 1024);
+
+		RentalCompany rentCo = new RentalCompany();
+		IOException e = assertThrows(IOException.class, () -> RentalCsv.importFleet(path, rentCo, true));
+		assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+		int added = rentCo.availableCars("SmallCar");
+		assertTrue(added < count);
+		Thread.sleep(200);
+		assertEquals(added, rentCo.availableCars("SmallCar"));
+	}
+
+	/**
+	 * Test method for RentalCsv.importPersons and RentalCsv.exportPersons methods.
+	 * Persons are read back equal to those written, sequentially and in parallel.
+	 */
+	@Test
+	void testPersons() throws IOException {
+		Path path = dir.resolve("persons.csv");
+		List<Person> persons = Arrays.asList(personFixture("Stephen", "Shephard", 50), personFixture("Jane", "Smith", 32),
+				Person.of(new Name("Anne", "Other"), LocalDate.of(1980, 2, 29)));
+		RentalCsv.exportPersons(persons, path);
+		assertEquals("Anne Other,29/02/1980", Files.readAllLines(path).get(2));
+
+		List<Person> read = new ArrayList<>();
+		assertEquals(3, RentalCsv.importPersons(path, read::add, false));
+		assertEquals(persons, read);
+
+		List<Person> readParallel = Collections.synchronizedList(new ArrayList<>());
+		assertEquals(3, RentalCsv.importPersons(path, readParallel::add, true));
+		assertEquals(new HashSet<>(persons), new HashSet<>(readParallel));
+	}
+
+	/**
+	 * Test method for RentalCsv.exportLicences method.
+	 */
+	@Test
+	void testLicences() throws IOException {
+		Path path = dir.resolve("licences.csv");
+		Person p = personFixture("Stephen", "Shephard", 50);
+		DrivingLicence dl = DrivingLicence.of(p.getName(), LocalDate.of(2000, 1, 31), true);
+		RentalCsv.exportLicences(Arrays.asList(dl), path);
+		assertEquals(Arrays.asList(dl.toString()), Files.readAllLines(path));
+	}
+
+	/**
+	 * Test method for RentalCsv.importFleet and RentalCsv.importPersons methods.
+	 * Invalid rows are reported with their line number, and invalid cars are not added.
+	 */
+	@Test
+	void testInvalid() throws IOException {
+		Path path = dir.resolve("invalid.csv");
+		String[] fleetRows = {"SmallCar,SC03 QBE", "SmallCar,SC03 QBE,10,1", "MediumCar,SC03 QBE,10", "SmallCar,SC03 QBE,50",
+				"LargeCar,LC03 QBE,61", "SmallCar,SC03 QBE,-", "SmallCar,SC03 QBE,--1", "SmallCar,SC03 QBE,x", "SmallCar,SC03QBE,10", "SmallCar,SC01 QBE,10"};
+		RentalCompany rentCo = new RentalCompany();
+		for (String row : fleetRows) {
+			Files.write(path, ("\n" + row + "\n").getBytes(StandardCharsets.US_ASCII));
+			IOException e = assertThrows(IOException.class, () -> RentalCsv.importFleet(path, rentCo, false), row);
+			assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+		}
+		assertEquals(0, rentCo.availableCars("SmallCar"));
+		// The Registration Number was not registered by any invalid row
+		assertEquals(1, RentalCsv.importFleet(writeRow(path, "SmallCar,SC03 QBE,10"), rentCo, false));
+
+		String[] personRows = {"Stephen Shephard", "Stephen Shephard,01/01/1970,x", "StephenShephard,01/01/1970",
+				"Stephen Shephard,1/1/1970", "Stephen Shephard,31/02/1970", "Stephen Shephard,01-01-1970"};
+		for (String row : personRows) {
+			assertThrows(IOException.class, () -> RentalCsv.importPersons(writeRow(path, row), p -> { }, false), row);
+		}
+
+		assertThrows(IOException.class, () -> RentalCsv.importPersons(dir.resolve("missing.csv"), p -> { }, false));
+	}
+
+	/**
+	 * Test method for RentalCsv import and export methods with null parameters.
+	 */
+	@Test
+	void testNull() {
+		Path path = dir.resolve("null.csv");
+		RentalCompany rentCo = new RentalCompany();
+		assertThrows(IllegalArgumentException.class, () -> RentalCsv.importFleet(null, rentCo, false));
+		assertThrows(IllegalArgumentException.class, () -> RentalCsv.importFleet(path, null, false));
+		assertThrows(IllegalArgumentException.class, () -> RentalCsv.importPersons(null, p -> { }, false));
+		assertThrows(IllegalArgumentException.class, () -> RentalCsv.importPersons(path, null, false));
+		assertThrows(IllegalArgumentException.class, () -> RentalCsv.exportFleet(null, path));
+		assertThrows(IllegalArgumentException.class, () -> RentalCsv.exportFleet(rentCo, null));
+		assertThrows(IllegalArgumentException.class, () -> RentalCsv.exportPersons(null, path));
+		assertThrows(IllegalArgumentException.class, () -> RentalCsv.exportPersons(Collections.emptyList(), null));
+		assertThrows(IllegalArgumentException.class, () -> RentalCsv.exportPersons(Arrays.asList((Person) null), path));
+		assertThrows(IllegalArgumentException.class, () -> RentalCsv.exportLicences(null, path));
+		assertThrows(IllegalArgumentException.class, () -> RentalCsv.exportLicences(Collections.emptyList(), null));
+	}
+
+	private static Path writeRow(Path path, String row) throws IOException {
+		return Files.write(path, row.getBytes(StandardCharsets.US_ASCII));
+	}
+}
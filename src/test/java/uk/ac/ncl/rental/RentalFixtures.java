@@ -0,0 +1,38 @@
+package uk.ac.ncl.rental;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * RentalFixtures class.  Persons and driving licences shared by the JUnit test cases, built from Dates as the original tests build them.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+final class RentalFixtures {
+
+	/**
+	 * Private Constructor, as RentalFixtures has only static methods.
+	 */
+	private RentalFixtures() {
+	}
+
+	static Person personFixture(String firstname, String lastname, long age) {
+		LocalDate ldDOB = LocalDate.now().minusYears(age);
+		Date dDOB = Date.from(ldDOB.atStartOfDay(ZoneId.systemDefault()).toInstant());
+		return new Person(new Name(firstname, lastname), dDOB);
+	}
+
+	static Person personFixture(String firstname, String lastname, long age, LocalTime timeOfBirth) {
+		LocalDate ldDOB = LocalDate.now().minusYears(age);
+		Date dDOB = Date.from(ldDOB.atTime(timeOfBirth).atZone(ZoneId.systemDefault()).toInstant());
+		return new Person(new Name(firstname, lastname), dDOB);
+	}
+
+	static DrivingLicence dlFixture(Person p, long issuedAge) {
+		LocalDate ldIssued = LocalDate.now().minusYears(issuedAge);
+		Date dIssued = Date.from(ldIssued.atStartOfDay(ZoneId.systemDefault()).toInstant());
+		return new DrivingLicence(p.getName(), dIssued, true);
+	}
+}
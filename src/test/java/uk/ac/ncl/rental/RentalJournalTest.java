@@ -0,0 +1,511 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static uk.ac.ncl.rental.RentalFixtures.personFixture;
+import static uk.ac.ncl.rental.RentalFixtures.dlFixture;
+
+/**
+ * RentalJournalTest class.  JUnit test cases for the RentalJournal class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class RentalJournalTest {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * FailingChannel class.  A FileChannel that fails every write while failing is set.
+	 */
+	private static final class FailingChannel extends FileChannel {
+
+		private final FileChannel channel;
+
+		private boolean failing;
+
+		/**
+		 * If set, force counts down forcing and then waits for released before forcing the file.
+		 */
+		private volatile CountDownLatch forcing, released;
+
+		FailingChannel(Path path) throws IOException {
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+
+		private void check() throws IOException {
+			if (failing) {
+				throw new IOException("Write failed");
+			}
+		}
+
+		@Override public int read(ByteBuffer dst) throws IOException { return channel.read(dst); }
+		@Override public long read(ByteBuffer[] dsts, int offset, int length) throws IOException { return channel.read(dsts, offset, length); }
+		@Override public int read(ByteBuffer dst, long position) throws IOException { return channel.read(dst, position); }
+		@Override public int write(ByteBuffer src) throws IOException { check(); return channel.write(src); }
+		@Override public long write(ByteBuffer[] srcs, int offset, int length) throws IOException { check(); return channel.write(srcs, offset, length); }
+		@Override public int write(ByteBuffer src, long position) throws IOException { check(); return channel.write(src, position); }
+		@Override public long position() throws IOException { return channel.position(); }
+		@Override public FileChannel position(long newPosition) throws IOException { channel.position(newPosition); return this; }
+		@Override public long size() throws IOException { return channel.size(); }
+		@Override public FileChannel truncate(long size) throws IOException { check(); channel.truncate(size); return this; }
+		@Override public void force(boolean metaData) throws IOException {
+			check();
+			if (forcing != null) {
+				forcing.countDown();
+				try {
+					released.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			channel.force(metaData);
+		}
+		@Override public long transferTo(long position, long count, WritableByteChannel target) throws IOException { return channel.transferTo(position, count, target); }
+		@Override public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException { check(); return channel.transferFrom(src, position, count); }
+		@Override public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException { return channel.map(mode, position, size); }
+		@Override public FileLock lock(long position, long size, boolean shared) throws IOException { return channel.lock(position, size, shared); }
+		@Override public FileLock tryLock(long position, long size, boolean shared) throws IOException { return channel.tryLock(position, size, shared); }
+		@Override protected void implCloseChannel() throws IOException { channel.close(); }
+	}
+
+	/**
+	 * Test method for RentalJournal.recover and RentalJournal.replay methods.
+	 * The fleet and rentals are rebuilt from the journal.
+	 */
+	@Test
+	void testReplay() throws IOException {
+		Path path = dir.resolve("rentals.journal");
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		Person p2 = personFixture("Jane", "Smith", 32);
+		Person p3 = personFixture("Anne", "Other", 40);
+		SmallCar sc1 = new SmallCar("SC01 QBC");
+		SmallCar sc2 = new SmallCar("SC02 QBC");
+		LargeCar lc1 = new LargeCar("LC01 QBC");
+
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			RentalCompany rentCo = journal.recover();
+			assertEquals(0, rentCo.availableCars("SmallCar"));
+			rentCo.addCar(sc1);
+			rentCo.addCar(sc2);
+			rentCo.addCar(lc1);
+			assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30), "LargeCar"));
+			assertTrue(rentCo.issueCar(p2, dlFixture(p2, 10), "SmallCar"));
+			assertTrue(rentCo.issueCar(p3, dlFixture(p3, 20), "SmallCar"));
+			sc1.drive(100);
+			assertEquals(5, rentCo.terminateRental(p2));
+			assertThrows(IllegalStateException.class, journal::recover);
+		}
+
+		RentalCompany replayed = RentalJournal.replay(path);
+		assertEquals(1, replayed.availableCars("SmallCar"));
+		assertEquals(0, replayed.availableCars("LargeCar"));
+		assertEquals(2, replayed.getRentedCars().size());
+		assertSame(lc1.getRegistrationNumber(), replayed.getCar(p1).getRegistrationNumber());
+		assertSame(sc2.getRegistrationNumber(), replayed.getCar(p3).getRegistrationNumber());
+		assertTrue(replayed.getRentedCars().contains(replayed.getCar(p1)));
+		assertTrue(replayed.getCar(p3).isTankFull());
+		assertNull(replayed.getCar(p2));
+		// The returned car can be issued again
+		assertTrue(replayed.issueCar(p2, dlFixture(p2, 10), "SmallCar"));
+		Car car = replayed.getCar(p2);
+		assertSame(sc1.getRegistrationNumber(), car.getRegistrationNumber());
+		assertEquals(0, replayed.terminateRental(p2));
+	}
+
+	/**
+	 * Test method for RentalJournal.replay method.
+	 * A fleet larger than the initial capacity of the replay is rebuilt with every car and rental.
+	 */
+	@Test
+	void testReplayLargeFleet() throws IOException {
+		Path path = dir.resolve("rentals.journal");
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		Person p2 = personFixture("Jane", "Smith", 32);
+		Car car1, car2;
+
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			RentalCompany rentCo = journal.recover();
+			for (int i=0; i<300; i++) {
+				rentCo.addCar(new SmallCar(String.format("SC%02d QJ%c", 1 + i % 99, (char) ('A' + i / 99))));
+			}
+			assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30), "SmallCar"));
+			assertTrue(rentCo.issueCar(p2, dlFixture(p2, 10), "SmallCar"));
+			car1 = rentCo.getCar(p1);
+			car2 = rentCo.getCar(p2);
+			car2.drive(100);
+			assertEquals(5, rentCo.terminateRental(p2));
+		}
+
+		RentalCompany replayed = RentalJournal.replay(path);
+		assertEquals(299, replayed.availableCars("SmallCar"));
+		assertSame(car1.getRegistrationNumber(), replayed.getCar(p1).getRegistrationNumber());
+		assertNull(replayed.getCar(p2));
+	}
+
+	/**
+	 * Test method for RentalJournal.recover method.
+	 * A recovered RentalCompany goes on recording to the same journal, with group commit.
+	 */
+	@Test
+	void testRecover() throws IOException {
+		Path path = dir.resolve("rentals.journal");
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		Person p2 = personFixture("Jane", "Smith", 32);
+
+		try (RentalJournal journal = RentalJournal.open(path, 1)) {
+			RentalCompany rentCo = journal.recover();
+			rentCo.addCar(new SmallCar("SC03 QBC"));
+			rentCo.addCar(new SmallCar("SC04 QBC"));
+			assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30), "SmallCar"));
+		}
+		try (RentalJournal journal = RentalJournal.open(path, 1)) {
+			RentalCompany rentCo = journal.recover();
+			assertNotNull(rentCo.getCar(p1));
+			assertTrue(rentCo.issueCar(p2, dlFixture(p2, 10), "SmallCar"));
+			FuelRefillReport report = rentCo.terminateRentals(Arrays.asList(p1));
+			assertEquals(0, report.getTotalLitres());
+		}
+
+		RentalCompany replayed = RentalJournal.replay(path);
+		assertNull(replayed.getCar(p1));
+		assertNotNull(replayed.getCar(p2));
+		assertEquals(1, replayed.availableCars("SmallCar"));
+	}
+
+	/**
+	 * Test method for RentalJournal.recover and RentalJournal.replay methods.
+	 * Cars of a registered type are journalled with the name of their type and replayed as TypedCar.
+	 */
+	@Test
+	void testReplayRegisteredType() throws IOException {
+		Path path = dir.resolve("rentals.journal");
+		CarType horsebox = CarType.register("Horsebox", 120, km -> (km + 4) / 5, 25, 5);
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			RentalCompany rentCo = journal.recover();
+			rentCo.addCar(new TypedCar(horsebox, "HB01 QBI"));
+			rentCo.addCar(new TypedCar(horsebox, "HB02 QBI"));
+			assertTrue(rentCo.issueCarOfType(p1, dlFixture(p1, 30), horsebox));
+		}
+
+		RentalCompany replayed = RentalJournal.replay(path);
+		assertEquals(1, replayed.availableCars("Horsebox"));
+		Car car = replayed.getCar(p1);
+		assertTrue(car instanceof TypedCar);
+		assertSame(horsebox, car.getType());
+		assertEquals(120, car.getFuel());
+	}
+
+	/**
+	 * Test method for RentalJournal.replay and RentalJournal.recover methods.
+	 * A partly written record at the end of the journal is ignored, then overwritten.
+	 */
+	@Test
+	void testTornRecord() throws IOException {
+		Path path = dir.resolve("rentals.journal");
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			journal.recover().addCar(new LargeCar("LC02 QBC"));
+		}
+		// The first bytes of an ISSUE record
+		Files.write(path, new byte[] {3, 0, 0}, StandardOpenOption.APPEND);
+
+		RentalCompany replayed = RentalJournal.replay(path);
+		assertEquals(1, replayed.availableCars("LargeCar"));
+
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			RentalCompany rentCo = journal.recover();
+			assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30), "LargeCar"));
+		}
+		replayed = RentalJournal.replay(path);
+		assertNotNull(replayed.getCar(p1));
+	}
+
+	/**
+	 * Test method for RentalJournal.open and RentalJournal.replay methods.
+	 * Files that are not journals, or contain invalid records, are rejected.
+	 */
+	@Test
+	void testInvalid() throws IOException {
+		Path notJournal = dir.resolve("not.journal");
+		Files.write(notJournal, "Not a journal".getBytes());
+		assertThrows(IOException.class, () -> RentalJournal.open(notJournal));
+		assertThrows(IOException.class, () -> RentalJournal.replay(notJournal));
+
+		Path path = dir.resolve("rentals.journal");
+		RentalJournal.open(path).close();
+		assertEquals(0, RentalJournal.replay(path).getRentedCars().size());
+		// A TERMINATE record for a car that was never added
+		Files.write(path, new byte[] {4, 0, 0, 0, 1, 0, 0, 0, 0}, StandardOpenOption.APPEND);
+		assertThrows(IOException.class, () -> RentalJournal.replay(path));
+
+		assertThrows(IllegalArgumentException.class, () -> RentalJournal.open(null));
+		assertThrows(IllegalArgumentException.class, () -> RentalJournal.open(path, -1));
+		assertThrows(IllegalArgumentException.class, () -> RentalJournal.replay(null));
+	}
+
+	/**
+	 * Test method for RentalJournal group commit.
+	 * An event whose record is buffered is committed even if the group commit fails, and the failure is reported by sync.
+	 */
+	@Test
+	void testGroupCommitFailure() throws IOException {
+		Path path = dir.resolve("rentals.journal");
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		FailingChannel channel = new FailingChannel(path);
+
+		try (RentalJournal journal = RentalJournal.open(channel, 1)) {
+			RentalCompany rentCo = journal.recover();
+			channel.failing = true;
+			rentCo.addCar(new SmallCar("SC01 QBN"));
+			assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30), "SmallCar"));
+			assertNotNull(rentCo.getCar(p1));
+			IOException e = assertThrows(IOException.class, journal::sync);
+			assertEquals(1, e.getSuppressed().length);
+			channel.failing = false;
+		}
+
+		RentalCompany replayed = RentalJournal.replay(path);
+		assertEquals("SC01 QBN", replayed.getCar(p1).getRegistrationNumber().toString());
+	}
+
+	/**
+	 * Test method for RentalJournal group commit.
+	 * The file is forced to disk after the journal's lock is released, so events can be recorded while a group commit is forcing it.
+	 */
+	@Test
+	void testGroupCommitOutsideLock() throws IOException, InterruptedException {
+		Path path = dir.resolve("rentals.journal");
+		FailingChannel channel = new FailingChannel(path);
+
+		try (RentalJournal journal = RentalJournal.open(channel, 2)) {
+			RentalCompany rentCo = journal.recover();
+			rentCo.addCar(new SmallCar("SC01 QBZ"));
+			channel.forcing = new CountDownLatch(1);
+			channel.released = new CountDownLatch(1);
+			// The second car completes a group, so adding it forces the file
+			Thread committer = new Thread(() -> rentCo.addCar(new SmallCar("SC02 QBZ")));
+			committer.start();
+			try {
+				assertTrue(channel.forcing.await(10, TimeUnit.SECONDS));
+				// While the file is being forced, another car can be added
+				Thread adder = new Thread(() -> rentCo.addCar(new SmallCar("SC03 QBZ")));
+				adder.start();
+				adder.join(10000);
+				assertFalse(adder.isAlive());
+				assertTrue(committer.isAlive());
+			} finally {
+				channel.forcing = null;
+				channel.released.countDown();
+				committer.join();
+			}
+			assertEquals(3, rentCo.availableCars("SmallCar"));
+		}
+
+		assertEquals(3, RentalJournal.replay(path).availableCars("SmallCar"));
+	}
+
+	/**
+	 * Test method for RentalJournal append failures.
+	 * An event whose record cannot be buffered because the full buffer cannot be written is undone, and not replayed.
+	 */
+	@Test
+	void testAppendFailure() throws IOException {
+		Path path = dir.resolve("rentals.journal");
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		DrivingLicence dl1 = dlFixture(p1, 30);
+		FailingChannel channel = new FailingChannel(path);
+		boolean rented;
+
+		try (RentalJournal journal = RentalJournal.open(channel, 0)) {
+			RentalCompany rentCo = journal.recover();
+			rentCo.addCar(new LargeCar("LC01 QBN"));
+			channel.failing = true;
+			// Issue and return the car until the buffer fills and cannot be written
+			while (true) {
+				try {
+					assertTrue(rentCo.issueCar(p1, dl1, "LargeCar"));
+				} catch (UncheckedIOException e) {
+					assertNull(rentCo.getCar(p1));
+					assertEquals(1, rentCo.availableCars("LargeCar"));
+					break;
+				}
+				try {
+					rentCo.terminateRental(p1);
+				} catch (UncheckedIOException e) {
+					assertNotNull(rentCo.getCar(p1));
+					assertEquals(0, rentCo.availableCars("LargeCar"));
+					break;
+				}
+			}
+			rented = rentCo.getCar(p1) != null;
+			channel.failing = false;
+		}
+
+		RentalCompany replayed = RentalJournal.replay(path);
+		assertEquals(rented, replayed.getCar(p1) != null);
+		assertEquals(rented ? 0 : 1, replayed.availableCars("LargeCar"));
+	}
+
+	/**
+	 * Test method for RentalJournal.replay method.
+	 * Replaying a journal twice restores two independent companies, and no company can hold two cars with the same Registration Number.
+	 */
+	@Test
+	void testReplayTwice() throws IOException {
+		Path path = dir.resolve("rentals.journal");
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		SmallCar sc1 = new SmallCar("SC01 QBO");
+
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			journal.recover().addCar(sc1);
+		}
+
+		RentalCompany first = RentalJournal.replay(path);
+		RentalCompany second = RentalJournal.replay(path);
+		assertTrue(first.issueCar(p1, dlFixture(p1, 30), "SmallCar"));
+		assertTrue(second.issueCar(p1, dlFixture(p1, 30), "SmallCar"));
+		Car car1 = first.getCar(p1);
+		Car car2 = second.getCar(p1);
+		assertNotSame(car1, car2);
+		assertSame(sc1.getRegistrationNumber(), car1.getRegistrationNumber());
+		assertSame(sc1.getRegistrationNumber(), car2.getRegistrationNumber());
+		// The car replayed into one company cannot be added to the other, nor the original car to either
+		assertThrows(IllegalStateException.class, () -> first.addCar(car2));
+		assertThrows(IllegalStateException.class, () -> second.addCar(car1));
+		assertThrows(IllegalStateException.class, () -> first.addCar(sc1));
+		assertEquals(0, first.terminateRental(p1));
+		assertEquals(1, first.availableCars("SmallCar"));
+		assertEquals(0, second.availableCars("SmallCar"));
+	}
+
+	/**
+	 * Test method for RentalJournal.replay and RentalJournal.recover methods.
+	 * A car returned with less than no fuel is issued again with a full tank, as it was when live.
+	 */
+	@Test
+	void testReplayRefillBelowEmpty() throws IOException {
+		Path path = dir.resolve("rentals.journal");
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		Person p2 = personFixture("Jane", "Smith", 32);
+
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			RentalCompany rentCo = journal.recover();
+			rentCo.addCar(new SmallCar("SC01 QBT"));
+			assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30), "SmallCar"));
+			Car car = rentCo.getCar(p1);
+			car.drive(1080);
+			assertTrue(car.getFuel() < 0);
+			rentCo.terminateRental(p1);
+			assertTrue(rentCo.issueCar(p2, dlFixture(p2, 10), "SmallCar"));
+			assertEquals(car.getCapacity(), rentCo.getCar(p2).getFuel());
+		}
+
+		Car replayed = RentalJournal.replay(path).getCar(p2);
+		assertEquals(replayed.getCapacity(), replayed.getFuel());
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			Car recovered = journal.recover().getCar(p2);
+			assertEquals(recovered.getCapacity(), recovered.getFuel());
+		}
+	}
+
+	/**
+	 * Test method for RentalJournal.replay and RentalJournal.recover methods.
+	 * A person born at a time other than the start of the day is replayed equal to the person who rented the car, so the rental can be terminated.
+	 */
+	@Test
+	void testReplayBirthTime() throws IOException {
+		Path path = dir.resolve("rentals.journal");
+		Person p1 = personFixture("Stephen", "Shephard", 50, LocalTime.of(14, 35, 27, 123_000_000));
+
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			RentalCompany rentCo = journal.recover();
+			rentCo.addCar(new SmallCar("SC01 QBW"));
+			assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30), "SmallCar"));
+		}
+
+		RentalCompany replayed = RentalJournal.replay(path);
+		Car car = replayed.getCar(p1);
+		assertNotNull(car);
+		Person renter = replayed.getRenter(car);
+		assertEquals(p1, renter);
+		assertEquals(p1.hashCode(), renter.hashCode());
+		assertEquals(p1.getBirthDate(), renter.getBirthDate());
+		assertEquals(0, replayed.terminateRental(p1));
+		assertEquals(1, replayed.availableCars("SmallCar"));
+
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			RentalCompany rentCo = journal.recover();
+			assertEquals(0, rentCo.terminateRental(p1));
+		}
+		assertNull(RentalJournal.replay(path).getCar(p1));
+	}
+
+	/**
+	 * Test method for RentalJournal.replay method.
+	 * An ISSUE record whose instant of birth is in the future is rejected as an invalid journal.
+	 */
+	@Test
+	void testReplayInvalidBirth() throws IOException {
+		Path path = dir.resolve("rentals.journal");
+		SmallCar sc1 = new SmallCar("SC02 QBW");
+
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			journal.recover().addCar(sc1);
+		}
+		// An ISSUE record of the car to Jo Lee, born at the last instant a long can hold
+		ByteBuffer issue = ByteBuffer.allocate(5 + 12 + 5);
+		issue.put((byte) 3).putInt(sc1.getRegistrationNumber().getPackedValue()).putLong(Long.MAX_VALUE).putShort((short) 2).putShort((short) 3);
+		issue.put("JoLee".getBytes(StandardCharsets.US_ASCII));
+		Files.write(path, issue.array(), StandardOpenOption.APPEND);
+
+		assertThrows(IOException.class, () -> RentalJournal.replay(path));
+	}
+
+	/**
+	 * Test method for RentalJournal.replay method.
+	 * A journal that is rejected registers none of the Registration Numbers of its cars, even those added by valid records.
+	 */
+	@Test
+	void testReplayInvalidInternsNothing() throws IOException {
+		Path path = dir.resolve("rentals.journal");
+		RentalJournal.open(path).close();
+		// Packed value of SC01 QBX: each letter as a base 26 digit and each digit as a base 10 digit, most significant first
+		int packed = ((((((('S' - 'A') * 26 + ('C' - 'A')) * 10 + 0) * 10 + 1) * 26 + ('Q' - 'A')) * 26 + ('B' - 'A')) * 26 + ('X' - 'A'));
+		// A valid ADD record of the SmallCar, then a TERMINATE record of another car that was never added
+		ByteBuffer records = ByteBuffer.allocate(5 + 9);
+		records.put((byte) 1).putInt(packed).put((byte) 4).putInt(packed + 1).putInt(0);
+		Files.write(path, records.array(), StandardOpenOption.APPEND);
+
+		IOException e = assertThrows(IOException.class, () -> RentalJournal.replay(path));
+		assertTrue(e.getMessage().endsWith("position 13"));
+		try (RentalJournal journal = RentalJournal.open(path)) {
+			assertThrows(IOException.class, journal::recover);
+		}
+
+		// SC01 QBX is not in use, so it can still be registered
+		assertEquals(packed, new SmallCar("SC01 QBX").getRegistrationNumber().getPackedValue());
+	}
+}
@@ -0,0 +1,62 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Calendar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RentalRegistryTest class.  JUnit test cases for the RentalRegistry class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class RentalRegistryTest {
+
+	private Person personFixture() {
+		Calendar cDOB = Calendar.getInstance();
+		cDOB.set(1971,Calendar.DECEMBER,18);
+		return new Person(new Name("Stephen", "Shephard"), cDOB.getTime());
+	}
+
+	/**
+	 * Test method for RentalRegistry.put method.
+	 * Rentals can be looked up in both directions.
+	 */
+	@Test
+	void testPut() {
+		RentalRegistry registry = new RentalRegistry();
+		Person p = personFixture();
+		SmallCar sc = new SmallCar("SC01 QAD");
+
+		registry.put(p, sc);
+
+		assertTrue(registry.isRenting(p));
+		assertSame(sc, registry.getCar(p));
+		assertSame(p, registry.getRenter(sc));
+		assertTrue(registry.rentedCars().contains(sc));
+		assertEquals(1, registry.rentedCars().size());
+	}
+
+	/**
+	 * Test method for RentalRegistry.remove method.
+	 * Removing a rental removes both directions.
+	 */
+	@Test
+	void testRemove() {
+		RentalRegistry registry = new RentalRegistry();
+		Person p = personFixture();
+		LargeCar lc = new LargeCar("LC01 QAD");
+		registry.put(p, lc);
+
+		assertSame(lc, registry.remove(p));
+
+		assertFalse(registry.isRenting(p));
+		assertNull(registry.getCar(p));
+		assertNull(registry.getRenter(lc));
+		assertTrue(registry.rentedCars().isEmpty());
+
+		// Removing a nonexistent rental does nothing
+		assertNull(registry.remove(p));
+	}
+}
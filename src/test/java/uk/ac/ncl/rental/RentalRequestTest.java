@@ -0,0 +1,52 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RentalRequestTest class.  JUnit test cases for the RentalRequest class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class RentalRequestTest {
+
+	/**
+	 * Test method for RentalRequest Constructor.
+	 */
+	@Test
+	void testRentalRequest() {
+		Person p = Person.of(new Name("Rita", "Quest"), LocalDate.of(1980, 3, 14));
+		DrivingLicence dl = DrivingLicence.of(p.getName(), LocalDate.of(2000, 6, 1), true);
+		RentalRequest rr = new RentalRequest(p, dl, "SmallCar");
+
+		assertSame(p, rr.getPerson());
+		assertSame(dl, rr.getDrivingLicence());
+		assertEquals("SmallCar", rr.getTypeOfCar());
+		assertSame(CarType.SMALL_CAR, rr.getType());
+		assertEquals(p + "," + dl + ",SmallCar", rr.toString());
+
+		RentalRequest large = RentalRequest.ofType(p, dl, CarType.LARGE_CAR);
+		assertEquals("LargeCar", large.getTypeOfCar());
+		assertSame(CarType.LARGE_CAR, large.getType());
+	}
+
+	/**
+	 * Test method for RentalRequest Constructor.
+	 * Parameters are checked as RentalCompany.issueCar checks them.
+	 */
+	@Test
+	void testRentalRequestInvalid() {
+		Person p = Person.of(new Name("Rita", "Quest"), LocalDate.of(1980, 3, 14));
+		DrivingLicence dl = DrivingLicence.of(p.getName(), LocalDate.of(2000, 6, 1), true);
+
+		assertThrows(IllegalArgumentException.class, () -> new RentalRequest(null, dl, "SmallCar"));
+		assertThrows(IllegalArgumentException.class, () -> new RentalRequest(p, null, "SmallCar"));
+		assertThrows(IllegalArgumentException.class, () -> new RentalRequest(p, dl, null));
+		assertThrows(IllegalArgumentException.class, () -> new RentalRequest(p, dl, "Van"));
+		assertThrows(IllegalArgumentException.class, () -> RentalRequest.ofType(p, dl, null));
+		assertThrows(IllegalArgumentException.class, () -> RentalRequest.ofType(null, dl, CarType.SMALL_CAR));
+	}
+}
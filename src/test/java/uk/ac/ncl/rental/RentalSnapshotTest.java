@@ -0,0 +1,272 @@
+package uk.ac.ncl.rental;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static uk.ac.ncl.rental.RentalFixtures.personFixture;
+import static uk.ac.ncl.rental.RentalFixtures.dlFixture;
+
+/**
+ * RentalSnapshotTest class.  JUnit test cases for the RentalSnapshot class.
+ * @author Stephen Shephard
+ * @version 1.0
+ */
+class RentalSnapshotTest {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Test method for RentalSnapshot.write and RentalSnapshot.load methods.
+	 * The fleet, rentals and fuel are restored from the snapshot.
+	 */
+	@Test
+	void testWriteLoad() throws IOException {
+		Path path = dir.resolve("rentals.snapshot");
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		Person p2 = personFixture("Jane", "Smith", 32);
+		RentalCompany rentCo = new RentalCompany();
+		SmallCar sc1 = new SmallCar("SC01 QBD");
+		SmallCar sc2 = new SmallCar("SC02 QBD");
+		LargeCar lc1 = new LargeCar("LC01 QBD");
+		rentCo.addCar(sc1);
+		rentCo.addCar(sc2);
+		rentCo.addCar(lc1);
+		assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30), "LargeCar"));
+		assertTrue(rentCo.issueCar(p2, dlFixture(p2, 10), "SmallCar"));
+		lc1.drive(30);
+		Car sc = rentCo.getCar(p2);
+		sc.drive(100);
+
+		RentalSnapshot.write(rentCo, path);
+		assertFalse(Files.exists(dir.resolve("rentals.snapshot.tmp")));
+
+		RentalCompany loaded = RentalSnapshot.load(path);
+		assertEquals(1, loaded.availableCars("SmallCar"));
+		assertEquals(0, loaded.availableCars("LargeCar"));
+		assertEquals(2, loaded.getRentedCars().size());
+		Car lc = loaded.getCar(p1);
+		assertSame(lc1.getRegistrationNumber(), lc.getRegistrationNumber());
+		assertTrue(lc instanceof LargeCar);
+		assertEquals(lc1.getFuel(), lc.getFuel());
+		assertSame(sc.getRegistrationNumber(), loaded.getCar(p2).getRegistrationNumber());
+		assertEquals(sc.getFuel(), loaded.getCar(p2).getFuel());
+		assertEquals(p1, loaded.getRenter(lc));
+
+		// The loaded company works as any other
+		assertEquals(3, loaded.terminateRental(p1));
+		assertEquals(1, loaded.availableCars("LargeCar"));
+
+		// Writing again replaces the snapshot
+		RentalSnapshot.write(loaded, path);
+		assertEquals(1, RentalSnapshot.load(path).getRentedCars().size());
+	}
+
+	/**
+	 * Test method for RentalSnapshot.write and RentalSnapshot.load methods.
+	 * A journalled company can be written, and an empty company round trips.
+	 */
+	@Test
+	void testWriteJournalled() throws IOException {
+		Path path = dir.resolve("rentals.snapshot");
+		RentalSnapshot.write(new RentalCompany(), path);
+		assertEquals(0, RentalSnapshot.load(path).getRentedCars().size());
+
+		try (RentalJournal journal = RentalJournal.open(dir.resolve("rentals.journal"))) {
+			RentalCompany rentCo = journal.recover();
+			rentCo.addCar(new SmallCar("SC03 QBD"));
+			Person p1 = personFixture("Anne", "Other", 40);
+			assertTrue(rentCo.issueCar(p1, dlFixture(p1, 20), "SmallCar"));
+			RentalSnapshot.write(rentCo, path);
+			assertNotNull(RentalSnapshot.load(path).getCar(p1));
+			assertEquals(0, RentalSnapshot.load(path).terminateRentals(Arrays.asList(p1)).getTotalLitres());
+		}
+	}
+
+	/**
+	 * Test method for RentalSnapshot.write and RentalSnapshot.load methods.
+	 * Cars of registered types are written with a table of the names of their types and loaded as TypedCar.
+	 */
+	@Test
+	void testWriteLoadRegisteredType() throws IOException {
+		Path path = dir.resolve("rentals.snapshot");
+		CarType limousine = CarType.register("Limousine", 90, km -> (km + 5) / 6, 30, 10);
+		CarType camper = CarType.register("Camper", 100, km -> (km + 6) / 7, 25, 5);
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		RentalCompany rentCo = new RentalCompany();
+		rentCo.addCar(new SmallCar("SC04 QBI"));
+		rentCo.addCar(new TypedCar(camper, "CV01 QBI"));
+		rentCo.addCar(new TypedCar(limousine, "LM01 QBI"));
+		assertTrue(rentCo.issueCarOfType(p1, dlFixture(p1, 30), limousine));
+		assertEquals(2, rentCo.getCar(p1).drive(12));
+
+		RentalSnapshot.write(rentCo, path);
+		RentalCompany loaded = RentalSnapshot.load(path);
+		assertEquals(1, loaded.availableCarsOfType(CarType.SMALL_CAR));
+		assertEquals(1, loaded.availableCarsOfType(camper));
+		assertEquals(0, loaded.availableCarsOfType(limousine));
+		Car car = loaded.getCar(p1);
+		assertTrue(car instanceof TypedCar);
+		assertSame(limousine, car.getType());
+		assertEquals(88, car.getFuel());
+		assertEquals(2, loaded.terminateRental(p1));
+	}
+
+	/**
+	 * Test method for RentalSnapshot.load method.
+	 * Files that are not snapshots, or are truncated, are rejected.
+	 */
+	@Test
+	void testLoadInvalid() throws IOException {
+		Path notSnapshot = dir.resolve("not.snapshot");
+		Files.write(notSnapshot, "Not a snapshot".getBytes());
+		assertThrows(IOException.class, () -> RentalSnapshot.load(notSnapshot));
+
+		Path path = dir.resolve("rentals.snapshot");
+		RentalCompany rentCo = new RentalCompany();
+		rentCo.addCar(new LargeCar("LC02 QBD"));
+		RentalSnapshot.write(rentCo, path);
+		byte[] bytes = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+		assertThrows(IOException.class, () -> RentalSnapshot.load(path));
+
+		assertThrows(IllegalArgumentException.class, () -> RentalSnapshot.load(null));
+		assertThrows(IllegalArgumentException.class, () -> RentalSnapshot.write(null, path));
+		assertThrows(IllegalArgumentException.class, () -> RentalSnapshot.write(rentCo, null));
+	}
+
+	/**
+	 * Test method for RentalSnapshot.load method.
+	 * A snapshot holding two cars with the same Registration Number is rejected.
+	 */
+	@Test
+	void testLoadDuplicate() throws IOException {
+		Path path = dir.resolve("rentals.snapshot");
+		int packed = new SmallCar("SC01 QBP").getRegistrationNumber().getPackedValue();
+		// Header, two records of the same unrented SmallCar, and an empty table of types
+		ByteBuffer snapshot = ByteBuffer.allocate(16 + 2 * 16 + 1);
+		snapshot.putInt(0x52534E50).putInt(3).putInt(2).putInt(0);
+		for (int i=0; i<2; i++) {
+			snapshot.putInt(packed).put((byte) 1).put((byte) 0).putShort((short) SmallCar.CAPACITY).putInt(SmallCar.CAPACITY).putInt(-1);
+		}
+		snapshot.put((byte) 0);
+		Files.write(path, snapshot.array());
+
+		IOException e = assertThrows(IOException.class, () -> RentalSnapshot.load(path));
+		assertTrue(e.getMessage().endsWith("position 32"));
+
+		// The same snapshot with one record loads
+		snapshot.putInt(8, 1);
+		Files.write(path, Arrays.copyOf(snapshot.array(), 32));
+		Files.write(path, new byte[] {0}, StandardOpenOption.APPEND);
+		assertEquals(1, RentalSnapshot.load(path).availableCars("SmallCar"));
+	}
+
+	/**
+	 * Test method for RentalSnapshot.load method.
+	 * A snapshot that is rejected registers none of the Registration Numbers of its cars, even those in valid records.
+	 */
+	@Test
+	void testLoadInvalidInternsNothing() throws IOException {
+		Path path = dir.resolve("rentals.snapshot");
+		// Packed value of SC01 QBV: each letter as a base 26 digit and each digit as a base 10 digit, most significant first
+		int packed = ((((((('S' - 'A') * 26 + ('C' - 'A')) * 10 + 0) * 10 + 1) * 26 + ('Q' - 'A')) * 26 + ('B' - 'A')) * 26 + ('V' - 'A'));
+		// Header, a valid record of an unrented SmallCar, a record of an unknown type of car, and an empty table of types
+		ByteBuffer snapshot = ByteBuffer.allocate(16 + 2 * 16 + 1);
+		snapshot.putInt(0x52534E50).putInt(3).putInt(2).putInt(0);
+		snapshot.putInt(packed).put((byte) 1).put((byte) 0).putShort((short) SmallCar.CAPACITY).putInt(SmallCar.CAPACITY).putInt(-1);
+		snapshot.putInt(packed + 1).put((byte) 9).put((byte) 0).putShort((short) SmallCar.CAPACITY).putInt(SmallCar.CAPACITY).putInt(-1);
+		snapshot.put((byte) 0);
+		Files.write(path, snapshot.array());
+
+		IOException e = assertThrows(IOException.class, () -> RentalSnapshot.load(path));
+		assertTrue(e.getMessage().endsWith("position 32"));
+
+		// SC01 QBV is not in use, so it can still be registered
+		assertEquals(packed, new SmallCar("SC01 QBV").getRegistrationNumber().getPackedValue());
+	}
+
+	/**
+	 * Test method for RentalSnapshot.write and RentalSnapshot.load methods.
+	 * A person born at a time other than the start of the day is loaded equal to the person who rented the car, so the rental can be terminated.
+	 */
+	@Test
+	void testWriteLoadBirthTime() throws IOException {
+		Path path = dir.resolve("rentals.snapshot");
+		Person p1 = personFixture("Stephen", "Shephard", 50, LocalTime.of(9, 12, 44, 567_000_000));
+		RentalCompany rentCo = new RentalCompany();
+		rentCo.addCar(new LargeCar("LC01 QBW"));
+		assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30), "LargeCar"));
+
+		RentalSnapshot.write(rentCo, path);
+		RentalCompany loaded = RentalSnapshot.load(path);
+		Car car = loaded.getCar(p1);
+		assertNotNull(car);
+		assertEquals(p1, loaded.getRenter(car));
+		assertEquals(p1.getBirthDate(), loaded.getRenter(car).getBirthDate());
+		assertEquals(0, loaded.terminateRental(p1));
+		assertEquals(1, loaded.availableCars("LargeCar"));
+
+		// A renter whose instant of birth is corrupt, after the header, the car record and the empty table of types, is rejected
+		ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(path));
+		snapshot.putLong(16 + 16 + 1, Long.MAX_VALUE);
+		Files.write(path, snapshot.array());
+		assertThrows(IOException.class, () -> RentalSnapshot.load(path));
+	}
+
+	/**
+	 * Test method for RentalSnapshot.load method.
+	 * Snapshots of earlier versions, which held only the day of birth of each renter, are rejected.
+	 */
+	@Test
+	void testLoadOldVersion() throws IOException {
+		Path path = dir.resolve("rentals.snapshot");
+		RentalSnapshot.write(new RentalCompany(), path);
+		assertEquals(0, RentalSnapshot.load(path).getRentedCars().size());
+		for (int version=1; version<=2; version++) {
+			ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(path));
+			snapshot.putInt(4, version);
+			Files.write(path, snapshot.array());
+			IOException e = assertThrows(IOException.class, () -> RentalSnapshot.load(path));
+			assertEquals("Unsupported rental snapshot version " + version, e.getMessage());
+		}
+	}
+
+	/**
+	 * Test method for RentalSnapshot.write method.
+	 * The snapshot is written from the state of each car when the company was copied, not from the car as it is changed later.
+	 */
+	@Test
+	void testWriteFromCopy() throws IOException {
+		Path path = dir.resolve("rentals.snapshot");
+		Person p1 = personFixture("Stephen", "Shephard", 50);
+		Person p2 = personFixture("Jane", "Smith", 32);
+		RentalCompany rentCo = new RentalCompany();
+		rentCo.addCar(new LargeCar("LC01 QBY"));
+		assertTrue(rentCo.issueCar(p1, dlFixture(p1, 30), "LargeCar"));
+		Car car = rentCo.getCar(p1);
+		car.drive(30);
+		int fuel = car.getFuel();
+
+		RentalSnapshot.Copy copy = RentalSnapshot.copy(rentCo);
+		// The car is returned, issued to someone else and driven after it was copied
+		rentCo.terminateRental(p1);
+		assertTrue(rentCo.issueCar(p2, dlFixture(p2, 10), "LargeCar"));
+		car.drive(100);
+		assertNotEquals(fuel, car.getFuel());
+		RentalSnapshot.writeCopy(copy, path);
+
+		RentalCompany loaded = RentalSnapshot.load(path);
+		assertEquals(fuel, loaded.getCar(p1).getFuel());
+		assertNull(loaded.getCar(p2));
+	}
+}